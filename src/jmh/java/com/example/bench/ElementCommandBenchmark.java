@@ -0,0 +1,102 @@
+package com.example.bench;
+
+import com.example.browser.LaunchProfile;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the element reads and scripts the tests issue most, on an already located element.
+ * {@link #getTitle} is the floor: one round trip that does no work in the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElementCommandBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int domSize;
+
+    private WebDriver driver;
+    private WebElement input;
+    private WebElement paragraph;
+
+    @Setup(Level.Trial)
+    public void launch() {
+        driver = LaunchProfile.FAST_HEADLESS.launch();
+        driver.get(FixturePage.write(domSize));
+        input = driver.findElement(By.id("target"));
+        paragraph = driver.findElement(By.className("target-text"));
+    }
+
+    @TearDown(Level.Trial)
+    public void quit() {
+        driver.quit();
+    }
+
+    @Benchmark
+    public String getTitle() {
+        return driver.getTitle();
+    }
+
+    @Benchmark
+    public String getText() {
+        return paragraph.getText();
+    }
+
+    @Benchmark
+    public String getAttribute() {
+        return input.getAttribute("value");
+    }
+
+    @Benchmark
+    public String getDomAttribute() {
+        return input.getDomAttribute("name");
+    }
+
+    @Benchmark
+    public String getCssValue() {
+        return paragraph.getCssValue("color");
+    }
+
+    @Benchmark
+    public boolean isDisplayed() {
+        return input.isDisplayed();
+    }
+
+    @Benchmark
+    public Object executeScript() {
+        return ((JavascriptExecutor) driver).executeScript("return 1");
+    }
+
+    @Benchmark
+    public Object executeScriptWithElement() {
+        return ((JavascriptExecutor) driver).executeScript("return arguments[0].value", input);
+    }
+
+    /** Result-size cost: every item on the page comes back as an element reference. */
+    @Benchmark
+    public List<WebElement> findElementsAllItems() {
+        return driver.findElements(By.className("item"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Deterministic local page for benchmarks: {@code size} list items followed by one target
+ * block, so every locator has to get past the whole list before it matches.
+ *
+ * <pre>
+ * body
+ *   div#list
+ *     div.item#item-0 ... div.item#item-(size-1)    (label span, link, input each)
+ *     div#target-box > form > input#target.target[name=target], a "Target link", p.target-text
+ * </pre>
+ */
+final class FixturePage {
+
+    private FixturePage() {
+    }
+
+    static String html(int size) {
+        StringBuilder html = new StringBuilder(size * 200);
+        html.append("<!DOCTYPE html><html><head><title>Fixture ").append(size).append("</title></head><body>");
+        html.append("<div id=\"list\">");
+        for (int i = 0; i < size; i++) {
+            html.append("<div class=\"item item-").append(i % 10).append("\" id=\"item-").append(i)
+                    .append("\" data-index=\"").append(i).append("\">")
+                    .append("<span class=\"label\">Item ").append(i).append("</span> ")
+                    .append("<a href=\"#item-").append(i).append("\">Link ").append(i).append("</a>")
+                    .append("<input name=\"field-").append(i).append("\" value=\"").append(i).append("\">")
+                    .append("</div>");
+        }
+        html.append("<div id=\"target-box\"><form>")
+                .append("<input id=\"target\" name=\"target\" class=\"target\" type=\"text\" value=\"target value\">")
+                .append("<a id=\"target-link\" href=\"#target\">Target link</a>")
+                .append("<p class=\"target-text\" style=\"color: rgb(0, 0, 255)\">Target paragraph text</p>")
+                .append("</form></div>");
+        html.append("</div></body></html>");
+        return html.toString();
+    }
+
+    /** Writes the page to a temporary file and returns its {@code file:} URL. */
+    static String write(int size) {
+        try {
+            Path file = Files.createTempFile("fixture-" + size + "-", ".html");
+            file.toFile().deleteOnExit();
+            Files.writeString(file, html(size));
+            return file.toUri().toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write fixture page", e);
+        }
+    }
+
+    /** Absolute XPath of the target input; the target block is the last child of {@code #list}. */
+    static String absoluteTargetXpath(int size) {
+        return "/html/body/div/div[" + (size + 1) + "]/form/input";
+    }
+}
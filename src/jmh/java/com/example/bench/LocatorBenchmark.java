@@ -0,0 +1,97 @@
+package com.example.bench;
+
+import com.example.browser.LaunchProfile;
+import com.example.snapshot.SnapshotDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * {@code findElement}/{@code findElements} latency of every {@code By} strategy used in the
+ * tests, against a {@link FixturePage} of {@code domSize} items. Every locator matches the same
+ * target at the end of the page.
+ *
+ * {@code driver=snapshot} runs the same lookups through {@link SnapshotDriver}, answering them
+ * from one DOM capture instead of a round trip each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocatorBenchmark {
+
+    public enum Strategy {
+        ID(size -> By.id("target")),
+        NAME(size -> By.name("target")),
+        CSS(size -> By.cssSelector("form > input[name='target']")),
+        XPATH(size -> By.xpath("//input[@name='target']")),
+        LINK_TEXT(size -> By.linkText("Target link")),
+        PARTIAL_LINK_TEXT(size -> By.partialLinkText("Target")),
+        CLASS_NAME(size -> By.className("target")),
+        TAG_NAME(size -> By.tagName("form")),
+        ABSOLUTE_XPATH(size -> By.xpath(FixturePage.absoluteTargetXpath(size)));
+
+        private final IntFunction<By> locator;
+
+        Strategy(IntFunction<By> locator) {
+            this.locator = locator;
+        }
+    }
+
+    @Param({"100", "1000", "10000"})
+    public int domSize;
+
+    @Param
+    public Strategy strategy;
+
+    @Param({"remote", "snapshot"})
+    public String driver;
+
+    private WebDriver browser;
+    private WebDriver queries;
+    private By locator;
+
+    @Setup(Level.Trial)
+    public void launch() {
+        browser = LaunchProfile.FAST_HEADLESS.launch();
+        browser.get(FixturePage.write(domSize));
+        queries = driver.equals("snapshot") ? SnapshotDriver.wrap(browser) : browser;
+        locator = strategy.locator.apply(domSize);
+        // Fail the trial early if a locator does not match the fixture
+        queries.findElement(locator);
+    }
+
+    @TearDown(Level.Trial)
+    public void quit() {
+        browser.quit();
+    }
+
+    @Benchmark
+    public WebElement findElement() {
+        return queries.findElement(locator);
+    }
+
+    @Benchmark
+    public List<WebElement> findElements() {
+        return queries.findElements(locator);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.bench;
+
+import com.example.browser.LaunchProfile;
+import com.example.direct.DirectDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same commands over the W3C transport (via chromedriver) and over DevTools
+ * ({@link DirectDriver}). {@link #step} is one iteration of a chatty test: find, read and click.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+    @Param({"w3c", "direct"})
+    public String transport;
+
+    @Param({"1000"})
+    public int domSize;
+
+    private WebDriver driver;
+    private String url;
+    private WebElement input;
+    private WebElement paragraph;
+    private WebElement link;
+
+    @Setup(Level.Trial)
+    public void launch() {
+        WebDriver launched = LaunchProfile.FAST_HEADLESS.launch();
+        driver = "direct".equals(transport) ? DirectDriver.wrap(launched) : launched;
+        url = FixturePage.write(domSize);
+        driver.get(url);
+        input = driver.findElement(By.id("target"));
+        paragraph = driver.findElement(By.className("target-text"));
+        link = driver.findElement(By.id("target-link"));
+    }
+
+    @TearDown(Level.Trial)
+    public void quit() {
+        driver.quit();
+    }
+
+    @Benchmark
+    public WebElement findElement() {
+        return driver.findElement(By.cssSelector("#target-box .target"));
+    }
+
+    @Benchmark
+    public List<WebElement> findElements() {
+        return driver.findElements(By.cssSelector(".item-3 .label"));
+    }
+
+    @Benchmark
+    public String getText() {
+        return paragraph.getText();
+    }
+
+    @Benchmark
+    public String getAttribute() {
+        return input.getAttribute("value");
+    }
+
+    @Benchmark
+    public void click() {
+        link.click();
+    }
+
+    @Benchmark
+    public Object executeScript() {
+        return ((JavascriptExecutor) driver).executeScript("return arguments[0].value", input);
+    }
+
+    @Benchmark
+    public String getTitle() {
+        return driver.getTitle();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 20)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void navigate() {
+        driver.get(url);
+        input = driver.findElement(By.id("target"));
+        paragraph = driver.findElement(By.className("target-text"));
+        link = driver.findElement(By.id("target-link"));
+    }
+
+    @Benchmark
+    public String step() {
+        WebElement target = driver.findElement(By.id("target"));
+        String value = target.getAttribute("value");
+        link.click();
+        return value + paragraph.getText();
+    }
+}
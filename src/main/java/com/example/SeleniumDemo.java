@@ -1,45 +1,36 @@
 package com.example;
 
+import com.example.browser.LaunchProfile;
+import com.example.wait.PageContracts;
+import com.example.wait.PushConditions;
+import com.example.wait.PushWait;
+import com.example.wait.Readiness;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 import java.time.Duration;
 
 public class SeleniumDemo {
     public static void main(String[] args) {
-        // Setup ChromeDriver automatically
-        WebDriverManager.chromedriver().setup();
-
-        // Configure Chrome options
-        ChromeOptions options = new ChromeOptions();
-        // Remove --headless to see the browser
-        options.addArguments("--headless");
-        options.addArguments("--start-maximized");
-        options.addArguments("--disable-blink-features=AutomationControlled");
-
-        // Create WebDriver instance
-        WebDriver driver = new ChromeDriver(options);
+        // Launch headless Chrome; run with -Dbrowser.profile=debug to see the browser.
+        // Navigation returns once the page's contract holds, not at the load event.
+        WebDriver driver = PageContracts.enforce(LaunchProfile.FAST_HEADLESS.launch());
 
         // Set up explicit wait
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        PushWait wait = new PushWait(driver, Duration.ofSeconds(10));
 
         try {
             System.out.println("Navigating to example.com...");
             driver.get("https://example.com");
 
             // Wait for page to load
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            wait.until(PushConditions.presenceOfElementLocated(By.tagName("body")));
 
             String title = driver.getTitle();
             System.out.println("Page title: " + title);
 
-            WebElement heading = wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("h1")));
+            WebElement heading = wait.until(PushConditions.presenceOfElementLocated(By.tagName("h1")));
             System.out.println("Heading text: " + heading.getText());
 
             // Get page body text (example.com no longer has the "More information..." link)
@@ -51,8 +42,8 @@ public class SeleniumDemo {
             driver.get("https://www.iana.org/domains/reserved");
 
             // Wait for new page to load
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("h1")));
-            Thread.sleep(2000);
+            wait.until(PushConditions.presenceOfElementLocated(By.tagName("h1")));
+            Readiness.settle(driver, Duration.ofSeconds(2));
 
             System.out.println("New page title: " + driver.getTitle());
             System.out.println("Current URL: " + driver.getCurrentUrl());
@@ -0,0 +1,212 @@
+package com.example.browser;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Keeps launched browsers warm and leases them out one test at a time.
+ *
+ * A released session is reset (see {@link SessionReset}) and parked for the next lease;
+ * sessions that fail the health check, fail to reset, reach {@code maxLeases} or fail the
+ * {@link #retireWhen} check are quit and replaced by a fresh launch. All methods are safe to call
+ * from parallel tests; the total number of live browsers is bounded by the pool's
+ * {@link SessionLimiter}, with which {@link #create} registers it.
+ */
+public class BrowserPool implements AutoCloseable {
+
+    private final String name;
+    private final Supplier<WebDriver> factory;
+    private final int maxIdle;
+    private final int maxLeases;
+    private final SessionLimiter limiter;
+
+    private final BlockingDeque<WebDriver> idle = new LinkedBlockingDeque<>();
+    private final Map<WebDriver, Integer> leaseCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger launched = new AtomicInteger();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger recycled = new AtomicInteger();
+    private final AtomicInteger retired = new AtomicInteger();
+    private volatile Predicate<WebDriver> retire = driver -> false;
+    private volatile boolean closed;
+
+    private BrowserPool(String name, Supplier<WebDriver> factory, int maxIdle, int maxLeases,
+                        SessionLimiter limiter) {
+        this.name = name;
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+        this.maxLeases = maxLeases;
+        this.limiter = limiter;
+    }
+
+    public static BrowserPool create(String name, Supplier<WebDriver> factory) {
+        return create(name, factory,
+                Integer.getInteger("browser.pool.maxIdle", SessionLimiter.GLOBAL.maxSessions()),
+                Integer.getInteger("browser.pool.maxLeases", 50));
+    }
+
+    public static BrowserPool create(String name, Supplier<WebDriver> factory, int maxIdle, int maxLeases) {
+        return create(name, factory, maxIdle, maxLeases, SessionLimiter.GLOBAL);
+    }
+
+    /**
+     * A pool bounded by {@code limiter}, registered with it so its parked sessions can make room
+     * for other pools.
+     */
+    public static BrowserPool create(String name, Supplier<WebDriver> factory, int maxIdle, int maxLeases,
+                                     SessionLimiter limiter) {
+        BrowserPool pool = new BrowserPool(name, factory, maxIdle, maxLeases, limiter);
+        limiter.register(pool);
+        return pool;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Quits a released session instead of parking it when {@code check} holds once the session
+     * has been reset, e.g. because it has grown too big to keep reusing.
+     */
+    public BrowserPool retireWhen(Predicate<WebDriver> check) {
+        this.retire = check;
+        return this;
+    }
+
+    /** Hands out a healthy warm session, or launches a new one when none is parked. */
+    public WebDriver lease() {
+        if (closed) {
+            throw new IllegalStateException("Browser pool '" + name + "' is closed");
+        }
+        WebDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            if (isHealthy(driver)) {
+                reused.incrementAndGet();
+                leaseCounts.merge(driver, 1, Integer::sum);
+                return driver;
+            }
+            discard(driver);
+        }
+        limiter.acquire();
+        try {
+            driver = factory.get();
+        } catch (RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+        launched.incrementAndGet();
+        leaseCounts.put(driver, 1);
+        return driver;
+    }
+
+    /** Resets the session and parks it for reuse; broken or worn-out sessions are quit instead. */
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (closed || leaseCounts.getOrDefault(driver, 0) >= maxLeases) {
+            discard(driver);
+            return;
+        }
+        try {
+            SessionReset.reset(driver);
+            if (retire.test(driver)) {
+                retired.incrementAndGet();
+                discard(driver);
+                return;
+            }
+        } catch (WebDriverException e) {
+            discard(driver);
+            return;
+        }
+        if (idle.size() < maxIdle) {
+            idle.offerFirst(driver);
+        } else {
+            discard(driver);
+        }
+    }
+
+    /** Quits a session without returning it to the pool. */
+    public void discard(WebDriver driver) {
+        recycled.incrementAndGet();
+        quietlyQuit(driver);
+        if (leaseCounts.remove(driver) != null) {
+            limiter.release();
+        }
+    }
+
+    /** Quits the least recently used parked session, if any, to free a browser slot. */
+    boolean evictIdle() {
+        WebDriver driver = idle.pollLast();
+        if (driver == null) {
+            return false;
+        }
+        discard(driver);
+        return true;
+    }
+
+    static boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            Object probe = ((JavascriptExecutor) driver).executeScript("return 1");
+            return probe != null;
+        } catch (WebDriverException | ClassCastException e) {
+            return false;
+        }
+    }
+
+    private static void quietlyQuit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            // Already gone; nothing left to clean up
+        }
+    }
+
+    public int launchedCount() {
+        return launched.get();
+    }
+
+    public int reusedCount() {
+        return reused.get();
+    }
+
+    public int recycledCount() {
+        return recycled.get();
+    }
+
+    public int retiredCount() {
+        return retired.get();
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        limiter.unregister(this);
+        WebDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            quietlyQuit(driver);
+            if (leaseCounts.remove(driver) != null) {
+                limiter.release();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BrowserPool[" + name + ": launched=" + launched + ", reused=" + reused
+                + ", recycled=" + recycled + ", retired=" + retired + ", idle=" + idle.size() + "]";
+    }
+}
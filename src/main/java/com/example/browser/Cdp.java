@@ -0,0 +1,49 @@
+package com.example.browser;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Version-independent access to raw CDP commands and events, so features can use any
+ * DevTools domain without compiling against a specific {@code selenium-devtools-vNNN}.
+ */
+public final class Cdp {
+
+    private Cdp() {
+    }
+
+    /** Strips decorators (event firing, instrumentation) down to the real browser driver. */
+    public static WebDriver unwrap(WebDriver driver) {
+        WebDriver target = driver;
+        while (target instanceof WrapsDriver wrapper) {
+            target = wrapper.getWrappedDriver();
+        }
+        return target;
+    }
+
+    /** The session's DevTools connection with a CDP session attached, or empty if unsupported. */
+    public static Optional<DevTools> devTools(WebDriver driver) {
+        if (!(unwrap(driver) instanceof HasDevTools hasDevTools)) {
+            return Optional.empty();
+        }
+        Optional<DevTools> devTools = hasDevTools.maybeGetDevTools();
+        devTools.ifPresent(DevTools::createSessionIfThereIsNotOne);
+        return devTools;
+    }
+
+    public static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    public static Command<Map<String, Object>> command(String method, Map<String, Object> params) {
+        return new Command<>(method, params, input -> input.read(Json.MAP_TYPE));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.browser;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the chromedriver binary once per JVM and reuses it across runs, replacing
+ * per-class {@code WebDriverManager.chromedriver().setup()} calls.
+ *
+ * The installed Chrome version is detected locally and looked up in a {@link DriverCache}
+ * under {@code -Ddriver.cache.dir} (default {@code ~/.cache/selenium-demo/drivers}). Only a miss
+ * goes to WebDriverManager and the network; with {@code -Ddriver.offline=true} a miss fails
+ * instead. An undetected version bypasses the cache and leaves the choice to WebDriverManager,
+ * so a later Chrome update never meets a stale driver. An explicit
+ * {@code -Dwebdriver.chrome.driver} always wins, and {@code -Dbrowser.chrome.version} skips
+ * launching Chrome to ask for its version.
+ */
+public final class DriverBinaries {
+
+    private static final Logger LOG = Logger.getLogger(DriverBinaries.class.getName());
+
+    private static final Pattern VERSION = Pattern.compile("(\\d+\\.\\d+\\.\\d+\\.\\d+)");
+
+    private static volatile Path chromedriver;
+
+    private DriverBinaries() {
+    }
+
+    /**
+     * Makes chromedriver available to {@code new ChromeDriver()} and returns its path. Only the
+     * first call in a JVM does any work; later calls return immediately.
+     */
+    public static Path setupChromedriver() {
+        Path resolved = chromedriver;
+        if (resolved != null) {
+            return resolved;
+        }
+        synchronized (DriverBinaries.class) {
+            if (chromedriver == null) {
+                long started = System.nanoTime();
+                chromedriver = resolveChromedriver();
+                System.setProperty("webdriver.chrome.driver", chromedriver.toString());
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                LOG.fine(() -> String.format("chromedriver: %s (%d ms)", chromedriver, millis));
+            }
+            return chromedriver;
+        }
+    }
+
+    private static Path resolveChromedriver() {
+        String explicit = System.getProperty("webdriver.chrome.driver");
+        if (explicit != null && Files.isExecutable(Paths.get(explicit))) {
+            return Paths.get(explicit);
+        }
+        Optional<String> detected = installedChromeVersion();
+        if (detected.isEmpty()) {
+            // Nothing to key the cache on; a driver cached now could outlive the next Chrome update
+            if (Boolean.getBoolean("driver.offline")) {
+                throw new IllegalStateException("Cannot detect the installed Chrome version and -Ddriver.offline is set;"
+                        + " set -Dbrowser.chrome.version or -Dwebdriver.chrome.driver");
+            }
+            WebDriverManager manager = WebDriverManager.chromedriver();
+            manager.setup();
+            return Paths.get(manager.getDownloadedDriverPath());
+        }
+        String chromeVersion = detected.get();
+        DriverCache cache = new DriverCache(cacheDirectory());
+        Optional<Path> cached = cache.lookup(chromeVersion);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        if (Boolean.getBoolean("driver.offline")) {
+            throw new IllegalStateException("No cached chromedriver for Chrome " + chromeVersion + " in "
+                    + cache.directory() + " and -Ddriver.offline is set; run once online or set -Dwebdriver.chrome.driver");
+        }
+        // Another JVM (a parallel surefire fork) may be resolving the same version right now
+        try {
+            Files.createDirectories(cache.directory());
+            try (FileChannel channel = FileChannel.open(cache.directory().resolve("drivers.lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    cached = cache.lookup(chromeVersion);
+                    if (cached.isPresent()) {
+                        return cached.get();
+                    }
+                    WebDriverManager manager = WebDriverManager.chromedriver().browserVersion(DriverCache.major(chromeVersion));
+                    manager.setup();
+                    return cache.store(chromeVersion, manager.getDownloadedDriverVersion(),
+                            Paths.get(manager.getDownloadedDriverPath()));
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot lock driver cache " + cache.directory(), e);
+        }
+    }
+
+    private static Path cacheDirectory() {
+        String configured = System.getProperty("driver.cache.dir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "selenium-demo", "drivers");
+    }
+
+    /** Version of the locally installed Chrome, e.g. {@code 120.0.6099.109}, without starting a session. */
+    public static Optional<String> installedChromeVersion() {
+        String configured = System.getProperty("browser.chrome.version");
+        if (configured != null) {
+            return Optional.of(configured);
+        }
+        for (List<String> command : versionCommands()) {
+            Optional<String> version = run(command);
+            if (version.isPresent()) {
+                return version;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<List<String>> versionCommands() {
+        List<List<String>> commands = new ArrayList<>();
+        String binary = System.getProperty("browser.chrome.binary");
+        if (binary != null) {
+            commands.add(List.of(binary, "--version"));
+        }
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        if (os.contains("win")) {
+            commands.add(List.of("reg", "query", "HKCU\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"));
+            commands.add(List.of("reg", "query", "HKLM\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"));
+        } else if (os.contains("mac")) {
+            commands.add(List.of("/Applications/Google Chrome.app/Contents/MacOS/Google Chrome", "--version"));
+        } else {
+            for (String name : List.of("google-chrome", "google-chrome-stable", "chromium", "chromium-browser")) {
+                commands.add(List.of(name, "--version"));
+            }
+        }
+        return commands;
+    }
+
+    private static Optional<String> run(List<String> command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return Optional.empty();
+            }
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher matcher = VERSION.matcher(output);
+            return process.exitValue() == 0 && matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+        } catch (IOException e) {
+            // Not installed under this name
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.browser;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * On-disk store of driver binaries keyed by the browser version they were resolved for, with a
+ * SHA-256 per binary in {@code drivers.json}.
+ *
+ * A hit whose size and modification time still match the index is trusted as is; otherwise the
+ * binary is re-hashed and dropped if the checksum no longer matches.
+ */
+class DriverCache {
+
+    private static final Json JSON = new Json();
+    private static final Pattern VERSION = Pattern.compile("\\d+(\\.\\d+)*");
+
+    private final Path directory;
+
+    record Entry(String browserVersion, String driverVersion, String file, String sha256, long size, long modified) {
+    }
+
+    DriverCache(Path directory) {
+        this.directory = directory;
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Driver cached for exactly {@code browserVersion}, or else the newest one cached for the same
+     * major version, which chromedriver is compatible with. Nothing is cached for a version that
+     * is not numeric, such as an undetected one.
+     */
+    Optional<Path> lookup(String browserVersion) {
+        if (!VERSION.matcher(browserVersion).matches()) {
+            return Optional.empty();
+        }
+        List<Entry> entries = load();
+        String major = major(browserVersion);
+        Optional<Entry> exact = entries.stream().filter(e -> e.browserVersion().equals(browserVersion)).findFirst();
+        Optional<Entry> candidate = exact.isPresent() ? exact : entries.stream()
+                .filter(e -> major(e.browserVersion()).equals(major))
+                .max(Comparator.comparingLong(Entry::modified));
+        return candidate.filter(this::intact).map(e -> directory.resolve(e.file()));
+    }
+
+    /** Copies {@code binary} into the cache for {@code browserVersion} and returns the cached path. */
+    Path store(String browserVersion, String driverVersion, Path binary) {
+        if (!VERSION.matcher(browserVersion).matches()) {
+            throw new IllegalArgumentException("Not a browser version to cache a driver for: " + browserVersion);
+        }
+        try {
+            String file = driverVersion + "/" + binary.getFileName();
+            Path target = directory.resolve(file);
+            Files.createDirectories(target.getParent());
+            Files.copy(binary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            target.toFile().setExecutable(true);
+
+            List<Entry> entries = new ArrayList<>(load());
+            entries.removeIf(e -> e.browserVersion().equals(browserVersion));
+            entries.add(new Entry(browserVersion, driverVersion, file, sha256(target), Files.size(target),
+                    Files.getLastModifiedTime(target).toMillis()));
+            save(entries);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot cache driver in " + directory, e);
+        }
+    }
+
+    private boolean intact(Entry entry) {
+        Path binary = directory.resolve(entry.file());
+        try {
+            if (!Files.isRegularFile(binary)) {
+                return false;
+            }
+            if (Files.size(binary) == entry.size() && Files.getLastModifiedTime(binary).toMillis() == entry.modified()) {
+                return true;
+            }
+            return sha256(binary).equals(entry.sha256());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Entry> load() {
+        Path index = directory.resolve("drivers.json");
+        if (!Files.exists(index)) {
+            return List.of();
+        }
+        try {
+            Map<String, Object> root = JSON.toType(Files.readString(index), Json.MAP_TYPE);
+            List<Entry> entries = new ArrayList<>();
+            for (Object raw : (List<Object>) root.getOrDefault("entries", List.of())) {
+                Map<String, Object> entry = (Map<String, Object>) raw;
+                entries.add(new Entry(String.valueOf(entry.get("browserVersion")),
+                        String.valueOf(entry.get("driverVersion")), String.valueOf(entry.get("file")),
+                        String.valueOf(entry.get("sha256")), ((Number) entry.get("size")).longValue(),
+                        ((Number) entry.get("modified")).longValue()));
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            // A damaged index only costs a re-resolve
+            System.err.println("Ignoring unreadable driver cache index " + index + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void save(List<Entry> entries) throws IOException {
+        List<Map<String, Object>> index = new ArrayList<>();
+        for (Entry entry : entries) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("browserVersion", entry.browserVersion());
+            json.put("driverVersion", entry.driverVersion());
+            json.put("file", entry.file());
+            json.put("sha256", entry.sha256());
+            json.put("size", entry.size());
+            json.put("modified", entry.modified());
+            index.add(json);
+        }
+        Path temp = Files.createTempFile(directory, "drivers", ".json");
+        Files.writeString(temp, JSON.toJson(Map.of("entries", index)));
+        Files.move(temp, directory.resolve("drivers.json"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static String major(String version) {
+        int dot = version.indexOf('.');
+        return dot < 0 ? version : version.substring(0, dot);
+    }
+
+    static String sha256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.browser;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The one place Chrome launch options are defined. Test classes pick a profile instead of
+ * assembling {@link ChromeOptions} themselves:
+ *
+ * <pre>
+ * new BrowserPoolExtension("example", LaunchProfile.FAST_HEADLESS::launch);
+ * </pre>
+ *
+ * {@code -Dbrowser.profile=debug} overrides the profile of every launch, to watch a run in a
+ * visible window. Every launch is timed into {@link LaunchTimes}.
+ *
+ * Each browser starts on its own copy of a profile that has already been through first run
+ * (see {@link ProfileTemplates}) rather than on an empty directory chromedriver creates.
+ *
+ * Navigation returns at {@code DOMContentLoaded} rather than {@code load} (page-load strategy
+ * {@code eager}); {@code -Dbrowser.page.load=normal|eager|none} changes that for every profile.
+ * Pages the tests know declare what "ready" means in a registered
+ * {@code com.example.wait.PageContract}.
+ */
+public enum LaunchProfile {
+
+    /** Headless, with background work, first-run setup, GPU paths and extensions switched off. */
+    FAST_HEADLESS,
+
+    /** {@link #FAST_HEADLESS} plus measures against bot detection, for sites that block automation. */
+    STEALTH,
+
+    /** A visible, untrimmed browser with the stealth measures, for watching or reproducing a run. */
+    DEBUG;
+
+    public static final String DESKTOP_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
+            + "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/142.0.0.0 Safari/537.36";
+
+    static final String WINDOW_SIZE = "--window-size=1920,1080";
+
+    /** Flags that cost startup time or CPU and that no test depends on. */
+    static final List<String> FAST_FLAGS = List.of(
+            "--headless=new",
+            // Containers: no user namespaces, and a /dev/shm too small for the renderer
+            "--no-sandbox",
+            "--disable-dev-shm-usage",
+            "--disable-gpu",
+            "--disable-software-rasterizer",
+            "--disable-extensions",
+            "--disable-component-extensions-with-background-pages",
+            "--disable-default-apps",
+            "--disable-background-networking",
+            "--disable-component-update",
+            "--disable-sync",
+            "--disable-features=Translate,OptimizationHints,MediaRouter,InterestFeedContentSuggestions",
+            "--no-first-run",
+            "--no-default-browser-check",
+            "--metrics-recording-only",
+            "--password-store=basic",
+            "--use-mock-keychain",
+            "--mute-audio",
+            // Pooled sessions and parallel tabs must not be throttled when not in front
+            "--disable-background-timer-throttling",
+            "--disable-backgrounding-occluded-windows",
+            "--disable-renderer-backgrounding");
+
+    private static final String HIDE_WEBDRIVER_JS =
+            "Object.defineProperty(navigator, 'webdriver', {get: () => undefined})";
+
+    /** The profile a launch actually uses, honouring {@code -Dbrowser.profile}. */
+    public LaunchProfile effective() {
+        String override = System.getProperty("browser.profile");
+        if (override == null || override.isBlank()) {
+            return this;
+        }
+        return valueOf(override.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /** {@code -Dbrowser.page.load}, default {@link PageLoadStrategy#EAGER}. */
+    public static PageLoadStrategy pageLoadStrategy() {
+        String value = System.getProperty("browser.page.load", "eager").trim().toLowerCase(Locale.ROOT);
+        PageLoadStrategy strategy = PageLoadStrategy.fromString(value);
+        if (strategy == null) {
+            throw new IllegalArgumentException("-Dbrowser.page.load must be normal, eager or none, got " + value);
+        }
+        return strategy;
+    }
+
+    public ChromeOptions options() {
+        return options(Set.of());
+    }
+
+    /** Options for this profile with some {@link #FAST_FLAGS} left out, to measure what each one buys. */
+    ChromeOptions options(Set<String> without) {
+        ChromeOptions options = new ChromeOptions();
+        options.setPageLoadStrategy(pageLoadStrategy());
+        options.addArguments(WINDOW_SIZE);
+        if (this != DEBUG) {
+            FAST_FLAGS.stream().filter(flag -> !without.contains(flag)).forEach(options::addArguments);
+        }
+        if (this != FAST_HEADLESS) {
+            options.addArguments("--disable-blink-features=AutomationControlled");
+            options.addArguments("--user-agent=" + DESKTOP_USER_AGENT);
+            options.setExperimentalOption("excludeSwitches", List.of("enable-automation"));
+            options.setExperimentalOption("useAutomationExtension", false);
+        }
+        return options;
+    }
+
+    /** Starts a browser with this profile (or the {@code -Dbrowser.profile} override), timing the launch. */
+    public ChromeDriver launch() {
+        DriverBinaries.setupChromedriver();
+        LaunchProfile profile = effective();
+        Path template = ProfileTemplates.ENABLED ? profile.template() : null;
+        long started = System.nanoTime();
+        ChromeDriver driver = profile.launch(profile.options(), template);
+        LaunchTimes.record(profile, template != null, System.nanoTime() - started);
+        return driver;
+    }
+
+    /** The profile template, built on first use outside the timed launch; null if it cannot be built. */
+    Path template() {
+        try {
+            return ProfileTemplates.DEFAULT.template(this, this::buildTemplate);
+        } catch (RuntimeException e) {
+            System.err.println("Launching " + this + " without a profile template: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Starts Chrome once on {@code directory} so first-run work lands in the template; returns its version. */
+    private String buildTemplate(Path directory) {
+        ChromeOptions options = options();
+        options.addArguments("--user-data-dir=" + directory);
+        ChromeDriver driver = new ChromeDriver(options);
+        try {
+            for (String url : System.getProperty("browser.template.warmUrls", "").split(",")) {
+                if (!url.isBlank()) {
+                    driver.get(url.trim());
+                }
+            }
+            return driver.getCapabilities().getBrowserVersion();
+        } finally {
+            driver.quit();
+        }
+    }
+
+    /** Launches on a copy of {@code template}, or on a fresh chromedriver profile if it is null. */
+    ChromeDriver launch(ChromeOptions options, Path template) {
+        Path copy = null;
+        if (template != null) {
+            try {
+                copy = ProfileTemplates.DEFAULT.copy(template);
+                options.addArguments("--user-data-dir=" + copy);
+            } catch (UncheckedIOException e) {
+                System.err.println("Launching " + this + " on a fresh profile: " + e.getMessage());
+            }
+        }
+        ChromeDriver driver;
+        try {
+            driver = copy == null ? new ChromeDriver(options) : new ProfileCopyDriver(options, copy);
+        } catch (RuntimeException e) {
+            if (copy != null) {
+                ProfileTemplates.DEFAULT.discard(copy);
+            }
+            throw e;
+        }
+        if (this != FAST_HEADLESS) {
+            // Registered once per session; pool resets keep the first tab, so it survives reuse
+            driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", HIDE_WEBDRIVER_JS));
+        }
+        return driver;
+    }
+
+    /** A session on a profile copy, which is deleted once the browser has quit. */
+    private static final class ProfileCopyDriver extends ChromeDriver {
+        private final Path profile;
+
+        ProfileCopyDriver(ChromeOptions options, Path profile) {
+            super(options);
+            this.profile = profile;
+        }
+
+        @Override
+        public void quit() {
+            try {
+                super.quit();
+            } finally {
+                ProfileTemplates.DEFAULT.discard(profile);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.browser;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launch time of every browser started through a {@link LaunchProfile} in this JVM, summarised
+ * per profile on stdout and in {@code -Dbrowser.launch.stats.file} (default
+ * {@code target/launch-times.json}) when the JVM exits.
+ *
+ * Launches on a {@link ProfileTemplates profile template} copy are reported as
+ * {@code PROFILE+template}, fresh-profile launches as {@code PROFILE}, so the two can be compared.
+ *
+ * Running {@link #main} measures what each {@link LaunchProfile#FAST_FLAGS fast flag} and the
+ * profile template buy by launching without them and comparing against the full profile.
+ */
+public final class LaunchTimes {
+
+    private static final Map<String, List<Long>> TIMES = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LaunchTimes::report, "launch-times"));
+    }
+
+    private LaunchTimes() {
+    }
+
+    static void record(LaunchProfile profile, boolean template, long nanos) {
+        List<Long> times = TIMES.computeIfAbsent(variant(profile, template), v -> new ArrayList<>());
+        synchronized (times) {
+            times.add(TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    private static String variant(LaunchProfile profile, boolean template) {
+        return profile.name() + (template ? "+template" : "");
+    }
+
+    /** Per-profile launch count and min/median/max milliseconds. */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        for (LaunchProfile profile : LaunchProfile.values()) {
+            for (boolean template : new boolean[]{false, true}) {
+                List<Long> times = TIMES.get(variant(profile, template));
+                if (times != null) {
+                    report.put(variant(profile, template), stats(times));
+                }
+            }
+        }
+        return report;
+    }
+
+    private static Map<String, Object> stats(List<Long> times) {
+        List<Long> sorted;
+        synchronized (times) {
+            sorted = times.stream().sorted().toList();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("launches", sorted.size());
+        stats.put("minMs", sorted.get(0));
+        stats.put("medianMs", sorted.get(sorted.size() / 2));
+        stats.put("maxMs", sorted.get(sorted.size() - 1));
+        return stats;
+    }
+
+    static void report() {
+        Map<String, Object> report = snapshot();
+        if (report.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(System.getProperty("browser.launch.stats.file", "target/launch-times.json"));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, new Json().toJson(report));
+        } catch (IOException e) {
+            System.err.println("Could not write launch times to " + file + ": " + e.getMessage());
+        }
+        System.out.println("Browser launch times (" + file + "):");
+        report.forEach((profile, stats) -> System.out.println("  " + profile + ": " + stats));
+    }
+
+    /**
+     * Launches each headless profile {@code runs} times (default 5), then the fast profile without
+     * its profile template, without all of its flags but headless and once per flag with that flag
+     * left out, and prints the median launch time of each variant.
+     */
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        DriverBinaries.setupChromedriver();
+
+        long fast = median(LaunchProfile.FAST_HEADLESS, Set.of(), true, runs);
+        System.out.printf("%-70s %6d ms%n", "FAST_HEADLESS", fast);
+        System.out.printf("%-70s %6d ms%n", "STEALTH", median(LaunchProfile.STEALTH, Set.of(), true, runs));
+        long fresh = median(LaunchProfile.FAST_HEADLESS, Set.of(), false, runs);
+        System.out.printf("%-70s %6d ms  (template saves %+d ms)%n", "without profile template", fresh, fresh - fast);
+        // Headless stays on in every variant: a headful launch fails on CI and measures something else
+        List<String> optional = LaunchProfile.FAST_FLAGS.stream().filter(flag -> !flag.equals("--headless=new")).toList();
+        System.out.printf("%-70s %6d ms%n", "no flags (headless and window size only)",
+                median(LaunchProfile.FAST_HEADLESS, Set.copyOf(optional), true, runs));
+        for (String flag : optional) {
+            long without = median(LaunchProfile.FAST_HEADLESS, Set.of(flag), true, runs);
+            System.out.printf("%-70s %6d ms  (flag saves %+d ms)%n", "without " + flag, without, without - fast);
+        }
+    }
+
+    private static long median(LaunchProfile profile, Set<String> without, boolean template, int runs) {
+        Path templateDir = template ? profile.template() : null;
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            long started = System.nanoTime();
+            WebDriver driver = profile.launch(profile.options(without), templateDir);
+            times.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            driver.quit();
+        }
+        times.sort(null);
+        return times.get(times.size() / 2);
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.browser;
+
+import com.example.log.StepLog;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Browser state left behind by a setup journey (cookies, local and session storage, IndexedDB)
+ * captured once and put into later sessions before their first navigation, so tests start
+ * where the setup ended instead of repeating it.
+ *
+ * {@link #prime} runs a {@link Setup} at most once per JVM and keeps what it captured in
+ * {@code -Dprimed.state.dir} (default {@code ~/.cache/selenium-demo/primed-state}), one file per
+ * setup class. A stored state is reused until it is older than the caller's maximum age or the
+ * setup changes; then the setup runs again. Changes are seen in the bytecode of the setup class
+ * and the classes nested in it, not in helpers it calls: bump {@link Setup#version()} for those.
+ *
+ * Cookies are set over CDP, including {@code HttpOnly} ones. Storage is filled by a script that
+ * runs in each new document of a captured origin before the page's own scripts, once per tab;
+ * IndexedDB databases are recreated only if the page has not created them yet, and their
+ * values survive as JSON. Sessions without CDP run the setup itself every time, as does every
+ * session under {@code -Dprimed.state=off}.
+ */
+public final class PrimedState {
+
+    /** A journey whose end state is worth sharing; implement it as a named class, not a lambda. */
+    public interface Setup {
+
+        /** Origins whose storage to capture, e.g. {@code https://www.amazon.in}. */
+        List<String> origins();
+
+        /** Runs the journey on {@code driver}, noting its progress in {@code log}, the log of the test it runs for. */
+        void prime(WebDriver driver, StepLog log) throws Exception;
+
+        /** Change it when the journey changes outside its own class, e.g. in a page object it uses. */
+        default String version() {
+            return "";
+        }
+    }
+
+    private static final Json JSON = new Json();
+
+    private static final Set<String> COOKIE_FIELDS =
+            Set.of("name", "value", "domain", "path", "secure", "httpOnly", "sameSite", "priority");
+
+    private static final String STORAGE_JS =
+            "function dump(s) { var o = {}; for (var i = 0; i < s.length; i++) { var k = s.key(i); o[k] = s.getItem(k); } return o; }"
+            + "return JSON.stringify({local: dump(window.localStorage), session: dump(window.sessionStorage)});";
+
+    /** Async: every database as {name, version, stores: [{name, keyPath, autoIncrement, indexes, records}]}. */
+    private static final String INDEXED_DB_JS =
+            "var done = arguments[arguments.length - 1];"
+            + "if (!window.indexedDB || !indexedDB.databases) { done('[]'); return; }"
+            + "function dump(info) {"
+            + "  return new Promise(function(resolve) {"
+            + "    var request = indexedDB.open(info.name);"
+            + "    request.onerror = function() { resolve(null); };"
+            + "    request.onsuccess = function() {"
+            + "      var db = request.result, names = Array.from(db.objectStoreNames), stores = [];"
+            + "      if (!names.length) { db.close(); resolve({name: db.name, version: db.version, stores: []}); return; }"
+            + "      var tx = db.transaction(names, 'readonly');"
+            + "      names.forEach(function(name) {"
+            + "        var store = tx.objectStore(name);"
+            + "        var entry = {name: name, keyPath: store.keyPath, autoIncrement: store.autoIncrement, records: [],"
+            + "          indexes: Array.from(store.indexNames).map(function(n) { var index = store.index(n);"
+            + "            return {name: n, keyPath: index.keyPath, unique: index.unique, multiEntry: index.multiEntry}; })};"
+            + "        stores.push(entry);"
+            + "        store.openCursor().onsuccess = function(e) {"
+            + "          var cursor = e.target.result;"
+            + "          if (cursor) { entry.records.push({key: cursor.primaryKey, value: cursor.value}); cursor.continue(); }"
+            + "        };"
+            + "      });"
+            + "      tx.oncomplete = function() { db.close(); resolve({name: db.name, version: db.version, stores: stores}); };"
+            + "      tx.onerror = function() { db.close(); resolve(null); };"
+            + "    };"
+            + "  });"
+            + "}"
+            + "indexedDB.databases()"
+            + "  .then(function(infos) { return Promise.all(infos.map(dump)); })"
+            + "  .then(function(dbs) { done(JSON.stringify(dbs.filter(function(db) { return db; }))); },"
+            + "        function() { done('[]'); });";
+
+    /** Runs at document start with the captured origins as its argument. */
+    private static final String RESTORE_JS =
+            "(function(all) {"
+            + "  var state = all[location.origin];"
+            + "  if (!state) return;"
+            + "  try {"
+            + "    if (sessionStorage.getItem('__primedState')) return;"
+            + "    sessionStorage.setItem('__primedState', '1');"
+            + "  } catch (e) { return; }"
+            + "  function fill(storage, entries) {"
+            + "    Object.keys(entries || {}).forEach(function(k) { if (storage.getItem(k) === null) storage.setItem(k, entries[k]); });"
+            + "  }"
+            + "  fill(localStorage, state.local);"
+            + "  fill(sessionStorage, state.session);"
+            + "  (state.indexedDB || []).forEach(function(db) {"
+            + "    var request = indexedDB.open(db.name, db.version);"
+            + "    request.onupgradeneeded = function() {"
+            + "      var target = request.result;"
+            + "      db.stores.forEach(function(store) {"
+            + "        if (target.objectStoreNames.contains(store.name)) return;"
+            + "        var created = target.createObjectStore(store.name, {keyPath: store.keyPath, autoIncrement: store.autoIncrement});"
+            + "        store.indexes.forEach(function(index) {"
+            + "          created.createIndex(index.name, index.keyPath, {unique: index.unique, multiEntry: index.multiEntry});"
+            + "        });"
+            + "        store.records.forEach(function(record) {"
+            + "          if (store.keyPath === null) { created.put(record.value, record.key); } else { created.put(record.value); }"
+            + "        });"
+            + "      });"
+            + "    };"
+            + "    request.onsuccess = function() { request.result.close(); };"
+            + "  });"
+            + "})(%s);";
+
+    private static final Map<String, PrimedState> CAPTURED = new ConcurrentHashMap<>();
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final String fingerprint;
+    private final Instant capturedAt;
+    private final List<Map<String, Object>> cookies;
+    private final Map<String, Object> origins;
+
+    PrimedState(String fingerprint, Instant capturedAt, List<Map<String, Object>> cookies, Map<String, Object> origins) {
+        this.fingerprint = fingerprint;
+        this.capturedAt = capturedAt;
+        this.cookies = cookies;
+        this.origins = origins;
+    }
+
+    /**
+     * Puts the state {@code setup} leaves behind into {@code driver}, which must not have
+     * navigated yet, running the setup first if no fresh state exists. Returns the identifier to
+     * pass to {@link #stopRestoring} once the session's test is done, or null if nothing is left
+     * to undo. A setup that runs notes its progress in {@code log}.
+     */
+    public static String prime(WebDriver driver, Class<? extends Setup> setup, Duration maxAge, StepLog log)
+            throws Exception {
+        if (!(Cdp.unwrap(driver) instanceof HasCdp cdp)
+                || "off".equalsIgnoreCase(System.getProperty("primed.state", "on").trim())) {
+            newSetup(setup).prime(driver, log);
+            return null;
+        }
+        PrimedState state;
+        synchronized (LOCKS.computeIfAbsent(setup.getName(), name -> new Object())) {
+            Setup journey = newSetup(setup);
+            String fingerprint = fingerprint(setup, journey.version());
+            Path file = directory().resolve(setup.getName() + ".json");
+            state = Optional.ofNullable(CAPTURED.get(setup.getName()))
+                    .or(() -> load(file))
+                    .filter(candidate -> candidate.isFresh(fingerprint, maxAge))
+                    .orElse(null);
+            if (state == null) {
+                journey.prime(driver, log);
+                state = capture(driver, cdp, fingerprint, journey.origins());
+                state.save(file);
+                SessionReset.reset(driver);
+            }
+            CAPTURED.put(setup.getName(), state);
+        }
+        return state.restore(cdp);
+    }
+
+    /** Stops filling storage in new documents; cookies and storage already set stay until reset. */
+    public static void stopRestoring(WebDriver driver, String identifier) {
+        if (identifier != null && Cdp.unwrap(driver) instanceof HasCdp cdp) {
+            cdp.executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", identifier));
+        }
+    }
+
+    boolean isFresh(String expectedFingerprint, Duration maxAge) {
+        return fingerprint.equals(expectedFingerprint) && capturedAt.plus(maxAge).isAfter(Instant.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PrimedState capture(WebDriver driver, HasCdp cdp, String fingerprint, List<String> origins) {
+        List<Map<String, Object>> cookies = (List<Map<String, Object>>) cdp
+                .executeCdpCommand("Network.getAllCookies", Map.of()).get("cookies");
+        Map<String, Object> storage = new LinkedHashMap<>();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        for (String origin : origins) {
+            if (!origin.equals(SessionReset.originOf(driver.getCurrentUrl()))) {
+                driver.get(origin + "/");
+            }
+            Map<String, Object> entry = new LinkedHashMap<>(JSON.toType((String) js.executeScript(STORAGE_JS), Json.MAP_TYPE));
+            entry.put("indexedDB", JSON.toType((String) js.executeAsyncScript(INDEXED_DB_JS), List.class));
+            storage.put(origin, entry);
+        }
+        return new PrimedState(fingerprint, Instant.now(), cookies.stream().map(PrimedState::cookieParam).toList(), storage);
+    }
+
+    /** The fields {@code Network.setCookies} accepts; session cookies keep no expiry. */
+    private static Map<String, Object> cookieParam(Map<String, Object> cookie) {
+        Map<String, Object> param = new LinkedHashMap<>();
+        cookie.forEach((key, value) -> {
+            if (COOKIE_FIELDS.contains(key)) {
+                param.put(key, value);
+            }
+        });
+        if (!Boolean.TRUE.equals(cookie.get("session")) && cookie.get("expires") instanceof Number expires) {
+            param.put("expires", expires);
+        }
+        return param;
+    }
+
+    private String restore(HasCdp cdp) {
+        if (!cookies.isEmpty()) {
+            cdp.executeCdpCommand("Network.setCookies", Map.of("cookies", cookies));
+        }
+        if (origins.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> added = cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                Map.of("source", restoreScript()));
+        return (String) added.get("identifier");
+    }
+
+    String restoreScript() {
+        return String.format(RESTORE_JS, JSON.toJson(origins));
+    }
+
+    /**
+     * SHA-256 of {@code version} and the bytecode of the setup and every class nested in it,
+     * anonymous ones and lambdas included, so editing the journey invalidates it.
+     */
+    static String fingerprint(Class<?> setup, String version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(version.getBytes(StandardCharsets.UTF_8));
+            digestBytecode(digest, setup);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void digestBytecode(MessageDigest digest, Class<?> type) throws IOException {
+        ClassLoader loader = type.getClassLoader();
+        String resource = type.getName().replace('.', '/');
+        byte[] bytecode = bytecode(loader, resource + ".class");
+        if (bytecode == null) {
+            throw new IllegalArgumentException("No bytecode for " + type.getName() + "; use a named class");
+        }
+        digest.update(bytecode);
+        // Anonymous classes are numbered from 1 and not reachable through reflection
+        for (int i = 1; (bytecode = bytecode(loader, resource + "$" + i + ".class")) != null; i++) {
+            digest.update(bytecode);
+        }
+        Class<?>[] nested = type.getDeclaredClasses();
+        Arrays.sort(nested, Comparator.comparing(Class::getName));
+        for (Class<?> member : nested) {
+            digestBytecode(digest, member);
+        }
+    }
+
+    private static byte[] bytecode(ClassLoader loader, String resource) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(resource)) {
+            return in == null ? null : in.readAllBytes();
+        }
+    }
+
+    private static Setup newSetup(Class<? extends Setup> setup) throws ReflectiveOperationException {
+        var constructor = setup.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor.newInstance();
+    }
+
+    private static Path directory() {
+        String configured = System.getProperty("primed.state.dir");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "selenium-demo", "primed-state");
+    }
+
+    @SuppressWarnings("unchecked")
+    static Optional<PrimedState> load(Path file) {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            Map<String, Object> json = JSON.toType(Files.readString(file), Json.MAP_TYPE);
+            return Optional.of(new PrimedState((String) json.get("fingerprint"),
+                    Instant.ofEpochMilli(((Number) json.get("capturedAt")).longValue()),
+                    (List<Map<String, Object>>) json.get("cookies"),
+                    (Map<String, Object>) json.get("origins")));
+        } catch (IOException | RuntimeException e) {
+            // An unreadable state only costs one more run of the setup
+            System.err.println("Ignoring unreadable primed state " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    void save(Path file) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("fingerprint", fingerprint);
+        json.put("capturedAt", capturedAt.toEpochMilli());
+        json.put("cookies", cookies);
+        json.put("origins", origins);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "primed-state", ".json");
+            Files.writeString(temp, JSON.toJson(json));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write primed state to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.browser;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Chrome user-data directories for {@link LaunchProfile#launch}: one template per profile, built
+ * once, and a private copy of it per session.
+ *
+ * The template is a profile Chrome has already started in: first run done, {@link #PREFERENCES}
+ * written, and whatever {@code -Dbrowser.template.warmUrls} loads already in its caches. It lives
+ * under {@code -Dbrowser.template.dir} (default {@code ~/.cache/selenium-demo/profiles}) and is
+ * rebuilt when the installed Chrome version changes or it is older than
+ * {@code -Dbrowser.template.maxAgeHours} (default 168).
+ *
+ * Templates are never changed once built. A rebuild goes into a new directory named after its
+ * build time ({@code fast_headless-1718000000000}), so JVMs still copying an older one are not
+ * disturbed; superseded ones are deleted a day after their successor was built. Builds take a
+ * file lock per profile, so parallel JVMs (surefire forks) build a stale template only once.
+ *
+ * Each session runs on a copy in a RAM-backed directory: {@code -Dbrowser.template.ramDir}, else
+ * {@code /dev/shm} when it has room (containers often give it only 64 MB, which is why Chrome
+ * itself is told not to use it), else the temp directory. The copy is deleted on a background
+ * thread once the session quits, and any left over are deleted at JVM exit.
+ * {@code -Dbrowser.template=off} lets chromedriver create a fresh profile for every launch.
+ */
+final class ProfileTemplates {
+
+    static final boolean ENABLED = !"off".equalsIgnoreCase(System.getProperty("browser.template", "on").trim());
+
+    static final ProfileTemplates DEFAULT = new ProfileTemplates(templateRoot(), ramRoot());
+
+    /** Copies are prefixed so stale ones from crashed runs can be told apart from other files. */
+    static final String CLONE_PREFIX = "selenium-profile-";
+
+    /** Written into the template's {@code Default/Preferences} before its first start. */
+    static final Map<String, Object> PREFERENCES = Map.of(
+            "browser", Map.of("has_seen_welcome_page", true, "check_default_browser", false),
+            "credentials_enable_service", false,
+            "profile", Map.of("password_manager_enabled", false,
+                    "default_content_setting_values", Map.of("notifications", 2, "geolocation", 2)),
+            "translate", Map.of("enabled", false),
+            "search", Map.of("suggest_enabled", false),
+            "safebrowsing", Map.of("enabled", false));
+
+    /** Files that tie a profile to the browser process that used it, or only grow. */
+    private static final Set<String> SKIPPED = Set.of("SingletonLock", "SingletonSocket", "SingletonCookie",
+            "lockfile", "Crashpad", "BrowserMetrics", "DevToolsActivePort", "template.json");
+
+    private static final long MIN_RAM_BYTES = 256L * 1024 * 1024;
+    private static final Duration MAX_AGE = Duration.ofHours(Long.getLong("browser.template.maxAgeHours", 168));
+    private static final Duration STALE_CLONE_AGE = Duration.ofDays(1);
+    private static final Json JSON = new Json();
+    private static final Logger LOG = Logger.getLogger(ProfileTemplates.class.getName());
+
+    private final Path root;
+    private final Path ram;
+    private final Map<String, Path> ready = new ConcurrentHashMap<>();
+    private final Set<Path> clones = ConcurrentHashMap.newKeySet();
+    private final ExecutorService cleaner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "profile-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ProfileTemplates(Path root, Path ram) {
+        this.root = root;
+        this.ram = ram;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::deleteClones, "profile-cleanup"));
+    }
+
+    /**
+     * The template for {@code profile}, building it first if there is none yet or it is out of
+     * date. {@code build} starts Chrome on the given directory, lets it settle and returns the
+     * browser version.
+     */
+    Path template(LaunchProfile profile, Function<Path, String> build) {
+        Path existing = ready.get(profile.name());
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            existing = ready.get(profile.name());
+            if (existing != null) {
+                return existing;
+            }
+            String name = profile.name().toLowerCase(Locale.ROOT);
+            Path template = newest(name).filter(ProfileTemplates::current).orElseGet(() -> build(name, build));
+            sweepStaleClones();
+            sweepSuperseded(name, template);
+            ready.put(profile.name(), template);
+            return template;
+        }
+    }
+
+    /** Whether {@code template} exists, is young enough and was built by the installed Chrome. */
+    static boolean current(Path template) {
+        Path stamp = template.resolve("template.json");
+        if (!Files.isRegularFile(stamp)) {
+            return false;
+        }
+        try {
+            Map<String, Object> json = JSON.toType(Files.readString(stamp), Json.MAP_TYPE);
+            long created = ((Number) json.get("created")).longValue();
+            if (System.currentTimeMillis() - created > MAX_AGE.toMillis()) {
+                return false;
+            }
+            Optional<String> installed = DriverBinaries.installedChromeVersion();
+            return installed.isEmpty() || installed.get().equals(json.get("browserVersion"));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable profile template " + stamp + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** The most recently built template of the profile {@code name}, current or not. */
+    private Optional<Path> newest(String name) {
+        return versions(name).stream().max(Comparator.comparingLong(ProfileTemplates::builtAt));
+    }
+
+    private List<Path> versions(String name) {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        Pattern version = Pattern.compile(Pattern.quote(name) + "-\\d+");
+        try (Stream<Path> children = Files.list(root)) {
+            return children.filter(child -> version.matcher(child.getFileName().toString()).matches()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list profile templates in " + root, e);
+        }
+    }
+
+    private static long builtAt(Path template) {
+        Matcher time = Pattern.compile("-(\\d+)$").matcher(template.getFileName().toString());
+        return time.find() ? Long.parseLong(time.group(1)) : 0;
+    }
+
+    private Path build(String name, Function<Path, String> build) {
+        Path building = null;
+        try {
+            Files.createDirectories(root);
+            // Another JVM (a parallel surefire fork) may be building the same template right now
+            try (FileChannel channel = FileChannel.open(root.resolve(name + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    Optional<Path> built = newest(name).filter(ProfileTemplates::current);
+                    if (built.isPresent()) {
+                        return built.get();
+                    }
+                    building = Files.createTempDirectory(root, name + ".building-");
+                    Files.createDirectories(building.resolve("Default"));
+                    Files.writeString(building.resolve("Default").resolve("Preferences"), JSON.toJson(PREFERENCES));
+                    Files.createFile(building.resolve("First Run"));
+
+                    long started = System.nanoTime();
+                    String browserVersion = build.apply(building);
+                    deleteSkipped(building);
+                    long created = System.currentTimeMillis();
+                    Map<String, Object> stamp = new LinkedHashMap<>();
+                    stamp.put("browserVersion", browserVersion);
+                    stamp.put("created", created);
+                    Files.writeString(building.resolve("template.json"), JSON.toJson(stamp));
+
+                    Path template = root.resolve(name + "-" + created);
+                    Files.move(building, template, StandardCopyOption.ATOMIC_MOVE);
+                    building = null;
+                    LOG.info(() -> String.format("Built %s profile template for Chrome %s in %d ms", name,
+                            browserVersion, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+                    return template;
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot build profile template " + name + " in " + root, e);
+        } finally {
+            if (building != null) {
+                delete(building);
+            }
+        }
+    }
+
+    /** Templates {@code current} replaced over a day ago; a JVM still copying one has had time to finish. */
+    private void sweepSuperseded(String name, Path current) {
+        if (System.currentTimeMillis() - builtAt(current) < STALE_CLONE_AGE.toMillis()) {
+            return;
+        }
+        versions(name).stream()
+                .filter(version -> builtAt(version) < builtAt(current))
+                .forEach(version -> cleaner.execute(() -> delete(version)));
+    }
+
+    /** A fresh copy of {@code template} for one session, in RAM when there is room for it. */
+    Path copy(Path template) {
+        try {
+            long size = size(template);
+            Path parent = Files.isDirectory(ram) && Files.getFileStore(ram).getUsableSpace() > 4 * size ? ram
+                    : Paths.get(System.getProperty("java.io.tmpdir"));
+            Path clone = Files.createTempDirectory(parent, CLONE_PREFIX);
+            clones.add(clone);
+            Files.walkFileTree(template, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (!dir.equals(template) && skipped(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    Files.createDirectories(clone.resolve(template.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (!skipped(file)) {
+                        Files.copy(file, clone.resolve(template.relativize(file).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return clone;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot copy profile template " + template, e);
+        }
+    }
+
+    /** Deletes a session's copy in the background; the session must have quit. */
+    void discard(Path clone) {
+        if (clones.remove(clone)) {
+            cleaner.execute(() -> delete(clone));
+        }
+    }
+
+    /** Copies not yet deleted. */
+    Set<Path> clones() {
+        return Set.copyOf(clones);
+    }
+
+    private static boolean skipped(Path path) {
+        String name = path.getFileName().toString();
+        return SKIPPED.contains(name) || name.startsWith("BrowserMetrics");
+    }
+
+    private static void deleteSkipped(Path profile) throws IOException {
+        try (Stream<Path> top = Files.list(profile)) {
+            for (Path path : top.filter(ProfileTemplates::skipped).toList()) {
+                delete(path);
+            }
+        }
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    /** Copies older than a day were left by runs that did not get to clean up. */
+    private void sweepStaleClones() {
+        for (Path parent : List.of(ram, Paths.get(System.getProperty("java.io.tmpdir")))) {
+            if (!Files.isDirectory(parent)) {
+                continue;
+            }
+            try (Stream<Path> children = Files.list(parent)) {
+                long cutoff = System.currentTimeMillis() - STALE_CLONE_AGE.toMillis();
+                children.filter(child -> child.getFileName().toString().startsWith(CLONE_PREFIX))
+                        .filter(child -> child.toFile().lastModified() < cutoff)
+                        .forEach(child -> cleaner.execute(() -> delete(child)));
+            } catch (IOException e) {
+                // Not ours to list; nothing to sweep
+            }
+        }
+    }
+
+    private void deleteClones() {
+        cleaner.shutdown();
+        try {
+            cleaner.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        clones.forEach(ProfileTemplates::delete);
+    }
+
+    static void delete(Path path) {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static Path templateRoot() {
+        String configured = System.getProperty("browser.template.dir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "selenium-demo", "profiles");
+    }
+
+    private static Path ramRoot() {
+        String configured = System.getProperty("browser.template.ramDir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        Path shm = Paths.get("/dev/shm");
+        try {
+            if (Files.isDirectory(shm) && Files.isWritable(shm) && Files.getFileStore(shm).getUsableSpace() >= MIN_RAM_BYTES) {
+                return shm;
+            }
+        } catch (IOException e) {
+            // Fall through to the temp directory
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+}
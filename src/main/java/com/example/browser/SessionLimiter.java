@@ -0,0 +1,77 @@
+package com.example.browser;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of live browser processes across every {@link BrowserPool} in the JVM.
+ *
+ * A permit is held for as long as a session is alive, whether it is leased or parked.
+ * When no permit is free, a parked session from any registered pool is quit to make room,
+ * so one pool's idle browsers never starve another pool.
+ */
+public class SessionLimiter {
+
+    /** Shared by all pools unless one is given its own; sized by {@code -Dbrowser.maxSessions}. */
+    public static final SessionLimiter GLOBAL = new SessionLimiter(
+            Integer.getInteger("browser.maxSessions", Runtime.getRuntime().availableProcessors()),
+            Duration.ofSeconds(Long.getLong("browser.maxSessions.waitSeconds", 300)));
+
+    private final int maxSessions;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final Set<BrowserPool> pools = ConcurrentHashMap.newKeySet();
+
+    public SessionLimiter(int maxSessions, Duration acquireTimeout) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be at least 1, was " + maxSessions);
+        }
+        this.maxSessions = maxSessions;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxSessions, true);
+    }
+
+    public int maxSessions() {
+        return maxSessions;
+    }
+
+    public int liveSessions() {
+        return maxSessions - permits.availablePermits();
+    }
+
+    void register(BrowserPool pool) {
+        pools.add(pool);
+    }
+
+    void unregister(BrowserPool pool) {
+        pools.remove(pool);
+    }
+
+    /** Blocks until a new browser may be launched, evicting idle sessions if that frees a slot. */
+    void acquire() {
+        long deadline = System.nanoTime() + acquireTimeout.toNanos();
+        try {
+            while (!permits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                for (BrowserPool pool : pools) {
+                    if (pool.evictIdle()) {
+                        break;
+                    }
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("No browser slot became free within " + acquireTimeout
+                            + " (browser.maxSessions=" + maxSessions + ")");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser slot", e);
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.browser;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Returns a used session to a clean state: a single tab on about:blank with no history,
+ * no cookies, no local or session storage for any origin the session visited, and
+ * default timeouts.
+ *
+ * The HTTP cache is deliberately kept; that is what makes a warm session fast.
+ */
+public final class SessionReset {
+
+    private static final String STORAGE_TYPES =
+            "cookies,local_storage,indexeddb,websql,service_workers,cache_storage,file_systems";
+
+    private SessionReset() {
+    }
+
+    public static void reset(WebDriver driver) {
+        Set<String> origins = new LinkedHashSet<>();
+        List<String> handles = List.copyOf(driver.getWindowHandles());
+        String keep = handles.get(0);
+
+        // Close every extra window, remembering which origins each one visited
+        for (String handle : handles) {
+            driver.switchTo().window(handle);
+            if (Cdp.unwrap(driver) instanceof HasCdp cdp) {
+                origins.addAll(visitedOrigins(cdp));
+            }
+            if (!handle.equals(keep)) {
+                driver.close();
+            }
+        }
+        driver.switchTo().window(keep);
+        // The first tab is reused rather than replaced so per-target setup such as
+        // Page.addScriptToEvaluateOnNewDocument survives the reset
+        driver.get("about:blank");
+
+        if (Cdp.unwrap(driver) instanceof HasCdp cdp) {
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            cdp.executeCdpCommand("DOMStorage.enable", Map.of());
+            for (String origin : origins) {
+                cdp.executeCdpCommand("Storage.clearDataForOrigin",
+                        Map.of("origin", origin, "storageTypes", STORAGE_TYPES));
+                cdp.executeCdpCommand("DOMStorage.clear",
+                        Map.of("storageId", Map.of("securityOrigin", origin, "isLocalStorage", false)));
+            }
+            cdp.executeCdpCommand("DOMStorage.disable", Map.of());
+            cdp.executeCdpCommand("Page.resetNavigationHistory", Map.of());
+        } else {
+            driver.manage().deleteAllCookies();
+        }
+
+        WebDriver.Timeouts timeouts = driver.manage().timeouts();
+        timeouts.implicitlyWait(Duration.ZERO);
+        timeouts.pageLoadTimeout(Duration.ofSeconds(300));
+        timeouts.scriptTimeout(Duration.ofSeconds(30));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> visitedOrigins(HasCdp cdp) {
+        Set<String> origins = new LinkedHashSet<>();
+        Map<String, Object> history = cdp.executeCdpCommand("Page.getNavigationHistory", Map.of());
+        Object entries = history.get("entries");
+        if (entries instanceof List<?> list) {
+            for (Object entry : list) {
+                Object url = ((Map<String, Object>) entry).get("url");
+                String origin = url == null ? null : originOf(url.toString());
+                if (origin != null) {
+                    origins.add(origin);
+                }
+            }
+        }
+        return origins;
+    }
+
+    static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme();
+            if (!"http".equals(scheme) && !"https".equals(scheme)) {
+                return null;
+            }
+            return scheme + "://" + uri.getHost() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
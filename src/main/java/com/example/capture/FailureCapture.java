@@ -0,0 +1,359 @@
+package com.example.capture;
+
+import com.example.browser.Cdp;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Evidence for failed tests at next to no cost to passing ones.
+ *
+ * Every session keeps two small rings. One holds its last {@code -Dcapture.steps} (default 20)
+ * step markers: label, time, URL, title and a DOM hash, read with one script after every
+ * navigation (see {@link #listener}) and wherever a test calls {@link #step}. The other holds its
+ * last {@code -Dcapture.console} (default 200) console messages, uncaught exceptions and browser
+ * log entries, fed by DevTools events without any round trip. Nothing else happens while a test
+ * passes.
+ *
+ * When a test fails, {@link #capture} takes a screenshot and the page source on the test thread,
+ * while the page is still as the failure left it, and hands them with both rings to a background
+ * writer. The writer gzips the DOM and fills {@code -Dcapture.dir} (default
+ * {@code target/failures}) {@code /<test>/} with {@code screenshot.png}, {@code dom.html.gz},
+ * {@code steps.json}, {@code console.json} and {@code failure.txt}. At most
+ * {@code -Dcapture.queue} (default 8) captures wait to be written; further ones are dropped and
+ * counted, so a run full of failures cannot stall on the disk. Pending writes are finished at JVM
+ * exit. {@code -Dcapture=off} turns capturing off. The caller learns the directory from
+ * {@link #capture} and records it with the test, e.g. in its step log.
+ */
+public final class FailureCapture {
+
+    private static final boolean ENABLED = !"off".equalsIgnoreCase(System.getProperty("capture", "on").trim());
+    static final int STEPS = Integer.getInteger("capture.steps", 20);
+    static final int CONSOLE = Integer.getInteger("capture.console", 200);
+    private static final int MAX_TEXT = 1000;
+    private static final Path DIR = Paths.get(System.getProperty("capture.dir", "target/failures"));
+
+    /**
+     * URL, title and a hash of the element tree's tags and ids (sampled beyond 20000 elements),
+     * which changes when the page's structure does without serializing it.
+     */
+    static final String MARK_JS =
+            "var all = document.getElementsByTagName('*');"
+            + "var stride = Math.max(1, Math.floor(all.length / 20000));"
+            + "var h = 0x811c9dc5;"
+            + "for (var i = 0; i < all.length; i += stride) {"
+            + "  var s = all[i].tagName + '#' + all[i].id;"
+            + "  for (var j = 0; j < s.length; j++) { h ^= s.charCodeAt(j); h = Math.imul(h, 16777619); }"
+            + "}"
+            + "return [location.href, document.title, all.length + ':' + (h >>> 0).toString(16)];";
+
+    private static final Json JSON = new Json();
+    private static final Map<WebDriver, Session> SESSIONS = new WeakHashMap<>();
+    private static final Map<String, AtomicInteger> FAILURES = new ConcurrentHashMap<>();
+    private static final AtomicInteger DROPPED = new AtomicInteger();
+    private static final ThreadPoolExecutor WRITER = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Integer.getInteger("capture.queue", 8)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "failure-capture");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(FailureCapture::finish, "failure-capture-flush"));
+    }
+
+    private FailureCapture() {
+    }
+
+    /** Where the session was at one step; {@code url}, {@code title} and {@code domHash} are null if unreadable. */
+    public record Marker(long epochMillis, String label, String url, String title, String domHash) {
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("epochMillis", epochMillis);
+            json.put("label", label);
+            json.put("url", url);
+            json.put("title", title);
+            json.put("domHash", domHash);
+            return json;
+        }
+    }
+
+    /** Fixed-size ring; adding past capacity overwrites the oldest entry. */
+    static final class Ring<T> {
+        private final Object[] items;
+        private int next;
+        private int size;
+
+        Ring(int capacity) {
+            items = new Object[Math.max(1, capacity)];
+        }
+
+        synchronized void add(T item) {
+            items[next] = item;
+            next = (next + 1) % items.length;
+            size = Math.min(size + 1, items.length);
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized List<T> snapshot() {
+            List<T> copy = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                copy.add((T) items[(next - size + i + items.length) % items.length]);
+            }
+            return copy;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(items, null);
+            next = 0;
+            size = 0;
+        }
+    }
+
+    private static final class Session {
+        final Ring<Marker> steps = new Ring<>(STEPS);
+        final Ring<Map<String, Object>> console = new Ring<>(CONSOLE);
+    }
+
+    /** Listener that marks a step after every navigation of {@code driver}, and starts its console ring. */
+    public static WebDriverListener listener(WebDriver driver) {
+        session(driver);
+        return new WebDriverListener() {
+            @Override
+            public void afterGet(WebDriver target, String url) {
+                step(driver, "get " + url);
+            }
+
+            @Override
+            public void afterTo(WebDriver.Navigation navigation, String url) {
+                step(driver, "navigate " + url);
+            }
+        };
+    }
+
+    /** Records a step marker for {@code driver}: one script, no screenshot. */
+    public static void step(WebDriver driver, String label) {
+        Session session = session(driver);
+        if (session == null) {
+            return;
+        }
+        String url = null;
+        String title = null;
+        String domHash = null;
+        try {
+            if (((JavascriptExecutor) Cdp.unwrap(driver)).executeScript(MARK_JS) instanceof List<?> values && values.size() == 3) {
+                url = String.valueOf(values.get(0));
+                title = String.valueOf(values.get(1));
+                domHash = String.valueOf(values.get(2));
+            }
+        } catch (WebDriverException | ClassCastException e) {
+            // Mid-navigation or not a browser that runs scripts; the label still counts
+        }
+        session.steps.add(new Marker(System.currentTimeMillis(), label, url, title, domHash));
+    }
+
+    /** Forgets {@code driver}'s steps and console, e.g. when the session starts a new test. */
+    public static void clear(WebDriver driver) {
+        Session session = session(driver);
+        if (session != null) {
+            session.steps.clear();
+            session.console.clear();
+        }
+    }
+
+    /** The step markers {@code driver} holds, oldest first. */
+    public static List<Marker> steps(WebDriver driver) {
+        Session session = session(driver);
+        return session == null ? List.of() : session.steps.snapshot();
+    }
+
+    /**
+     * Captures the failure of {@code test} on {@code driver} and queues it for writing; returns
+     * the directory it will be written to, or empty if capturing is off or the queue is full.
+     */
+    public static Optional<Path> capture(WebDriver driver, String test, Throwable failure) {
+        return capture(driver, test, failure, DIR);
+    }
+
+    static Optional<Path> capture(WebDriver driver, String test, Throwable failure, Path root) {
+        Session session = session(driver);
+        if (session == null) {
+            return Optional.empty();
+        }
+        WebDriver target = Cdp.unwrap(driver);
+        byte[] screenshot = null;
+        String dom = null;
+        try {
+            if (target instanceof TakesScreenshot camera) {
+                screenshot = camera.getScreenshotAs(OutputType.BYTES);
+            }
+        } catch (WebDriverException e) {
+            // A crashed renderer still has a DOM and a console worth keeping
+        }
+        try {
+            dom = target.getPageSource();
+        } catch (WebDriverException e) {
+            // As above
+        }
+        String name = test.replaceAll("[^A-Za-z0-9._-]", "_");
+        int failures = FAILURES.computeIfAbsent(root.resolve(name).toString(), k -> new AtomicInteger()).incrementAndGet();
+        Path dir = root.resolve(failures == 1 ? name : name + "-" + failures);
+        Artifacts artifacts = new Artifacts(dir, test, failure, screenshot, dom,
+                session.steps.snapshot(), session.console.snapshot());
+        try {
+            WRITER.execute(artifacts::write);
+        } catch (RejectedExecutionException e) {
+            DROPPED.incrementAndGet();
+            System.err.println("Failure capture queue full; dropped the capture of " + test);
+            return Optional.empty();
+        }
+        return Optional.of(dir);
+    }
+
+    /** Everything taken on the test thread; compressed and written on the writer's. */
+    private record Artifacts(Path dir, String test, Throwable failure, byte[] screenshot, String dom,
+                             List<Marker> steps, List<Map<String, Object>> console) {
+
+        void write() {
+            try {
+                Files.createDirectories(dir);
+                if (screenshot != null) {
+                    Files.write(dir.resolve("screenshot.png"), screenshot);
+                }
+                if (dom != null) {
+                    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(dir.resolve("dom.html.gz")))) {
+                        out.write(dom.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                Files.writeString(dir.resolve("steps.json"), JSON.toJson(steps.stream().map(Marker::toJson).toList()));
+                Files.writeString(dir.resolve("console.json"), JSON.toJson(console));
+                StringWriter trace = new StringWriter();
+                failure.printStackTrace(new PrintWriter(trace));
+                Files.writeString(dir.resolve("failure.txt"), test + "\n\n" + trace);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not write failure artifacts to " + dir + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static Session session(WebDriver driver) {
+        if (!ENABLED) {
+            return null;
+        }
+        WebDriver key = Cdp.unwrap(driver);
+        synchronized (SESSIONS) {
+            Session session = SESSIONS.get(key);
+            if (session == null) {
+                session = new Session();
+                SESSIONS.put(key, session);
+                listenToConsole(key, session);
+            }
+            return session;
+        }
+    }
+
+    private static void listenToConsole(WebDriver driver, Session session) {
+        Optional<DevTools> devTools;
+        try {
+            devTools = Cdp.devTools(driver);
+        } catch (WebDriverException e) {
+            return;
+        }
+        devTools.ifPresent(tools -> {
+            tools.addListener(Cdp.event("Runtime.consoleAPICalled"), params ->
+                    session.console.add(entry("console", String.valueOf(params.get("type")), text(params.get("args")))));
+            tools.addListener(Cdp.event("Runtime.exceptionThrown"), params -> {
+                Object details = params.get("exceptionDetails");
+                Object exception = details instanceof Map<?, ?> d ? d.get("exception") : null;
+                Object text = exception instanceof Map<?, ?> e && e.get("description") != null ? e.get("description")
+                        : details instanceof Map<?, ?> d ? d.get("text") : null;
+                session.console.add(entry("exception", "error", String.valueOf(text)));
+            });
+            tools.addListener(Cdp.event("Log.entryAdded"), params -> {
+                if (params.get("entry") instanceof Map<?, ?> entry) {
+                    session.console.add(entry(String.valueOf(entry.get("source")), String.valueOf(entry.get("level")),
+                            entry.get("text") + (entry.get("url") != null ? " (" + entry.get("url") + ")" : "")));
+                }
+            });
+            try {
+                // chromedriver already enables Runtime for its own session, so pages see no change
+                tools.send(Cdp.command("Runtime.enable", Map.of()));
+                tools.send(Cdp.command("Log.enable", Map.of()));
+            } catch (WebDriverException e) {
+                // Steps are still marked; the console stays empty
+            }
+        });
+    }
+
+    private static Map<String, Object> entry(String source, String level, String text) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("epochMillis", System.currentTimeMillis());
+        entry.put("source", source);
+        entry.put("level", level);
+        entry.put("text", text.length() > MAX_TEXT ? text.substring(0, MAX_TEXT) + "..." : text);
+        return entry;
+    }
+
+    /** Console call arguments as the console would print them: values, else descriptions. */
+    private static String text(Object args) {
+        if (!(args instanceof List<?> list)) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Object arg : list) {
+            if (arg instanceof Map<?, ?> remote) {
+                Object value = remote.containsKey("value") ? remote.get("value") : remote.get("description");
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(value);
+            }
+            if (text.length() > MAX_TEXT) {
+                break;
+            }
+        }
+        return text.toString();
+    }
+
+    private static void finish() {
+        WRITER.shutdown();
+        try {
+            WRITER.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (DROPPED.get() > 0) {
+            System.err.println("Failure capture dropped " + DROPPED.get() + " captures while its queue was full");
+        }
+    }
+}
@@ -0,0 +1,771 @@
+package com.example.direct;
+
+import com.example.browser.Cdp;
+import com.example.locate.JsLocators;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.json.Json;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the commands tests issue most straight over the session's DevTools WebSocket instead of
+ * as W3C HTTP requests to chromedriver, which would turn each into the same CDP calls anyway:
+ * {@code findElement(s)}, {@code getText}, {@code getAttribute}, {@code getDomAttribute},
+ * {@code getTagName}, {@code click}, {@code executeScript}, {@code get}/{@code navigate().to},
+ * {@code getTitle} and {@code getCurrentUrl}. Everything else goes to the wrapped driver.
+ *
+ * <pre>
+ * WebDriver driver = DirectDriver.wrap(LaunchProfile.FAST_HEADLESS.launch());
+ * driver.get("https://example.com/");                       // Page.navigate, then readyState
+ * String heading = driver.findElement(By.tagName("h1")).getText();   // two Runtime calls
+ * </pre>
+ *
+ * Only the top-level document of the tab the DevTools session is attached to is driven
+ * directly; inside frames, in other windows and on sessions without DevTools every command
+ * takes the W3C path. Lookups that find nothing are retried by the driver, so implicit waits
+ * and its errors still apply. Clicks are trusted mouse events at the element's centre; elements
+ * that are hidden, covered or inside a {@code select} are clicked by the driver instead. As with
+ * chromedriver, {@code get} and a click that starts a navigation return once the new page
+ * satisfies the page load strategy, within the session's page load timeout, and scripts that
+ * return a promise give its settled value.
+ *
+ * Every remote object the page hands out belongs to an object group of the current document.
+ * Navigating through this driver, which includes the pool's session reset, releases the group,
+ * and the arrays that carry lookup and script results are released as soon as they are read, so
+ * a long loop over one page pins only the elements it still holds.
+ *
+ * {@link #wrapIfEnabled} applies the wrapper only with {@code -Dbrowser.direct=on}.
+ */
+public class DirectDriver implements WebDriver, JavascriptExecutor, TakesScreenshot, HasCapabilities,
+        Interactive, WrapsDriver {
+
+    private static final long POLL_MILLIS = 10;
+    private static final Json JSON = new Json();
+    private static final AtomicLong GROUPS = new AtomicLong();
+
+    static final String STALE = "stale element reference: element is not attached to the page document";
+
+    /** Marks where a script result held an element: {@code {"__directNode": index}}. */
+    static final String NODE = "__directNode";
+
+    static final String CONNECTED = "if (!this.isConnected) throw new Error('" + STALE + "');";
+
+    private static final String FIND_JS =
+            "function(loc, all) {"
+            + JsLocators.FIND_ALL_JS
+            + "  var root = this === window ? document : this;"
+            + "  if (root !== document && !root.isConnected) throw new Error('" + STALE + "');"
+            + "  var found = __findAll(root, loc);"
+            + "  return all ? found : (found[0] || null);"
+            + "}";
+
+    /** Wraps a W3C script body; elements in the result are parked on the window and counted. */
+    private static final String SCRIPT_HEAD = "function() {"
+            + "  var result = (function() {\n";
+    private static final String SCRIPT_TAIL = "\n}).apply(null, arguments);"
+            + "  function finish(result) {"
+            + "    var nodes = [];"
+            + "    function encode(v, depth) {"
+            + "      if (v === undefined || v === null || typeof v === 'function' || typeof v === 'symbol') return null;"
+            + "      if (typeof v !== 'object') return v;"
+            + "      if (v.nodeType === 1 && typeof v.tagName === 'string') {"
+            + "        nodes.push(v);"
+            + "        return {'" + NODE + "': nodes.length - 1};"
+            + "      }"
+            + "      if (depth > 32 || v === window) return null;"
+            + "      if (Array.isArray(v) || v instanceof NodeList || v instanceof HTMLCollection) {"
+            + "        return Array.prototype.map.call(v, function(x) { return encode(x, depth + 1); });"
+            + "      }"
+            + "      var out = {};"
+            + "      Object.keys(v).forEach(function(k) { out[k] = encode(v[k], depth + 1); });"
+            + "      return out;"
+            + "    }"
+            + "    var value = encode(result, 0);"
+            + "    if (nodes.length) window[Symbol.for('direct.nodes')] = nodes;"
+            + "    return {value: value, nodes: nodes.length};"
+            + "  }"
+            + "  return result && typeof result.then === 'function' ? Promise.resolve(result).then(finish) : finish(result);"
+            + "}";
+
+    private static final String TAKE_NODES_JS = "(function() {"
+            + "  var key = Symbol.for('direct.nodes'), nodes = window[key];"
+            + "  delete window[key];"
+            + "  return nodes;"
+            + "})()";
+
+    /** Set on a document a navigation may leave, so the wait for the next one never sees it. */
+    static final String MARK_JS = "window[Symbol.for('direct.leaving')] = true";
+
+    private static final String READY_STATE_JS = "window[Symbol.for('direct.leaving')] ? 'leaving' : document.readyState";
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private final String attached;
+    private final PageLoadStrategy loadStrategy;
+    private volatile String current;
+    private volatile boolean inFrame;
+    /** Object group of the remote objects handed out in the current document. */
+    private volatile String group = nextGroup();
+    /** Navigations the attached tab's top-level frame requested or started. */
+    private final AtomicLong navigationStarts = new AtomicLong();
+    /** {@link #navigationStarts} when the top-level frame last stopped loading. */
+    private volatile long startsAtLastStop;
+
+    private DirectDriver(WebDriver driver, DevTools devTools, String attached) {
+        this.driver = driver;
+        this.devTools = devTools;
+        this.attached = attached;
+        this.current = driver.getWindowHandle();
+        Object strategy = ((HasCapabilities) driver).getCapabilities().getCapability("pageLoadStrategy");
+        this.loadStrategy = strategy == null ? PageLoadStrategy.NORMAL : PageLoadStrategy.fromString(strategy.toString());
+        // A tab's top-level frame has the tab's target id as its frame id
+        devTools.addListener(Cdp.event("Page.frameRequestedNavigation"), params -> {
+            if (attached.equals(params.get("frameId"))) {
+                navigationStarts.incrementAndGet();
+            }
+        });
+        devTools.addListener(Cdp.event("Page.frameStartedLoading"), params -> {
+            if (attached.equals(params.get("frameId"))) {
+                navigationStarts.incrementAndGet();
+            }
+        });
+        devTools.addListener(Cdp.event("Page.frameStoppedLoading"), params -> {
+            if (attached.equals(params.get("frameId"))) {
+                startsAtLastStop = navigationStarts.get();
+            }
+        });
+        devTools.send(Cdp.command("Page.enable", Map.of()));
+    }
+
+    /** Wraps {@code driver}, or returns it unchanged if its session has no DevTools connection. */
+    public static WebDriver wrap(WebDriver driver) {
+        if (driver instanceof DirectDriver) {
+            return driver;
+        }
+        Optional<DevTools> devTools = Cdp.devTools(driver);
+        if (devTools.isEmpty()) {
+            return driver;
+        }
+        Map<String, Object> info = devTools.get().send(Cdp.command("Target.getTargetInfo", Map.of()));
+        Object targetId = info.get("targetInfo") instanceof Map<?, ?> target ? target.get("targetId") : null;
+        return targetId == null ? driver : new DirectDriver(driver, devTools.get(), targetId.toString());
+    }
+
+    /** {@link #wrap} with {@code -Dbrowser.direct=on}; otherwise {@code driver} itself. */
+    public static WebDriver wrapIfEnabled(WebDriver driver) {
+        return "on".equalsIgnoreCase(System.getProperty("browser.direct", "off").trim()) ? wrap(driver) : driver;
+    }
+
+    /**
+     * Whether commands can go over DevTools: the current window is the attached tab (chromedriver
+     * names windows by their target id) and no frame is selected.
+     */
+    boolean direct() {
+        return !inFrame && attached.equals(current);
+    }
+
+    private Map<String, Object> send(String method, Map<String, Object> params) {
+        return devTools.send(Cdp.command(method, params));
+    }
+
+    private static String nextGroup() {
+        return "direct-" + GROUPS.incrementAndGet();
+    }
+
+    /** Releases every remote object handed out in the current document, before it is left. */
+    private void releaseDocument() {
+        String released = group;
+        group = nextGroup();
+        try {
+            send("Runtime.releaseObjectGroup", Map.of("objectGroup", released));
+        } catch (WebDriverException e) {
+            // The document is already gone, and its objects with it
+        }
+    }
+
+    /** Releases one remote object that is no longer needed, such as a result array once read. */
+    void release(String objectId) {
+        try {
+            send("Runtime.releaseObject", Map.of("objectId", objectId));
+        } catch (WebDriverException e) {
+            // Already gone with its document
+        }
+    }
+
+    /** Evaluates {@code expression} in the top-level document; its remote object, or its value when {@code byValue}. */
+    Map<String, Object> evaluate(String expression, boolean byValue) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("expression", expression);
+        params.put("objectGroup", group);
+        params.put("returnByValue", byValue);
+        params.put("awaitPromise", true);
+        return result(send("Runtime.evaluate", params));
+    }
+
+    /** Calls {@code function} on the document with JSON {@code arguments}. */
+    Map<String, Object> onDocument(String function, List<?> arguments, boolean byValue) {
+        return evaluate("(" + function + ").apply(window, " + JSON.toJson(arguments) + ")", byValue);
+    }
+
+    /** Calls {@code function} with {@code this} bound to the remote object {@code objectId}. */
+    Map<String, Object> on(String objectId, String function, List<Map<String, Object>> arguments, boolean byValue) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("objectId", objectId);
+        params.put("functionDeclaration", function);
+        params.put("arguments", arguments);
+        params.put("objectGroup", group);
+        params.put("returnByValue", byValue);
+        params.put("awaitPromise", true);
+        try {
+            return result(send("Runtime.callFunctionOn", params));
+        } catch (StaleElementReferenceException | JavascriptException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            if (isGone(e)) {
+                throw new StaleElementReferenceException(STALE, e);
+            }
+            throw e;
+        }
+    }
+
+    /** The elements held by the remote array {@code objectId}, in index order. */
+    List<WebElement> elements(String objectId) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("objectId", objectId);
+        params.put("ownProperties", true);
+        Object properties = send("Runtime.getProperties", params).get("result");
+        List<Map<?, ?>> indexed = new ArrayList<>();
+        if (properties instanceof List<?> list) {
+            for (Object property : list) {
+                if (property instanceof Map<?, ?> entry && entry.get("name") instanceof String name
+                        && !name.isEmpty() && name.chars().allMatch(Character::isDigit)) {
+                    indexed.add(entry);
+                }
+            }
+        }
+        indexed.sort(Comparator.comparingInt(entry -> Integer.parseInt((String) entry.get("name"))));
+        List<WebElement> elements = new ArrayList<>(indexed.size());
+        for (Map<?, ?> entry : indexed) {
+            if (entry.get("value") instanceof Map<?, ?> value && value.get("objectId") instanceof String id) {
+                elements.add(new DirectElement(this, id));
+            }
+        }
+        return elements;
+    }
+
+    /** Count of navigations the attached tab has started, to pass to {@link #awaitNavigation}. */
+    long navigationStarts() {
+        return navigationStarts.get();
+    }
+
+    /**
+     * After input that may navigate the attached tab, whose document carries {@link #MARK_JS}:
+     * waits for the new page as {@code get} does if a navigation started since {@code startsBefore}.
+     */
+    void awaitNavigation(long startsBefore) {
+        // A navigation the input requested is announced before the reply to this round trip
+        evaluate("0", true);
+        if (navigationStarts.get() == startsBefore || loadStrategy == PageLoadStrategy.NONE) {
+            return;
+        }
+        releaseDocument();
+        awaitLoad("the page a click opened", startsBefore);
+    }
+
+    /** Dispatches one trusted mouse event at viewport coordinates. */
+    void mouse(String type, long x, long y, int buttons) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("type", type);
+        params.put("x", x);
+        params.put("y", y);
+        params.put("button", "mouseMoved".equals(type) ? "none" : "left");
+        params.put("buttons", buttons);
+        params.put("clickCount", "mouseMoved".equals(type) ? 0 : 1);
+        send("Input.dispatchMouseEvent", params);
+    }
+
+    /** Node identity that survives separate lookups of the same element. */
+    long backendNodeId(String objectId) {
+        try {
+            Object node = send("DOM.describeNode", Map.of("objectId", objectId)).get("node");
+            return ((Number) ((Map<?, ?>) node).get("backendNodeId")).longValue();
+        } catch (WebDriverException e) {
+            if (isGone(e)) {
+                throw new StaleElementReferenceException(STALE, e);
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> result(Map<String, Object> response) {
+        if (response.get("exceptionDetails") instanceof Map<?, ?> details) {
+            String description = String.valueOf(details.get("text"));
+            if (details.get("exception") instanceof Map<?, ?> exception && exception.get("description") != null) {
+                description = exception.get("description").toString();
+            }
+            if (description.contains(STALE)) {
+                throw new StaleElementReferenceException(STALE);
+            }
+            throw new JavascriptException("javascript error: " + description);
+        }
+        Object result = response.get("result");
+        return result instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    /** The remote object's value; null for {@code undefined}. */
+    static Object value(Map<String, Object> remoteObject) {
+        return remoteObject.get("value");
+    }
+
+    /** Remote objects and contexts that no longer exist: the document navigated or the node was collected. */
+    private static boolean isGone(WebDriverException e) {
+        String message = String.valueOf(e.getMessage());
+        return message.contains("Could not find object with given id")
+                || message.contains("Cannot find context with specified id")
+                || message.contains("No node with given id");
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return findElement(by, null);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return findElements(by, null);
+    }
+
+    WebElement findElement(By by, DirectElement scope) {
+        Optional<Map<String, Object>> locator = locator(by);
+        if (locator.isPresent() && (scope != null || direct())) {
+            Map<String, Object> found = find(locator.get(), false, scope);
+            if (found.get("objectId") instanceof String id) {
+                return new DirectElement(this, id);
+            }
+        }
+        // Not there (yet): the driver applies the implicit wait and raises its usual error
+        return scope == null ? driver.findElement(by) : scope.getWrappedElement().findElement(by);
+    }
+
+    List<WebElement> findElements(By by, DirectElement scope) {
+        Optional<Map<String, Object>> locator = locator(by);
+        if (locator.isPresent() && (scope != null || direct())) {
+            Map<String, Object> found = find(locator.get(), true, scope);
+            if (found.get("objectId") instanceof String id) {
+                List<WebElement> elements = elements(id);
+                release(id);
+                if (!elements.isEmpty()) {
+                    return elements;
+                }
+            }
+        }
+        return scope == null ? driver.findElements(by) : scope.getWrappedElement().findElements(by);
+    }
+
+    private Map<String, Object> find(Map<String, Object> locator, boolean all, DirectElement scope) {
+        if (scope != null) {
+            return on(scope.objectId(), FIND_JS, List.of(argument(locator), argument(all)), false);
+        }
+        try {
+            return onDocument(FIND_JS, List.of(locator, all), false);
+        } catch (JavascriptException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            // Between documents; let the driver look once the new one is there
+            return Map.of();
+        }
+    }
+
+    private static Optional<Map<String, Object>> locator(By by) {
+        try {
+            return Optional.of(JsLocators.toJson(by));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        Object[] values = args == null ? new Object[0] : args;
+        Optional<List<Map<String, Object>>> arguments = arguments(values);
+        if (!direct() || arguments.isEmpty()) {
+            return ((JavascriptExecutor) driver).executeScript(script, values);
+        }
+        String function = SCRIPT_HEAD + script + SCRIPT_TAIL;
+        Map<String, Object> result = firstElement(values)
+                .map(element -> on(element.objectId(), function, arguments.get(), true))
+                .orElseGet(() -> onDocument(function, plain(values), true));
+        if (!(value(result) instanceof Map<?, ?> wrapped)) {
+            return null;
+        }
+        List<WebElement> nodes = List.of();
+        if (wrapped.get("nodes") instanceof Number count && count.intValue() > 0) {
+            if (evaluate(TAKE_NODES_JS, false).get("objectId") instanceof String id) {
+                nodes = elements(id);
+                release(id);
+            }
+        }
+        return decode(wrapped.get("value"), nodes);
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return ((JavascriptExecutor) driver).executeAsyncScript(script, args);
+    }
+
+    /**
+     * CDP call arguments for script arguments, or empty when one is an element the page can only
+     * reach through the driver, or an element nested inside a collection.
+     */
+    static Optional<List<Map<String, Object>>> arguments(Object[] args) {
+        List<Map<String, Object>> arguments = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            Object unwrapped = unwrap(arg);
+            if (unwrapped instanceof DirectElement element) {
+                arguments.add(Map.of("objectId", element.objectId()));
+            } else if (unwrapped instanceof WebElement || containsElement(unwrapped)) {
+                return Optional.empty();
+            } else {
+                arguments.add(argument(unwrapped));
+            }
+        }
+        return Optional.of(arguments);
+    }
+
+    private static Map<String, Object> argument(Object value) {
+        Map<String, Object> argument = new LinkedHashMap<>();
+        argument.put("value", value);
+        return argument;
+    }
+
+    private static Object unwrap(Object arg) {
+        Object target = arg;
+        while (!(target instanceof DirectElement) && target instanceof WrapsElement wrapper) {
+            target = wrapper.getWrappedElement();
+        }
+        return target;
+    }
+
+    private static boolean containsElement(Object value) {
+        if (value instanceof WebElement) {
+            return true;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().anyMatch(DirectDriver::containsElement);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.values().stream().anyMatch(DirectDriver::containsElement);
+        }
+        if (value instanceof Object[] array) {
+            return containsElement(List.of(array));
+        }
+        return false;
+    }
+
+    private static Optional<DirectElement> firstElement(Object[] args) {
+        for (Object arg : args) {
+            if (unwrap(arg) instanceof DirectElement element) {
+                return Optional.of(element);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Object> plain(Object[] args) {
+        List<Object> values = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            values.add(arg);
+        }
+        return values;
+    }
+
+    /** Turns a script result back into W3C shapes: parked nodes become elements, whole numbers longs. */
+    static Object decode(Object value, List<WebElement> nodes) {
+        if (value instanceof Map<?, ?> map) {
+            if (map.size() == 1 && map.get(NODE) instanceof Number index) {
+                return index.intValue() < nodes.size() ? nodes.get(index.intValue()) : null;
+            }
+            Map<String, Object> decoded = new LinkedHashMap<>();
+            map.forEach((key, entry) -> decoded.put(String.valueOf(key), decode(entry, nodes)));
+            return decoded;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> decoded = new ArrayList<>(list.size());
+            list.forEach(entry -> decoded.add(decode(entry, nodes)));
+            return decoded;
+        }
+        if (value instanceof Number number && !(number instanceof Long)) {
+            double d = number.doubleValue();
+            return d == Math.rint(d) && Math.abs(d) < 0x1p53 ? (Object) (long) d : (Object) d;
+        }
+        return value;
+    }
+
+    @Override
+    public void get(String url) {
+        if (!direct()) {
+            driver.get(url);
+            return;
+        }
+        try {
+            evaluate(MARK_JS, true);
+        } catch (WebDriverException e) {
+            // An error page or a document on its way out; the readyState check still works
+        }
+        releaseDocument();
+        long startsBefore = navigationStarts.get();
+        Map<String, Object> navigation = send("Page.navigate", Map.of("url", url));
+        Object error = navigation.get("errorText");
+        if (error != null && !error.toString().isEmpty()) {
+            throw new WebDriverException("unknown error: " + error);
+        }
+        if (navigation.get("loaderId") == null || loadStrategy == PageLoadStrategy.NONE) {
+            // Same-document navigation, or nothing to wait for
+            return;
+        }
+        awaitLoad(url, startsBefore);
+    }
+
+    /**
+     * Waits as chromedriver would for the page load strategy, DOM parsed (eager) or loaded
+     * (normal), within the session's page load timeout. A navigation that ends without a new
+     * document (a download, a 204) is over once the tab stops loading after it started.
+     */
+    private void awaitLoad(String url, long startsBefore) {
+        Duration timeout = driver.manage().timeouts().getPageLoadTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Object state = null;
+            try {
+                state = value(evaluate(READY_STATE_JS, true));
+            } catch (WebDriverException e) {
+                // Between documents
+            }
+            if ("complete".equals(state) || ("interactive".equals(state) && loadStrategy == PageLoadStrategy.EAGER)
+                    || ("leaving".equals(state) && startsAtLastStop > startsBefore)) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("timeout: page did not load within " + timeout.toMillis() / 1000.0
+                        + " seconds: " + url);
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Interrupted while loading " + url, e);
+            }
+        }
+    }
+
+    @Override
+    public Navigation navigate() {
+        Navigation navigation = driver.navigate();
+        return new Navigation() {
+            @Override
+            public void back() {
+                leaving();
+                navigation.back();
+            }
+
+            @Override
+            public void forward() {
+                leaving();
+                navigation.forward();
+            }
+
+            @Override
+            public void to(String url) {
+                get(url);
+            }
+
+            @Override
+            public void to(URL url) {
+                get(String.valueOf(url));
+            }
+
+            @Override
+            public void refresh() {
+                leaving();
+                navigation.refresh();
+            }
+        };
+    }
+
+    /** Before the driver navigates the attached tab's document away. */
+    private void leaving() {
+        if (direct()) {
+            releaseDocument();
+        }
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return direct() ? String.valueOf(value(evaluate("location.href", true))) : driver.getCurrentUrl();
+    }
+
+    @Override
+    public String getTitle() {
+        return direct() ? String.valueOf(value(evaluate("document.title", true))) : driver.getTitle();
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        TargetLocator target = driver.switchTo();
+        return new TargetLocator() {
+            @Override
+            public WebDriver frame(int index) {
+                target.frame(index);
+                inFrame = true;
+                return DirectDriver.this;
+            }
+
+            @Override
+            public WebDriver frame(String nameOrId) {
+                target.frame(nameOrId);
+                inFrame = true;
+                return DirectDriver.this;
+            }
+
+            @Override
+            public WebDriver frame(WebElement frameElement) {
+                target.frame(frameElement);
+                inFrame = true;
+                return DirectDriver.this;
+            }
+
+            @Override
+            public WebDriver parentFrame() {
+                // Which frame that leaves us in is not tracked; stay on the driver until defaultContent
+                target.parentFrame();
+                return DirectDriver.this;
+            }
+
+            @Override
+            public WebDriver window(String nameOrHandle) {
+                target.window(nameOrHandle);
+                current = driver.getWindowHandle();
+                inFrame = false;
+                return DirectDriver.this;
+            }
+
+            @Override
+            public WebDriver newWindow(WindowType typeHint) {
+                target.newWindow(typeHint);
+                current = driver.getWindowHandle();
+                inFrame = false;
+                return DirectDriver.this;
+            }
+
+            @Override
+            public WebDriver defaultContent() {
+                target.defaultContent();
+                inFrame = false;
+                return DirectDriver.this;
+            }
+
+            @Override
+            public WebElement activeElement() {
+                return target.activeElement();
+            }
+
+            @Override
+            public Alert alert() {
+                return target.alert();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        driver.close();
+        if (attached.equals(current)) {
+            current = null;
+        }
+    }
+
+    @Override
+    public void quit() {
+        driver.quit();
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return driver.getWindowHandles();
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return driver.getWindowHandle();
+    }
+
+    @Override
+    public String getPageSource() {
+        return driver.getPageSource();
+    }
+
+    @Override
+    public Options manage() {
+        return driver.manage();
+    }
+
+    @Override
+    public void perform(Collection<Sequence> actions) {
+        ((Interactive) driver).perform(actions);
+    }
+
+    @Override
+    public void resetInputState() {
+        ((Interactive) driver).resetInputState();
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return ((TakesScreenshot) driver).getScreenshotAs(target);
+    }
+
+    @Override
+    public Capabilities getCapabilities() {
+        return ((HasCapabilities) driver).getCapabilities();
+    }
+
+    @Override
+    public WebDriver getWrappedDriver() {
+        return driver;
+    }
+
+    @Override
+    public String toString() {
+        return "direct(" + driver + ")";
+    }
+}
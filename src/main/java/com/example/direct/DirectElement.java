@@ -0,0 +1,278 @@
+package com.example.direct;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Element handed out by a {@link DirectDriver}: a handle on the page's node as a DevTools
+ * remote object. Text, attribute and tag reads, lookups below it and clicks run over DevTools;
+ * anything else goes to the driver through the matching W3C element, found once on first use.
+ */
+public final class DirectElement implements WebElement, WrapsElement {
+
+    private static final String TEXT_JS = "function() {" + DirectDriver.CONNECTED
+            + "  if (!this.getClientRects().length) return '';"
+            + "  return (this.innerText || '').replace(/\\u00a0/g, ' ').trim();"
+            + "}";
+
+    /** Selenium's {@code getAttribute}: boolean attributes, then the property, then the attribute. */
+    private static final String ATTRIBUTE_JS = "function(name) {" + DirectDriver.CONNECTED
+            + "  var lower = name.toLowerCase();"
+            + "  if (lower === 'style') return this.style.cssText;"
+            + "  if (lower === 'class' || lower === 'classname') return this.getAttribute('class');"
+            + "  var booleans = ['allowfullscreen', 'async', 'autofocus', 'autoplay', 'checked', 'compact', 'complete',"
+            + "      'controls', 'declare', 'default', 'defaultchecked', 'defaultselected', 'defer', 'disabled',"
+            + "      'ended', 'formnovalidate', 'hidden', 'indeterminate', 'iscontenteditable', 'ismap', 'itemscope',"
+            + "      'loop', 'multiple', 'muted', 'nohref', 'nomodule', 'noresize', 'noshade', 'novalidate', 'nowrap',"
+            + "      'open', 'paused', 'playsinline', 'pubdate', 'readonly', 'required', 'reversed', 'scoped',"
+            + "      'seamless', 'seeking', 'selected', 'truespeed', 'willvalidate'];"
+            + "  if (booleans.indexOf(lower) >= 0) {"
+            + "    return this[name] === true || this.hasAttribute(lower) ? 'true' : null;"
+            + "  }"
+            + "  var property = this[name];"
+            + "  if (property !== undefined && property !== null && typeof property !== 'object' && typeof property !== 'function') {"
+            + "    return String(property);"
+            + "  }"
+            + "  return this.getAttribute(name);"
+            + "}";
+
+    private static final String DOM_ATTRIBUTE_JS = "function(name) {" + DirectDriver.CONNECTED
+            + "  return this.getAttribute(name);"
+            + "}";
+
+    private static final String TAG_NAME_JS = "function() {" + DirectDriver.CONNECTED
+            + "  return this.tagName.toLowerCase();"
+            + "}";
+
+    /**
+     * Scrolls the element into view and returns the viewport point to click, or null when the
+     * driver has to click it: nothing to hit, an option, or another element on top. Marks the
+     * document before a click that may leave it.
+     */
+    private static final String CLICK_POINT_JS = "function() {" + DirectDriver.CONNECTED
+            + "  if (this.tagName === 'OPTION') return null;"
+            + "  var box = this.getBoundingClientRect();"
+            + "  if (box.top < 0 || box.left < 0 || box.bottom > innerHeight || box.right > innerWidth) {"
+            + "    this.scrollIntoView({block: 'end', inline: 'nearest'});"
+            + "  }"
+            + "  var rects = this.getClientRects();"
+            + "  if (!rects.length || rects[0].width === 0 || rects[0].height === 0) return null;"
+            + "  var x = Math.floor(rects[0].left + rects[0].width / 2), y = Math.floor(rects[0].top + rects[0].height / 2);"
+            + "  var hit = document.elementFromPoint(x, y);"
+            + "  if (!hit || (hit !== this && !this.contains(hit))) return null;"
+            + "  " + DirectDriver.MARK_JS + ";"
+            + "  return {x: x, y: y};"
+            + "}";
+
+    private static final String PARK_JS = "function() {" + DirectDriver.CONNECTED
+            + "  var key = Symbol.for('direct.parked'), parked = window[key] || (window[key] = []);"
+            + "  parked.push(this);"
+            + "  return parked.length - 1;"
+            + "}";
+
+    private static final String UNPARK_JS =
+            "var parked = window[Symbol.for('direct.parked')], element = parked && parked[arguments[0]];"
+            + "if (parked) parked[arguments[0]] = null;"
+            + "return element || null;";
+
+    private final DirectDriver owner;
+    private final String objectId;
+    private volatile WebElement remote;
+    private volatile long backendNodeId = -1;
+
+    DirectElement(DirectDriver owner, String objectId) {
+        this.owner = owner;
+        this.objectId = objectId;
+    }
+
+    String objectId() {
+        return objectId;
+    }
+
+    private Object call(String function, Object... args) {
+        List<Map<String, Object>> arguments = DirectDriver.arguments(args).orElseThrow();
+        return DirectDriver.value(owner.on(objectId, function, arguments, true));
+    }
+
+    /** The driver's own element for this node, for commands that do not run over DevTools. */
+    @Override
+    public WebElement getWrappedElement() {
+        if (remote == null) {
+            Object index = call(PARK_JS);
+            Object element = ((JavascriptExecutor) owner.getWrappedDriver()).executeScript(UNPARK_JS, index);
+            if (!(element instanceof WebElement webElement)) {
+                throw new StaleElementReferenceException(DirectDriver.STALE
+                        + " (or not in the driver's current window and frame)");
+            }
+            remote = webElement;
+        }
+        return remote;
+    }
+
+    /** W3C wire form, so elements inside action sequences and the like serialize as the driver's element. */
+    public Map<String, Object> toJson() {
+        return ((RemoteWebElement) getWrappedElement()).toJson();
+    }
+
+    @Override
+    public void click() {
+        if (call(CLICK_POINT_JS) instanceof Map<?, ?> point) {
+            long x = ((Number) point.get("x")).longValue();
+            long y = ((Number) point.get("y")).longValue();
+            long navigations = owner.navigationStarts();
+            owner.mouse("mouseMoved", x, y, 0);
+            owner.mouse("mousePressed", x, y, 1);
+            owner.mouse("mouseReleased", x, y, 0);
+            owner.awaitNavigation(navigations);
+            return;
+        }
+        getWrappedElement().click();
+    }
+
+    @Override
+    public String getText() {
+        Object text = call(TEXT_JS);
+        return text == null ? "" : text.toString();
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        Object value = call(ATTRIBUTE_JS, name);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public String getDomAttribute(String name) {
+        Object value = call(DOM_ATTRIBUTE_JS, name);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public String getTagName() {
+        return String.valueOf(call(TAG_NAME_JS));
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return owner.findElements(by, this);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return owner.findElement(by, this);
+    }
+
+    @Override
+    public void submit() {
+        getWrappedElement().submit();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        getWrappedElement().sendKeys(keysToSend);
+    }
+
+    @Override
+    public void clear() {
+        getWrappedElement().clear();
+    }
+
+    @Override
+    public String getDomProperty(String name) {
+        return getWrappedElement().getDomProperty(name);
+    }
+
+    @Override
+    public String getAriaRole() {
+        return getWrappedElement().getAriaRole();
+    }
+
+    @Override
+    public String getAccessibleName() {
+        return getWrappedElement().getAccessibleName();
+    }
+
+    @Override
+    public boolean isSelected() {
+        return getWrappedElement().isSelected();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return getWrappedElement().isEnabled();
+    }
+
+    @Override
+    public SearchContext getShadowRoot() {
+        return getWrappedElement().getShadowRoot();
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return getWrappedElement().isDisplayed();
+    }
+
+    @Override
+    public Point getLocation() {
+        return getWrappedElement().getLocation();
+    }
+
+    @Override
+    public Dimension getSize() {
+        return getWrappedElement().getSize();
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return getWrappedElement().getRect();
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return getWrappedElement().getCssValue(propertyName);
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return getWrappedElement().getScreenshotAs(target);
+    }
+
+    /** Remote objects differ per lookup; the node's backend id does not. */
+    private long node() {
+        if (backendNodeId < 0) {
+            backendNodeId = owner.backendNodeId(objectId);
+        }
+        return backendNodeId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof DirectElement element && element.owner == owner
+                && (element.objectId.equals(objectId) || element.node() == node());
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(node());
+    }
+
+    @Override
+    public String toString() {
+        return "direct element " + objectId;
+    }
+}
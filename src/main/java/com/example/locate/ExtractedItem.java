@@ -0,0 +1,31 @@
+package com.example.locate;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+
+/**
+ * One item returned by {@link Extraction#run}: its position in the full result list, a live
+ * reference to its element and the values of every declared field.
+ */
+public record ExtractedItem(int position, WebElement element, Map<String, Object> values) {
+
+    /** A string field; {@code null} when the attribute or descendant was absent. */
+    public String string(String field) {
+        requireField(field);
+        Object value = values.get(field);
+        return value == null ? null : value.toString();
+    }
+
+    /** A predicate field. */
+    public boolean flag(String field) {
+        requireField(field);
+        return Boolean.TRUE.equals(values.get(field));
+    }
+
+    private void requireField(String field) {
+        if (!values.containsKey(field)) {
+            throw new IllegalArgumentException("No field '" + field + "' was extracted; have " + values.keySet());
+        }
+    }
+}
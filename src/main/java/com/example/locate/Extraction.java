@@ -0,0 +1,131 @@
+package com.example.locate;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative bulk read of a result list: one {@code executeScript} finds every item under a
+ * container locator and evaluates all requested fields and predicates for each of them.
+ *
+ * <pre>
+ * List&lt;ExtractedItem&gt; results = Extraction.of(By.cssSelector("[data-component-type='s-search-result']"))
+ *         .attribute("asin", "data-asin")
+ *         .hasDescendant("sponsored", By.xpath(".//span[contains(text(), 'Sponsored')]"))
+ *         .run(driver);
+ * </pre>
+ *
+ * Missing descendants simply evaluate to {@code null}/{@code false}; unlike
+ * {@code findElement} in a loop, nothing waits on the implicit timeout.
+ */
+public class Extraction {
+
+    private static final String SCRIPT = JsLocators.FIND_ALL_JS
+            + "var items = __findAll(document, arguments[0]), fields = arguments[1], out = [];"
+            + "for (var i = 0; i < items.length; i++) {"
+            + "  var item = items[i], values = {};"
+            + "  for (var f = 0; f < fields.length; f++) {"
+            + "    var field = fields[f], target = item;"
+            + "    if (field.locator) target = __findAll(item, field.locator)[0] || null;"
+            + "    var text = target ? (target.textContent || '').replace(/\\s+/g, ' ').trim() : null;"
+            + "    switch (field.kind) {"
+            + "      case 'attribute': values[field.name] = target ? target.getAttribute(field.attr) : null; break;"
+            + "      case 'text': values[field.name] = text; break;"
+            + "      case 'hasAttribute': values[field.name] = !!target && target.hasAttribute(field.attr); break;"
+            + "      case 'attributeEquals': values[field.name] = !!target && target.getAttribute(field.attr) === field.value; break;"
+            + "      case 'textContains': values[field.name] = text !== null && text.indexOf(field.value) >= 0; break;"
+            + "      case 'hasDescendant': values[field.name] = target !== null; break;"
+            + "    }"
+            + "  }"
+            + "  out.push({element: item, values: values});"
+            + "}"
+            + "return out;";
+
+    private final By container;
+    private final List<Map<String, Object>> fields = new ArrayList<>();
+
+    private Extraction(By container) {
+        this.container = container;
+    }
+
+    /** Starts an extraction over every element matching {@code container}. */
+    public static Extraction of(By container) {
+        return new Extraction(container);
+    }
+
+    /** String value of an attribute on the item. */
+    public Extraction attribute(String name, String attribute) {
+        return add(name, "attribute", null, Map.of("attr", attribute));
+    }
+
+    /** String value of an attribute on the first descendant matching {@code locator}. */
+    public Extraction attribute(String name, By locator, String attribute) {
+        return add(name, "attribute", locator, Map.of("attr", attribute));
+    }
+
+    /** Whitespace-normalised text content of the item. */
+    public Extraction text(String name) {
+        return add(name, "text", null, Map.of());
+    }
+
+    /** Whitespace-normalised text content of the first descendant matching {@code locator}. */
+    public Extraction text(String name, By locator) {
+        return add(name, "text", locator, Map.of());
+    }
+
+    /** Predicate: the item carries {@code attribute}. */
+    public Extraction hasAttribute(String name, String attribute) {
+        return add(name, "hasAttribute", null, Map.of("attr", attribute));
+    }
+
+    /** Predicate: the item's {@code attribute} equals {@code value}. */
+    public Extraction attributeEquals(String name, String attribute, String value) {
+        return add(name, "attributeEquals", null, Map.of("attr", attribute, "value", value));
+    }
+
+    /** Predicate: the item's text content contains {@code text}. */
+    public Extraction textContains(String name, String text) {
+        return add(name, "textContains", null, Map.of("value", text));
+    }
+
+    /** Predicate: the item has a descendant matching {@code locator}. */
+    public Extraction hasDescendant(String name, By locator) {
+        return add(name, "hasDescendant", locator, Map.of());
+    }
+
+    private Extraction add(String name, String kind, By locator, Map<String, Object> extra) {
+        Map<String, Object> field = new LinkedHashMap<>(extra);
+        field.put("name", name);
+        field.put("kind", kind);
+        if (locator != null) {
+            field.put("locator", JsLocators.toJson(locator));
+        }
+        fields.add(field);
+        return this;
+    }
+
+    /** Runs the extraction with one script execution; items come back in document order. */
+    @SuppressWarnings("unchecked")
+    public List<ExtractedItem> run(WebDriver driver) {
+        List<Object> raw = (List<Object>) ((JavascriptExecutor) driver)
+                .executeScript(SCRIPT, JsLocators.toJson(container), fields);
+        List<ExtractedItem> items = new ArrayList<>(raw.size());
+        for (int i = 0; i < raw.size(); i++) {
+            Map<String, Object> item = (Map<String, Object>) raw.get(i);
+            // Null values may be dropped on the wire; restore every declared field
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Map<String, Object> field : fields) {
+                values.put((String) field.get("name"), null);
+            }
+            values.putAll((Map<String, Object>) item.get("values"));
+            items.add(new ExtractedItem(i, (WebElement) item.get("element"), values));
+        }
+        return items;
+    }
+}
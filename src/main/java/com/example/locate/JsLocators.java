@@ -0,0 +1,94 @@
+package com.example.locate;
+
+import org.openqa.selenium.By;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evaluates Selenium locators inside the page, so a single script can resolve many of them
+ * without a WebDriver round trip per lookup.
+ *
+ * Locators are passed to scripts in their W3C wire form ({@code using}/{@code value});
+ * {@code By.id}, {@code By.name} and {@code By.className} are rewritten to CSS selectors the
+ * same way the W3C dialect does before sending them to the driver.
+ */
+public final class JsLocators {
+
+    /**
+     * Defines {@code __findAll(root, locator)} returning an array of matching elements under
+     * {@code root} (a document or element), with the same semantics as {@code findElements}.
+     */
+    public static final String FIND_ALL_JS =
+            "function __findAll(root, loc) {"
+            + "  var out = [];"
+            + "  switch (loc.using) {"
+            + "    case 'css selector':"
+            + "      return Array.prototype.slice.call(root.querySelectorAll(loc.value));"
+            + "    case 'tag name':"
+            + "      return Array.prototype.slice.call(root.getElementsByTagName(loc.value));"
+            + "    case 'xpath':"
+            + "      var doc = root.ownerDocument || root;"
+            + "      var r = doc.evaluate(loc.value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "      for (var i = 0; i < r.snapshotLength; i++) {"
+            + "        if (r.snapshotItem(i).nodeType === 1) out.push(r.snapshotItem(i));"
+            + "      }"
+            + "      return out;"
+            + "    case 'link text':"
+            + "    case 'partial link text':"
+            + "      var links = root.querySelectorAll('a');"
+            + "      for (var j = 0; j < links.length; j++) {"
+            + "        var text = (links[j].innerText || '').trim();"
+            + "        if (loc.using === 'link text' ? text === loc.value : text.indexOf(loc.value) >= 0) out.push(links[j]);"
+            + "      }"
+            + "      return out;"
+            + "  }"
+            + "  throw new Error('Unsupported locator strategy: ' + loc.using);"
+            + "}";
+
+    private JsLocators() {
+    }
+
+    /** Wire form of a locator, ready to pass as a script argument. */
+    public static Map<String, Object> toJson(By by) {
+        if (!(by instanceof By.Remotable remotable)) {
+            throw new IllegalArgumentException("Locator cannot be evaluated in the page: " + by);
+        }
+        By.Remotable.Parameters parameters = remotable.getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        return switch (parameters.using()) {
+            case "id" -> wire("css selector", "#" + cssEscape(value));
+            case "class name" -> wire("css selector", "." + cssEscape(value));
+            case "name" -> wire("css selector", "*[name='" + value.replace("\\", "\\\\").replace("'", "\\'") + "']");
+            default -> wire(parameters.using(), value);
+        };
+    }
+
+    private static Map<String, Object> wire(String using, String value) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("using", using);
+        json.put("value", value);
+        return json;
+    }
+
+    /** {@code identifier} escaped for use after {@code #} or {@code .}, as CSS.escape does it. */
+    static String cssEscape(String identifier) {
+        StringBuilder out = new StringBuilder(identifier.length() + 8);
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            if (c == 0) {
+                out.append('\uFFFD');
+            } else if (c < 0x20 || c == 0x7f || (digit && (i == 0 || (i == 1 && identifier.charAt(0) == '-')))) {
+                out.append('\\').append(Integer.toHexString(c)).append(' ');
+            } else if (c == '-' && i == 0 && identifier.length() == 1) {
+                out.append("\\-");
+            } else if (digit || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_' || c > 0x7f) {
+                out.append(c);
+            } else {
+                out.append('\\').append(c);
+            }
+        }
+        return out.toString();
+    }
+}
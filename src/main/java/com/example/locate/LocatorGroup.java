@@ -0,0 +1,143 @@
+package com.example.locate;
+
+import com.example.wait.MeasuredWait;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Alternative locators for the same element, tried together instead of one timeout after
+ * another. Every poll checks all alternatives in a single script and returns the first one,
+ * in declaration order, that matches; waiting uses one deadline shared by all of them.
+ *
+ * <pre>
+ * LocatorGroup continueShopping = LocatorGroup.of("amazon.continue-shopping",
+ *         By.xpath("//button[@alt='Continue shopping']"),
+ *         By.xpath("//button[contains(text(),'Continue shopping')]"));
+ * Optional&lt;LocatorGroup.Match&gt; button = continueShopping.awaitClickable(driver, Duration.ofSeconds(10));
+ * </pre>
+ *
+ * Which alternative won each lookup is recorded in {@link LocatorStats} under the group name.
+ */
+public class LocatorGroup {
+
+    private static final String SCRIPT = JsLocators.FIND_ALL_JS
+            + "var root = arguments[0] || document, alternatives = arguments[1], clickable = arguments[2];"
+            + "function usable(el) {"
+            + "  if (!clickable) return true;"
+            + "  var style = window.getComputedStyle(el);"
+            + "  return el.getClientRects().length > 0 && style.visibility !== 'hidden'"
+            + "      && style.display !== 'none' && !el.disabled;"
+            + "}"
+            + "for (var i = 0; i < alternatives.length; i++) {"
+            + "  var found = __findAll(root, alternatives[i]);"
+            + "  for (var j = 0; j < found.length; j++) {"
+            + "    if (usable(found[j])) return {index: i, element: found[j]};"
+            + "  }"
+            + "}"
+            + "return null;";
+
+    private final String name;
+    private final List<By> alternatives;
+    private final List<Map<String, Object>> wireAlternatives = new ArrayList<>();
+
+    /** The alternative that matched and the element it found. */
+    public record Match(int index, By locator, WebElement element) {
+    }
+
+    private LocatorGroup(String name, List<By> alternatives) {
+        this.name = name;
+        this.alternatives = alternatives;
+        for (By alternative : alternatives) {
+            wireAlternatives.add(JsLocators.toJson(alternative));
+        }
+    }
+
+    public static LocatorGroup of(String name, By... alternatives) {
+        if (alternatives.length == 0) {
+            throw new IllegalArgumentException("Locator group '" + name + "' needs at least one alternative");
+        }
+        return new LocatorGroup(name, List.of(alternatives));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<By> alternatives() {
+        return alternatives;
+    }
+
+    /** Condition for {@code wait.until}: any alternative is present in the DOM. */
+    public ExpectedCondition<Match> present() {
+        return condition(null, false);
+    }
+
+    /** Condition for {@code wait.until}: any alternative is displayed and enabled. */
+    public ExpectedCondition<Match> clickable() {
+        return condition(null, true);
+    }
+
+    /** Checks once, without waiting, for a match under {@code root} (or the whole page if null). */
+    public Optional<Match> find(WebDriver driver, WebElement root) {
+        Match match = condition(root, false).apply(driver);
+        if (match == null) {
+            LocatorStats.recordMiss(this);
+        }
+        return Optional.ofNullable(match);
+    }
+
+    public Optional<Match> find(WebDriver driver) {
+        return find(driver, null);
+    }
+
+    /** Waits up to {@code timeout} in total for any alternative to become clickable. */
+    public Optional<Match> awaitClickable(WebDriver driver, Duration timeout) {
+        return await(driver, timeout, clickable());
+    }
+
+    /** Waits up to {@code timeout} in total for any alternative to be present. */
+    public Optional<Match> awaitPresent(WebDriver driver, Duration timeout) {
+        return await(driver, timeout, present());
+    }
+
+    private Optional<Match> await(WebDriver driver, Duration timeout, ExpectedCondition<Match> condition) {
+        try {
+            return Optional.of(new MeasuredWait(driver, timeout).until(condition));
+        } catch (TimeoutException e) {
+            LocatorStats.recordMiss(this);
+            return Optional.empty();
+        }
+    }
+
+    private ExpectedCondition<Match> condition(WebElement root, boolean clickable) {
+        return new ExpectedCondition<Match>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Match apply(WebDriver driver) {
+                Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver)
+                        .executeScript(SCRIPT, root, wireAlternatives, clickable);
+                if (result == null) {
+                    return null;
+                }
+                int index = ((Number) result.get("index")).intValue();
+                LocatorStats.recordHit(LocatorGroup.this, index);
+                return new Match(index, alternatives.get(index), (WebElement) result.get("element"));
+            }
+
+            @Override
+            public String toString() {
+                return "any of '" + name + "' to be " + (clickable ? "clickable" : "present") + ": " + alternatives;
+            }
+        };
+    }
+}
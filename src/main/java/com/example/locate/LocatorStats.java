@@ -0,0 +1,109 @@
+package com.example.locate;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-alternative hit counts for every {@link LocatorGroup} used in this JVM, so alternatives
+ * that never match can be pruned. Written to {@code -Dlocator.stats.file} (default
+ * {@code target/locator-stats.json}) and summarised on stdout when the JVM exits.
+ */
+public final class LocatorStats {
+
+    private static final Map<String, GroupStats> GROUPS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LocatorStats::report, "locator-stats"));
+    }
+
+    private LocatorStats() {
+    }
+
+    private record GroupStats(List<By> alternatives, AtomicLongArray hits, AtomicLong misses) {
+
+        long lookups() {
+            long total = misses.get();
+            for (int i = 0; i < hits.length(); i++) {
+                total += hits.get(i);
+            }
+            return total;
+        }
+    }
+
+    static void recordHit(LocatorGroup group, int index) {
+        stats(group).hits().incrementAndGet(index);
+    }
+
+    static void recordMiss(LocatorGroup group) {
+        stats(group).misses().incrementAndGet();
+    }
+
+    private static GroupStats stats(LocatorGroup group) {
+        return GROUPS.computeIfAbsent(group.name(), name -> new GroupStats(group.alternatives(),
+                new AtomicLongArray(group.alternatives().size()), new AtomicLong()));
+    }
+
+    /** Hit rate of one alternative in a group, between 0 and 1; 0 for an unknown group. */
+    public static double hitRate(String group, int index) {
+        GroupStats stats = GROUPS.get(group);
+        if (stats == null || stats.lookups() == 0) {
+            return 0;
+        }
+        return (double) stats.hits().get(index) / stats.lookups();
+    }
+
+    /** Snapshot of all groups in report form. */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        GROUPS.forEach((name, stats) -> {
+            List<Map<String, Object>> alternatives = new ArrayList<>();
+            for (int i = 0; i < stats.alternatives().size(); i++) {
+                Map<String, Object> alternative = new LinkedHashMap<>();
+                alternative.put("locator", stats.alternatives().get(i).toString());
+                alternative.put("hits", stats.hits().get(i));
+                alternative.put("hitRate", hitRate(name, i));
+                alternatives.add(alternative);
+            }
+            Map<String, Object> group = new LinkedHashMap<>();
+            group.put("lookups", stats.lookups());
+            group.put("misses", stats.misses().get());
+            group.put("alternatives", alternatives);
+            report.put(name, group);
+        });
+        return report;
+    }
+
+    static void report() {
+        if (GROUPS.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(System.getProperty("locator.stats.file", "target/locator-stats.json"));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, new Json().toJson(snapshot()));
+        } catch (IOException e) {
+            System.err.println("Could not write locator stats to " + file + ": " + e.getMessage());
+        }
+        System.out.println("Locator group hit rates (" + file + "):");
+        GROUPS.forEach((name, stats) -> {
+            System.out.println("  " + name + ": " + stats.lookups() + " lookups, " + stats.misses() + " misses");
+            for (int i = 0; i < stats.alternatives().size(); i++) {
+                long hits = stats.hits().get(i);
+                System.out.printf("    #%d %5.1f%% %s%s%n", i + 1, 100 * hitRate(name, i),
+                        stats.alternatives().get(i), hits == 0 ? "  <- never matched" : "");
+            }
+        });
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.log;
+
+import com.example.capture.FailureCapture;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Arrays;
+
+/**
+ * One test's progress log: numbered steps and notes, kept in the test's own buffer and handed
+ * to a background writer as one block when the test ends. Tests running in parallel no longer
+ * interleave line by line or queue on {@code System.out} while they run.
+ *
+ * An entry is a timestamp, a level and the message reference, stored in arrays that only grow,
+ * so logging allocates nothing beyond the message itself. A test keeps at most
+ * {@code -Dsteplog.maxEntries} (default 1000) entries and {@code -Dsteplog.maxChars} (default
+ * 65536) characters; anything past either is counted, not kept, so runaway output costs a
+ * counter. Entries logged after {@link #finish} are ignored.
+ *
+ * With a driver, every {@link #step} is also a {@link FailureCapture} step marker, so a failed
+ * test's artifacts line up with its log. Output goes to the console and to a JSON Lines file
+ * (see {@link StepLogWriter}).
+ */
+public final class StepLog {
+
+    public enum Level { STEP, INFO, WARN }
+
+    static final int MAX_ENTRIES = Integer.getInteger("steplog.maxEntries", 1000);
+    static final int MAX_CHARS = Integer.getInteger("steplog.maxChars", 65536);
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final String test;
+    private final WebDriver driver;
+    private final StepLogWriter writer;
+    private final long started = System.nanoTime();
+
+    private long[] nanos = new long[16];
+    private byte[] levels = new byte[16];
+    private String[] messages = new String[16];
+    private int size;
+    private int chars;
+    private int steps;
+    private int dropped;
+    private boolean finished;
+
+    public StepLog(String test) {
+        this(test, null);
+    }
+
+    /** A log whose steps are also marked on {@code driver}; {@code driver} may be null. */
+    public StepLog(String test, WebDriver driver) {
+        this(test, driver, StepLogWriter.shared());
+    }
+
+    StepLog(String test, WebDriver driver, StepLogWriter writer) {
+        this.test = test;
+        this.driver = driver;
+        this.writer = writer;
+    }
+
+    /** Starts the next numbered step. */
+    public void step(String title) {
+        int number;
+        synchronized (this) {
+            if (!add(Level.STEP, title)) {
+                return;
+            }
+            number = ++steps;
+        }
+        if (driver != null) {
+            FailureCapture.step(driver, "STEP " + number + ": " + title);
+        }
+    }
+
+    public void info(String message) {
+        synchronized (this) {
+            add(Level.INFO, message);
+        }
+    }
+
+    public void warn(String message) {
+        synchronized (this) {
+            add(Level.WARN, message);
+        }
+    }
+
+    private boolean add(Level level, String message) {
+        if (finished) {
+            return false;
+        }
+        String text = String.valueOf(message);
+        if (size == MAX_ENTRIES || chars + text.length() > MAX_CHARS) {
+            dropped++;
+            return false;
+        }
+        if (size == messages.length) {
+            int capacity = Math.min(size * 2, MAX_ENTRIES);
+            nanos = Arrays.copyOf(nanos, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            messages = Arrays.copyOf(messages, capacity);
+        }
+        nanos[size] = System.nanoTime() - started;
+        levels[size] = (byte) level.ordinal();
+        messages[size] = text;
+        size++;
+        chars += text.length();
+        return true;
+    }
+
+    /**
+     * Ends the log with the test's outcome ({@code null} if it passed) and queues it for output.
+     * Only the first call counts.
+     */
+    public void finish(Throwable failure) {
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+        }
+        writer.submit(this, failure, System.nanoTime() - started);
+    }
+
+    public String test() {
+        return test;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Entries not kept because the log was over its caps. */
+    public synchronized int dropped() {
+        return dropped;
+    }
+
+    synchronized Level level(int index) {
+        return LEVELS[levels[index]];
+    }
+
+    synchronized String message(int index) {
+        return messages[index];
+    }
+
+    synchronized long nanos(int index) {
+        return nanos[index];
+    }
+}
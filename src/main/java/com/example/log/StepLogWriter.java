@@ -0,0 +1,177 @@
+package com.example.log;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes finished {@link StepLog}s on a background thread: each as one block on the console, and
+ * each entry as one line appended to {@code -Dsteplog.file} (default
+ * {@code target/step-log.jsonl}, {@code off} for none), closed by a line with the test's outcome.
+ * A test's lines go to the file in a single write, so JVMs appending side by side (shards, forks)
+ * do not split each other's logs. {@code -Dsteplog.console} is
+ * {@code all} (default), {@code failed} for only the logs of failed tests, or {@code off}.
+ * Logs still queued are written at JVM exit.
+ */
+final class StepLogWriter {
+
+    enum Console { ALL, FAILED, OFF }
+
+    private static final Json JSON = new Json();
+
+    private static final class Shared {
+        static final StepLogWriter INSTANCE = new StepLogWriter(
+                Console.valueOf(System.getProperty("steplog.console", "all").trim().toUpperCase(Locale.ROOT)),
+                file(), System.out);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::close, "step-log-flush"));
+        }
+    }
+
+    private final Console console;
+    private final Path file;
+    private final PrintStream out;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "step-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private OutputStream lines;
+
+    StepLogWriter(Console console, Path file, PrintStream out) {
+        this.console = console;
+        this.file = file;
+        this.out = out;
+    }
+
+    static StepLogWriter shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static Path file() {
+        String configured = System.getProperty("steplog.file", "target/step-log.jsonl").trim();
+        return "off".equalsIgnoreCase(configured) ? null : Paths.get(configured);
+    }
+
+    void submit(StepLog log, Throwable failure, long nanos) {
+        executor.execute(() -> write(log, failure, nanos));
+    }
+
+    private void write(StepLog log, Throwable failure, long nanos) {
+        if (console == Console.ALL || (console == Console.FAILED && failure != null)) {
+            out.print(render(log, failure, nanos));
+            out.flush();
+        }
+        if (file == null) {
+            return;
+        }
+        try {
+            if (lines == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                lines = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            StringBuilder chunk = new StringBuilder();
+            for (String line : jsonLines(log, failure, nanos)) {
+                chunk.append(line).append('\n');
+            }
+            lines.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Could not write step log to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** The console block for {@code log}: a header with the outcome, then one line per entry. */
+    static String render(StepLog log, Throwable failure, long nanos) {
+        StringBuilder block = new StringBuilder(64 + log.size() * 64);
+        block.append("---- ").append(log.test()).append(failure == null ? ": passed" : ": failed")
+                .append(String.format(Locale.ROOT, " in %.1f s", nanos / 1e9));
+        if (failure != null) {
+            block.append(": ").append(failure);
+        }
+        block.append(" ----\n");
+        int step = 0;
+        for (int i = 0; i < log.size(); i++) {
+            block.append(String.format(Locale.ROOT, "%8.3f s  ", log.nanos(i) / 1e9));
+            switch (log.level(i)) {
+                case STEP -> block.append(String.format(Locale.ROOT, "STEP %-3d", ++step));
+                case WARN -> block.append("WARN    ");
+                default -> block.append("        ");
+            }
+            block.append(log.message(i)).append('\n');
+        }
+        if (log.dropped() > 0) {
+            block.append("  (").append(log.dropped()).append(" more entries over the log's cap)\n");
+        }
+        return block.toString();
+    }
+
+    /** One JSON object per entry, and a last one with the outcome. */
+    static List<String> jsonLines(StepLog log, Throwable failure, long nanos) {
+        List<String> result = new ArrayList<>(log.size() + 1);
+        int step = 0;
+        for (int i = 0; i < log.size(); i++) {
+            if (log.level(i) == StepLog.Level.STEP) {
+                step++;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("test", log.test());
+            entry.put("seq", i);
+            entry.put("atMs", log.nanos(i) / 1_000_000);
+            entry.put("level", log.level(i).name());
+            entry.put("step", step);
+            entry.put("message", log.message(i));
+            result.add(line(entry));
+        }
+        Map<String, Object> end = new LinkedHashMap<>();
+        end.put("test", log.test());
+        end.put("outcome", failure == null ? "passed" : "failed");
+        if (failure != null) {
+            end.put("failure", String.valueOf(failure));
+        }
+        end.put("durationMs", nanos / 1_000_000);
+        end.put("entries", log.size());
+        end.put("dropped", log.dropped());
+        result.add(line(end));
+        return result;
+    }
+
+    private static String line(Map<String, Object> json) {
+        StringBuilder line = new StringBuilder();
+        JsonOutput output = JSON.newOutput(line);
+        output.setPrettyPrint(false).write(json);
+        return line.toString();
+    }
+
+    void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (lines != null) {
+            try {
+                lines.close();
+            } catch (IOException e) {
+                // Every log was written whole already
+            }
+        }
+    }
+}
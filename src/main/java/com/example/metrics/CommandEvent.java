@@ -0,0 +1,33 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One WebDriver or WebElement call, visible in JDK Flight Recorder recordings
+ * ({@code -XX:StartFlightRecording}) next to GC, I/O and thread events.
+ */
+@Name("com.example.WebDriverCommand")
+@Label("WebDriver Command")
+@Category({"Selenium", "WebDriver"})
+@Description("A WebDriver or WebElement call and how long it blocked the test thread")
+@StackTrace(false)
+final class CommandEvent extends Event {
+
+    @Label("Command")
+    String command;
+
+    @Label("Detail")
+    @Description("Locator, URL or script prefix of the call")
+    String detail;
+
+    @Label("Test")
+    String test;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,233 @@
+package com.example.metrics;
+
+import com.example.browser.Cdp;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call made through an {@link #instrument instrumented} driver and the elements,
+ * navigation, options and window objects it hands out. Each call is
+ *
+ * <ul>
+ *   <li>emitted as a {@code com.example.WebDriverCommand} JFR event, and</li>
+ *   <li>recorded in a {@link LatencyHistogram} per command type, overall and per test.</li>
+ * </ul>
+ *
+ * Commands are named after the declaring interface, e.g. {@code WebDriver.get},
+ * {@code WebElement.click} or {@code Timeouts.implicitlyWait}. At JVM exit the histograms are
+ * written to {@code -Dmetrics.report.file} (default {@code target/command-latency.json}) and the
+ * commands that took the most time in total are printed. A session can be given metrics of its
+ * own with {@link #use}, which keeps unit tests on fake sessions out of that report.
+ *
+ * The listener also tracks each session's implicit wait and reports lookups made under one to
+ * {@link WaitStats}.
+ */
+public final class CommandMetrics {
+
+    /** Label for calls made while no test owns the session, e.g. pool health checks and resets. */
+    public static final String NO_TEST = "(between tests)";
+
+    private static final Map<WebDriver, Listener> LISTENERS = new WeakHashMap<>();
+
+    private final Map<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LatencyHistogram>> tests = new ConcurrentHashMap<>();
+
+    private static final class Shared {
+        static final CommandMetrics INSTANCE = new CommandMetrics();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::report, "command-metrics"));
+        }
+    }
+
+    /** Metrics that are never reported; give them to a session with {@link #use}. */
+    public CommandMetrics() {
+    }
+
+    /**
+     * Wraps {@code driver} so every call on it, and on objects it returns, is timed. Other
+     * listeners for the session go in the same decoration: a decorated driver decorated again no
+     * longer unwraps to its session.
+     */
+    public static WebDriver instrument(WebDriver driver, WebDriverListener... others) {
+        Listener listener = new Listener();
+        WebDriverListener[] listeners = new WebDriverListener[others.length + 1];
+        listeners[0] = listener;
+        System.arraycopy(others, 0, listeners, 1, others.length);
+        WebDriver decorated = new EventFiringDecorator<>(listeners).decorate(driver);
+        WebDriver session = Cdp.unwrap(decorated);
+        listener.session = new WeakReference<>(session);
+        synchronized (LISTENERS) {
+            LISTENERS.put(session, listener);
+        }
+        return decorated;
+    }
+
+    /** Records further calls on the instrumented session {@code driver} in {@code metrics} instead of the shared report. */
+    public static void use(WebDriver driver, CommandMetrics metrics) {
+        listener(driver).ifPresent(listener -> listener.metrics = metrics);
+    }
+
+    /** Attributes further calls on this session to {@code test}, or to {@link #NO_TEST} if null. */
+    public static void attribute(WebDriver driver, String test) {
+        listener(driver).ifPresent(listener -> listener.test = test == null ? NO_TEST : test);
+    }
+
+    /** The test the session is currently attributed to; {@link #NO_TEST} if none or not instrumented. */
+    public static String testOf(WebDriver driver) {
+        return listener(driver).map(listener -> listener.test).orElse(NO_TEST);
+    }
+
+    private static Optional<Listener> listener(WebDriver driver) {
+        synchronized (LISTENERS) {
+            return Optional.ofNullable(LISTENERS.get(Cdp.unwrap(driver)));
+        }
+    }
+
+    /** Histogram of one command type across all tests; empty if it never ran. */
+    public LatencyHistogram histogram(String command) {
+        return commands.getOrDefault(command, new LatencyHistogram());
+    }
+
+    void record(String test, String command, long nanos) {
+        commands.computeIfAbsent(command, c -> new LatencyHistogram()).record(nanos);
+        tests.computeIfAbsent(test, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(command, c -> new LatencyHistogram()).record(nanos);
+    }
+
+    /** All histograms in report form: per command overall, then per test. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> byCommand = new TreeMap<>();
+        commands.forEach((command, histogram) -> byCommand.put(command, histogram.summary()));
+        Map<String, Object> byTest = new TreeMap<>();
+        tests.forEach((test, perCommand) -> {
+            Map<String, Object> summaries = new TreeMap<>();
+            perCommand.forEach((command, histogram) -> summaries.put(command, histogram.summary()));
+            byTest.put(test, summaries);
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("commands", byCommand);
+        report.put("tests", byTest);
+        return report;
+    }
+
+    private void report() {
+        if (commands.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(System.getProperty("metrics.report.file", "target/command-latency.json"));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, new Json().toJson(snapshot()));
+        } catch (IOException e) {
+            System.err.println("Could not write command latencies to " + file + ": " + e.getMessage());
+        }
+        System.out.println("WebDriver time by command (" + file + "):");
+        System.out.printf("  %-36s %7s %10s %9s %9s %9s%n", "command", "count", "total ms", "p50 ms", "p95 ms", "p99 ms");
+        commands.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> e) -> e.getValue().totalMicros()).reversed())
+                .limit(15)
+                .forEach(e -> {
+                    LatencyHistogram h = e.getValue();
+                    System.out.printf("  %-36s %7d %10.1f %9.1f %9.1f %9.1f%n", e.getKey(), h.count(),
+                            h.totalMicros() / 1000.0, h.percentileMicros(0.50) / 1000.0,
+                            h.percentileMicros(0.95) / 1000.0, h.percentileMicros(0.99) / 1000.0);
+                });
+    }
+
+    /** One per session; the decorator calls it on the thread that issues the command. */
+    private static final class Listener implements WebDriverListener {
+
+        private final ThreadLocal<Deque<Call>> calls = ThreadLocal.withInitial(ArrayDeque::new);
+        private volatile CommandMetrics metrics = Shared.INSTANCE;
+        private volatile WeakReference<WebDriver> session = new WeakReference<>(null);
+        private volatile String test = NO_TEST;
+        private volatile Duration implicitWait = Duration.ZERO;
+
+        private record Call(String command, long started, CommandEvent event) {
+        }
+
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            String command = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            CommandEvent event = new CommandEvent();
+            if (event.isEnabled()) {
+                event.command = command;
+                event.detail = detail(args);
+                event.test = test;
+                event.begin();
+            }
+            calls.get().push(new Call(command, System.nanoTime(), event));
+        }
+
+        @Override
+        public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+            if (method.getName().equals("implicitlyWait") && args.length == 1 && args[0] instanceof Duration timeout) {
+                implicitWait = timeout;
+            }
+            long nanos = finish(false);
+            if (nanos >= 0 && method.getName().startsWith("findElement")) {
+                boolean found = !(result instanceof Collection<?> elements) || !elements.isEmpty();
+                WaitStats.lookup(session.get(), test, implicitWait, nanos, found);
+            }
+        }
+
+        @Override
+        public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+            long nanos = finish(true);
+            if (nanos >= 0 && e.getTargetException() instanceof NoSuchElementException) {
+                WaitStats.lookup(session.get(), test, implicitWait, nanos, false);
+            }
+        }
+
+        /** Records the innermost open call; returns its duration, or -1 if there was none. */
+        private long finish(boolean failed) {
+            Call call = calls.get().poll();
+            if (call == null) {
+                return -1;
+            }
+            long nanos = System.nanoTime() - call.started();
+            metrics.record(test, call.command(), nanos);
+            if (call.event().isEnabled()) {
+                call.event().failed = failed;
+                call.event().commit();
+            }
+            return nanos;
+        }
+
+        private static String detail(Object[] args) {
+            if (args == null || args.length == 0) {
+                return null;
+            }
+            Object first = args[0];
+            if (first instanceof By || first instanceof CharSequence) {
+                String text = first.toString();
+                return text.length() > 120 ? text.substring(0, 120) + "..." : text;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets: 32 buckets per power of two of
+ * microseconds, so any reported percentile is within about 3% of the true value while memory
+ * stays fixed however many samples are recorded.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (micros >> shift);
+    }
+
+    /** Upper bound of the bucket, in microseconds. */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS * 2) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long base = index - shift * SUB_BUCKETS;
+        return ((base + 1) << shift) - 1;
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long totalMicros() {
+        return totalMicros.get();
+    }
+
+    public long maxMicros() {
+        return maxMicros.get();
+    }
+
+    /** Latency in microseconds that {@code quantile} (0..1) of the samples did not exceed. */
+    public long percentileMicros(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    /** Count, total and p50/p95/p99/max in milliseconds, for reports. */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count());
+        summary.put("totalMs", millis(totalMicros()));
+        summary.put("p50Ms", millis(percentileMicros(0.50)));
+        summary.put("p95Ms", millis(percentileMicros(0.95)));
+        summary.put("p99Ms", millis(percentileMicros(0.99)));
+        summary.put("maxMs", millis(maxMicros()));
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.metrics;
+
+import com.example.browser.Cdp;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Watches how much memory each browser session holds and retires sessions that have grown too
+ * big to keep reusing, before a few of them push the host into swap.
+ *
+ * The {@link #listener} samples a session after every navigation, and otherwise at most every
+ * {@code -Dbrowser.memory.sampleMillis} (default 2000) after a command. A sample is the
+ * renderer's JS heap, DOM nodes, documents and event listeners from CDP
+ * {@code Performance.getMetrics}, plus the resident set of the browser process and its children
+ * (Linux only; shared pages count once per process, so it errs high). Each sample is labelled
+ * with the command before it, and the samples form a timeline per test. At JVM exit the
+ * timelines are written to {@code -Dbrowser.memory.file} (default
+ * {@code target/memory-timeline.json}), so growth can be traced to the step that caused it.
+ *
+ * A session that crosses a limit fails {@link #overLimit}, whether it crossed during a test or
+ * still holds too much once reset. A {@code BrowserPool} given
+ * {@code retireWhen(MemoryGovernor::overLimit)} then quits it instead of parking it, and the
+ * next lease launches a fresh browser; the retirement is listed in the report under the test
+ * the session last served. Limits come from {@code -Dbrowser.memory.maxHeapMb}
+ * (1024), {@code maxNodes} (300000), {@code maxDocuments} (100), {@code maxListeners} (200000)
+ * and {@code maxRssMb} (3072). {@code -Dbrowser.memory=off} turns the governor off.
+ */
+public final class MemoryGovernor {
+
+    private static final boolean ENABLED = !"off".equalsIgnoreCase(System.getProperty("browser.memory", "on").trim());
+    private static final long SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("browser.memory.sampleMillis", 2000));
+    private static final int MAX_SAMPLES_PER_TEST = 10_000;
+    private static final long MB = 1024 * 1024;
+
+    static final Limits LIMITS = Limits.fromSystemProperties();
+
+    private static final Map<WebDriver, Session> SESSIONS = new WeakHashMap<>();
+    private static final Map<String, List<Sample>> TIMELINES = new ConcurrentHashMap<>();
+    private static final List<Map<String, Object>> RETIRED = Collections.synchronizedList(new ArrayList<>());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(MemoryGovernor::report, "memory-governor"));
+    }
+
+    private MemoryGovernor() {
+    }
+
+    /** One reading; counts are -1 where the session could not say. */
+    public record Sample(long epochMillis, String step, long heapBytes, long nodes, long documents,
+                         long listeners, long rssBytes) {
+
+        /** Reads the counters out of a {@code Performance.getMetrics} response. */
+        static Sample of(String step, Map<String, Object> metrics, long rssBytes) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            if (metrics.get("metrics") instanceof List<?> list) {
+                for (Object metric : list) {
+                    if (metric instanceof Map<?, ?> entry && entry.get("value") instanceof Number value) {
+                        values.put(String.valueOf(entry.get("name")), value.longValue());
+                    }
+                }
+            }
+            return new Sample(System.currentTimeMillis(), step, values.getOrDefault("JSHeapUsedSize", -1L),
+                    values.getOrDefault("Nodes", -1L), values.getOrDefault("Documents", -1L),
+                    values.getOrDefault("JSEventListeners", -1L), rssBytes);
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("epochMillis", epochMillis);
+            json.put("step", step);
+            json.put("heapMb", megabytes(heapBytes));
+            json.put("nodes", nodes);
+            json.put("documents", documents);
+            json.put("listeners", listeners);
+            json.put("rssMb", megabytes(rssBytes));
+            return json;
+        }
+    }
+
+    /** Thresholds a session may not cross; 0 or less disables one. */
+    public record Limits(long heapBytes, long nodes, long documents, long listeners, long rssBytes) {
+
+        static Limits fromSystemProperties() {
+            return new Limits(Long.getLong("browser.memory.maxHeapMb", 1024) * MB,
+                    Long.getLong("browser.memory.maxNodes", 300_000),
+                    Long.getLong("browser.memory.maxDocuments", 100),
+                    Long.getLong("browser.memory.maxListeners", 200_000),
+                    Long.getLong("browser.memory.maxRssMb", 3072) * MB);
+        }
+
+        /** The limits {@code sample} crosses, e.g. {@code "heap 1210 MB > 1024 MB"}; empty if none. */
+        public List<String> exceeded(Sample sample) {
+            List<String> exceeded = new ArrayList<>();
+            check(exceeded, "heap", sample.heapBytes(), heapBytes, true);
+            check(exceeded, "nodes", sample.nodes(), nodes, false);
+            check(exceeded, "documents", sample.documents(), documents, false);
+            check(exceeded, "listeners", sample.listeners(), listeners, false);
+            check(exceeded, "rss", sample.rssBytes(), rssBytes, true);
+            return exceeded;
+        }
+
+        private static void check(List<String> exceeded, String name, long value, long limit, boolean bytes) {
+            if (limit > 0 && value > limit) {
+                exceeded.add(bytes ? name + " " + megabytes(value) + " MB > " + megabytes(limit) + " MB"
+                        : name + " " + value + " > " + limit);
+            }
+        }
+    }
+
+    /** What is known about one live session. */
+    private static final class Session {
+        final DevTools devTools;
+        final Optional<ProcessHandle> browser;
+        volatile boolean performanceEnabled;
+        volatile long lastSampleNanos;
+        volatile String lastTest = CommandMetrics.NO_TEST;
+        volatile List<String> exceeded = List.of();
+
+        Session(DevTools devTools, Optional<ProcessHandle> browser) {
+            this.devTools = devTools;
+            this.browser = browser;
+        }
+    }
+
+    /** Samples {@code driver} as commands go through the decorator; pass to {@code CommandMetrics.instrument}. */
+    public static WebDriverListener listener(WebDriver driver) {
+        return new WebDriverListener() {
+            @Override
+            public void afterGet(WebDriver target, String url) {
+                sample(driver, "get " + url, true);
+            }
+
+            @Override
+            public void afterTo(WebDriver.Navigation navigation, String url) {
+                sample(driver, "navigate " + url, true);
+            }
+
+            @Override
+            public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+                sample(driver, method.getDeclaringClass().getSimpleName() + "." + method.getName(), false);
+            }
+        };
+    }
+
+    /**
+     * Whether {@code driver} crossed a limit in any sample so far, or in a fresh one taken now;
+     * the fresh sample closes the timeline of the session's last test as its {@code reset} step.
+     */
+    public static boolean overLimit(WebDriver driver) {
+        Session session = session(driver);
+        if (session == null) {
+            return false;
+        }
+        sample(driver, "reset", true);
+        List<String> exceeded = session.exceeded;
+        if (exceeded.isEmpty()) {
+            return false;
+        }
+        Map<String, Object> retirement = new LinkedHashMap<>();
+        retirement.put("after", session.lastTest);
+        retirement.put("exceeded", exceeded);
+        RETIRED.add(retirement);
+        return true;
+    }
+
+    /** The samples taken so far while {@code test} held a session. */
+    public static List<Sample> timeline(String test) {
+        List<Sample> samples = TIMELINES.getOrDefault(test, List.of());
+        synchronized (samples) {
+            return List.copyOf(samples);
+        }
+    }
+
+    private static Session session(WebDriver driver) {
+        if (!ENABLED) {
+            return null;
+        }
+        WebDriver key = Cdp.unwrap(driver);
+        synchronized (SESSIONS) {
+            Session session = SESSIONS.get(key);
+            if (session == null && !SESSIONS.containsKey(key)) {
+                Optional<DevTools> devTools = Optional.empty();
+                try {
+                    devTools = Cdp.devTools(driver);
+                } catch (WebDriverException e) {
+                    // No DevTools endpoint; nothing to sample
+                }
+                session = devTools.map(tools -> new Session(tools, browserProcess(key))).orElse(null);
+                SESSIONS.put(key, session);
+            }
+            return session;
+        }
+    }
+
+    private static void sample(WebDriver driver, String step, boolean force) {
+        Session session = session(driver);
+        if (session == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (!force && now - session.lastSampleNanos < SAMPLE_NANOS) {
+            return;
+        }
+        session.lastSampleNanos = now;
+        Sample sample;
+        try {
+            if (!session.performanceEnabled) {
+                session.devTools.send(Cdp.command("Performance.enable", Map.of()));
+                session.performanceEnabled = true;
+            }
+            sample = Sample.of(step, session.devTools.send(Cdp.command("Performance.getMetrics", Map.of())),
+                    session.browser.map(MemoryGovernor::rss).orElse(-1L));
+        } catch (WebDriverException e) {
+            // Mid-navigation or quitting; the next command samples again
+            return;
+        }
+        String test = CommandMetrics.testOf(driver);
+        if (!CommandMetrics.NO_TEST.equals(test)) {
+            session.lastTest = test;
+        }
+        List<Sample> timeline = TIMELINES.computeIfAbsent(session.lastTest, t -> new ArrayList<>());
+        synchronized (timeline) {
+            if (timeline.size() < MAX_SAMPLES_PER_TEST) {
+                timeline.add(sample);
+            }
+        }
+        List<String> exceeded = LIMITS.exceeded(sample);
+        if (!exceeded.isEmpty() && session.exceeded.isEmpty()) {
+            session.exceeded = exceeded;
+        }
+    }
+
+    /**
+     * The browser's main process: chromedriver reports each session's profile directory, and
+     * only that browser's processes run with it.
+     */
+    private static Optional<ProcessHandle> browserProcess(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities capabilities)
+                || !(capabilities.getCapabilities().getCapability("chrome") instanceof Map<?, ?> chrome)
+                || !(chrome.get("userDataDir") instanceof String dir) || dir.isEmpty()) {
+            return Optional.empty();
+        }
+        String flag = "--user-data-dir=" + dir;
+        List<ProcessHandle> matching = ProcessHandle.allProcesses()
+                .filter(process -> process.info().commandLine().map(line -> line.contains(flag)).orElse(false))
+                .toList();
+        return matching.stream()
+                .filter(process -> process.parent().map(parent -> !matching.contains(parent)).orElse(true))
+                .findFirst();
+    }
+
+    /** Resident set of {@code browser} and its descendants from {@code /proc}; -1 where unavailable. */
+    static long rss(ProcessHandle browser) {
+        if (!browser.isAlive()) {
+            return -1;
+        }
+        long total = 0;
+        for (ProcessHandle process : Stream.concat(Stream.of(browser), browser.descendants()).toList()) {
+            long kilobytes = residentKilobytes(process.pid());
+            if (kilobytes < 0 && process == browser) {
+                return -1;
+            }
+            total += Math.max(kilobytes, 0) * 1024;
+        }
+        return total;
+    }
+
+    private static long residentKilobytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux, or the process just exited
+        }
+        return -1;
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes < 0 ? -1 : Math.round((double) bytes / MB);
+    }
+
+    /** Timelines per test, peaks per test and the sessions retired, in report form. */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> tests = new TreeMap<>();
+        TIMELINES.forEach((test, samples) -> {
+            synchronized (samples) {
+                tests.put(test, samples.stream().map(Sample::toJson).toList());
+            }
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("limits", Map.of("heapMb", megabytes(LIMITS.heapBytes()), "nodes", LIMITS.nodes(),
+                "documents", LIMITS.documents(), "listeners", LIMITS.listeners(), "rssMb", megabytes(LIMITS.rssBytes())));
+        synchronized (RETIRED) {
+            report.put("retired", List.copyOf(RETIRED));
+        }
+        report.put("tests", tests);
+        return report;
+    }
+
+    static void report() {
+        if (TIMELINES.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(System.getProperty("browser.memory.file", "target/memory-timeline.json"));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, new Json().toJson(snapshot()));
+        } catch (IOException e) {
+            System.err.println("Could not write memory timeline to " + file + ": " + e.getMessage());
+        }
+        System.out.println("Browser memory by test, peak (" + file + "):");
+        new TreeMap<>(TIMELINES).forEach((test, samples) -> {
+            List<Sample> copy;
+            synchronized (samples) {
+                copy = List.copyOf(samples);
+            }
+            System.out.printf("  %-50s heap %5d MB, %7d nodes, %4d documents, %7d listeners, rss %5d MB over %d samples%n",
+                    test, megabytes(peak(copy, Sample::heapBytes)), peak(copy, Sample::nodes),
+                    peak(copy, Sample::documents), peak(copy, Sample::listeners),
+                    megabytes(peak(copy, Sample::rssBytes)), copy.size());
+        });
+        synchronized (RETIRED) {
+            RETIRED.forEach(retirement -> System.out.println("  retired after " + retirement.get("after")
+                    + ": " + retirement.get("exceeded")));
+        }
+    }
+
+    private static long peak(List<Sample> samples, ToLongFunction<Sample> counter) {
+        return samples.stream().mapToLong(counter).max().orElse(-1);
+    }
+}
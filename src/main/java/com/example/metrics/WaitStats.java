@@ -0,0 +1,330 @@
+package com.example.metrics;
+
+import com.example.browser.Cdp;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wait-efficiency analyser. Every wait a test blocks on is recorded with how long it blocked,
+ * when its condition turned out to be true and how much of the blocked time was idle:
+ *
+ * <ul>
+ *   <li>{@link Kind#SETTLE} - {@code Readiness.settle}, the capped replacement for fixed sleeps;</li>
+ *   <li>{@link Kind#EXPLICIT} - a {@code MeasuredWait}, i.e. {@code wait.until(...)};</li>
+ *   <li>{@link Kind#IMPLICIT} - a lookup on a session with a non-zero implicit wait, seen by
+ *       {@link CommandMetrics};</li>
+ *   <li>{@link Kind#PAGE} - a page's readiness contract after navigation ({@code PageContracts}).</li>
+ * </ul>
+ *
+ * A satisfied wait wastes the poll interval it slept after the last failed check; a wait that
+ * times out wastes everything it blocked. Lookups that run inside an explicit wait while an
+ * implicit wait is set are counted as <em>stacked</em>: each failed one blocks for the whole
+ * implicit timeout before the explicit wait can poll again.
+ *
+ * Waits are grouped by call site (the first test or application frame on the stack). At JVM exit
+ * the report goes to {@code -Dwait.report.file} (default {@code target/wait-analysis.json}): tests
+ * ranked by wasted seconds, and per site the distribution of time-to-true with a suggested
+ * timeout of 1.5 &times; its p99, rounded up to half a second, once {@value #MIN_SAMPLES}
+ * satisfied waits have been seen. A session can be given stats of its own with {@link #use}, which
+ * keeps unit tests on fake sessions out of that report.
+ */
+public final class WaitStats {
+
+    public enum Kind { SETTLE, EXPLICIT, IMPLICIT, PAGE }
+
+    static final int MIN_SAMPLES = 5;
+
+    /** Frames that only relay a wait; the site is the first {@code com.example} frame not in here. */
+    private static final Set<String> PLUMBING = Set.of(
+            "com.example.wait.MeasuredWait", "com.example.wait.PushWait", "com.example.wait.Readiness",
+            "com.example.wait.PageContracts", "com.example.wait.WaitHistory",
+            "com.example.metrics.WaitStats", "com.example.metrics.CommandMetrics",
+            "com.example.locate.LocatorGroup", "com.example.tabs.TabGroup",
+            "com.example.snapshot.SnapshotDriver", "com.example.snapshot.SnapshotElement");
+
+    private static final Map<WebDriver, WaitStats> SESSIONS = new WeakHashMap<>();
+    private static final ThreadLocal<Deque<Span>> OPEN = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Map<String, SiteStats> sites = new ConcurrentHashMap<>();
+    private final Map<String, TestStats> tests = new ConcurrentHashMap<>();
+
+    private static final class Shared {
+        static final WaitStats INSTANCE = new WaitStats();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::report, "wait-stats"));
+        }
+    }
+
+    /** Stats that are never reported; give them to a session with {@link #use}. */
+    public WaitStats() {
+    }
+
+    /** Records the waits on {@code driver} in {@code stats} instead of the shared report. */
+    public static void use(WebDriver driver, WaitStats stats) {
+        synchronized (SESSIONS) {
+            SESSIONS.put(Cdp.unwrap(driver), stats);
+        }
+    }
+
+    /** The stats for waits on {@code driver}: its own if it was given some, else the shared ones. */
+    static WaitStats of(WebDriver driver) {
+        WaitStats own;
+        synchronized (SESSIONS) {
+            own = driver == null ? null : SESSIONS.get(Cdp.unwrap(driver));
+        }
+        return own != null ? own : Shared.INSTANCE;
+    }
+
+    /** One finished wait. {@code timeToTrue} is negative if the condition never became true. */
+    record Observation(String test, Kind kind, String site, Duration timeout, long blockedNanos,
+                       long timeToTrueNanos, long wastedNanos, long stackedLookups, long stackedNanos) {
+    }
+
+    private record SiteStats(Kind kind, String site, AtomicLong timeoutMillis, AtomicLong count,
+                             AtomicLong timedOut, AtomicLong blockedNanos, AtomicLong wastedNanos,
+                             AtomicLong stackedLookups, AtomicLong stackedNanos, LatencyHistogram timeToTrue) {
+
+        SiteStats(Kind kind, String site) {
+            this(kind, site, new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong(),
+                    new AtomicLong(), new AtomicLong(), new AtomicLong(), new LatencyHistogram());
+        }
+    }
+
+    private record TestStats(AtomicLong waits, AtomicLong timedOut, AtomicLong blockedNanos,
+                             AtomicLong wastedNanos, AtomicLong stackedLookups) {
+
+        TestStats() {
+            this(new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong());
+        }
+    }
+
+    /**
+     * Opens a wait on the calling thread. Report each check of the condition with
+     * {@link Span#checked} and close it with {@link Span#end} in a {@code finally} block.
+     */
+    public static Span begin(WebDriver driver, Kind kind, Duration timeout) {
+        Span span = new Span(of(driver), CommandMetrics.testOf(driver), kind, callSite(), timeout);
+        OPEN.get().push(span);
+        return span;
+    }
+
+    /** A wait in progress; not thread-safe, it belongs to the thread that opened it. */
+    public static final class Span {
+
+        private final WaitStats stats;
+        private final String test;
+        private final Kind kind;
+        private final String site;
+        private final Duration timeout;
+        private final long started = System.nanoTime();
+        private long lastMissEnded;
+        private long hitStarted;
+        private long stackedLookups;
+        private long stackedNanos;
+
+        private Span(WaitStats stats, String test, Kind kind, String site, Duration timeout) {
+            this.stats = stats;
+            this.test = test;
+            this.kind = kind;
+            this.site = site;
+            this.timeout = timeout;
+        }
+
+        /** One evaluation of the condition that started at {@code startedNanos}. */
+        public void checked(long startedNanos, boolean satisfied) {
+            if (satisfied) {
+                hitStarted = startedNanos;
+            } else {
+                lastMissEnded = System.nanoTime();
+            }
+        }
+
+        /** Records the wait; returns how long the condition took to hold, or -1 if it never did. */
+        public long end(boolean satisfied) {
+            Deque<Span> open = OPEN.get();
+            open.remove(this);
+            if (open.isEmpty()) {
+                OPEN.remove();
+            }
+            long blocked = System.nanoTime() - started;
+            long timeToTrue = satisfied ? hitStarted - started : -1;
+            long wasted = !satisfied ? blocked : lastMissEnded == 0 ? 0 : Math.max(0, hitStarted - lastMissEnded);
+            stats.record(new Observation(test, kind, site, timeout, blocked, timeToTrue, wasted,
+                    stackedLookups, stackedNanos));
+            return timeToTrue;
+        }
+    }
+
+    /**
+     * A {@code findElement(s)} on {@code driver}, a session whose implicit wait is {@code implicitWait}. Inside an
+     * open explicit wait it counts towards that wait as a stacked lookup; otherwise it is a wait of
+     * its own, wasted in full when nothing was found.
+     */
+    static void lookup(WebDriver driver, String test, Duration implicitWait, long nanos, boolean found) {
+        if (implicitWait.isZero() || implicitWait.isNegative()) {
+            return;
+        }
+        Span outer = OPEN.get().peek();
+        if (outer != null) {
+            outer.stackedLookups++;
+            if (!found) {
+                outer.stackedNanos += nanos;
+            }
+            return;
+        }
+        of(driver).record(new Observation(test, Kind.IMPLICIT, callSite(), implicitWait, nanos,
+                found ? nanos : -1, found ? 0 : nanos, 0, 0));
+    }
+
+    void record(Observation o) {
+        SiteStats site = sites.computeIfAbsent(o.kind() + " " + o.site(), key -> new SiteStats(o.kind(), o.site()));
+        site.timeoutMillis().accumulateAndGet(o.timeout().toMillis(), Math::max);
+        site.count().incrementAndGet();
+        site.blockedNanos().addAndGet(o.blockedNanos());
+        site.wastedNanos().addAndGet(o.wastedNanos());
+        site.stackedLookups().addAndGet(o.stackedLookups());
+        site.stackedNanos().addAndGet(o.stackedNanos());
+        if (o.timeToTrueNanos() < 0) {
+            site.timedOut().incrementAndGet();
+        } else {
+            site.timeToTrue().record(o.timeToTrueNanos());
+        }
+
+        TestStats test = tests.computeIfAbsent(o.test(), t -> new TestStats());
+        test.waits().incrementAndGet();
+        test.blockedNanos().addAndGet(o.blockedNanos());
+        test.wastedNanos().addAndGet(o.wastedNanos());
+        test.stackedLookups().addAndGet(o.stackedLookups());
+        if (o.timeToTrueNanos() < 0) {
+            test.timedOut().incrementAndGet();
+        }
+    }
+
+    /** 1.5 &times; p99 of time-to-true rounded up to 500 ms, or empty below {@value #MIN_SAMPLES} samples. */
+    static Optional<Duration> suggestTimeout(LatencyHistogram timeToTrue) {
+        if (timeToTrue.count() < MIN_SAMPLES) {
+            return Optional.empty();
+        }
+        long millis = (long) Math.ceil(timeToTrue.percentileMicros(0.99) * 1.5 / 1000);
+        return Optional.of(Duration.ofMillis(Math.max(500, (millis + 499) / 500 * 500)));
+    }
+
+    /** Where the code under {@code com.example} that is waiting sits, e.g. {@code GoogleTest.testSearch:42}. */
+    public static String callSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("com.example."))
+                .filter(f -> !PLUMBING.contains(topLevel(f.getClassName())))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + enclosingMethod(f.getMethodName()) + ":" + f.getLineNumber())
+                .orElse("(unknown)"));
+    }
+
+    /** {@code lambda$testSearch$3} was written inside {@code testSearch}. */
+    private static String enclosingMethod(String method) {
+        if (!method.startsWith("lambda$")) {
+            return method;
+        }
+        int end = method.indexOf('$', "lambda$".length());
+        return end < 0 ? method : method.substring("lambda$".length(), end);
+    }
+
+    private static String topLevel(String className) {
+        int nested = className.indexOf('$');
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+
+    /** Tests ranked by wasted time, then sites ranked the same way, in report form. */
+    public Map<String, Object> snapshot() {
+        List<Map<String, Object>> ranked = new ArrayList<>();
+        tests.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, TestStats> e) -> e.getValue().wastedNanos().get()).reversed())
+                .forEach(e -> {
+                    TestStats stats = e.getValue();
+                    Map<String, Object> test = new LinkedHashMap<>();
+                    test.put("test", e.getKey());
+                    test.put("waits", stats.waits().get());
+                    test.put("timedOut", stats.timedOut().get());
+                    test.put("blockedSeconds", seconds(stats.blockedNanos().get()));
+                    test.put("wastedSeconds", seconds(stats.wastedNanos().get()));
+                    test.put("stackedLookups", stats.stackedLookups().get());
+                    ranked.add(test);
+                });
+        List<Map<String, Object>> sites = new ArrayList<>();
+        sortedSites().forEach(stats -> {
+            Map<String, Object> site = new LinkedHashMap<>();
+            site.put("site", stats.site());
+            site.put("kind", stats.kind().name());
+            site.put("timeoutMs", stats.timeoutMillis().get());
+            site.put("count", stats.count().get());
+            site.put("timedOut", stats.timedOut().get());
+            site.put("blockedSeconds", seconds(stats.blockedNanos().get()));
+            site.put("wastedSeconds", seconds(stats.wastedNanos().get()));
+            site.put("stackedLookups", stats.stackedLookups().get());
+            site.put("stackedBlockedSeconds", seconds(stats.stackedNanos().get()));
+            site.put("timeToTrue", stats.timeToTrue().summary());
+            suggestTimeout(stats.timeToTrue()).ifPresent(d -> site.put("suggestedTimeoutMs", d.toMillis()));
+            sites.add(site);
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tests", ranked);
+        report.put("sites", sites);
+        return report;
+    }
+
+    private List<SiteStats> sortedSites() {
+        return sites.values().stream()
+                .sorted(Comparator.comparingLong((SiteStats s) -> s.wastedNanos().get()).reversed())
+                .toList();
+    }
+
+    private static double seconds(long nanos) {
+        return Math.round(nanos / 1e7) / 100.0;
+    }
+
+    private void report() {
+        if (sites.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(System.getProperty("wait.report.file", "target/wait-analysis.json"));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, new Json().toJson(snapshot()));
+        } catch (IOException e) {
+            System.err.println("Could not write wait analysis to " + file + ": " + e.getMessage());
+        }
+        System.out.println("Idle time in waits (" + file + "):");
+        tests.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, TestStats> e) -> e.getValue().wastedNanos().get()).reversed())
+                .forEach(e -> System.out.printf("  %-50s %6.1fs wasted of %6.1fs blocked in %d waits (%d timed out)%n",
+                        e.getKey(), seconds(e.getValue().wastedNanos().get()), seconds(e.getValue().blockedNanos().get()),
+                        e.getValue().waits().get(), e.getValue().timedOut().get()));
+        for (SiteStats stats : sortedSites()) {
+            System.out.printf("  %-8s %-42s %5d waits, %6.1fs wasted, p99 to true %7.1f ms, timeout %d ms%s%s%n",
+                    stats.kind(), stats.site(), stats.count().get(), seconds(stats.wastedNanos().get()),
+                    stats.timeToTrue().percentileMicros(0.99) / 1000.0, stats.timeoutMillis().get(),
+                    suggestTimeout(stats.timeToTrue()).map(d -> " -> suggest " + d.toMillis() + " ms").orElse(""),
+                    stats.stackedLookups().get() > 0
+                            ? "  <- " + stats.stackedLookups().get() + " lookups stacked on an implicit wait" : "");
+        }
+    }
+}
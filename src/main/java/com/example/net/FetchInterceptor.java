@@ -0,0 +1,235 @@
+package com.example.net;
+
+import com.example.browser.Cdp;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Routes every request of a browser session through a chain of {@link RequestHandler}s using
+ * the CDP {@code Fetch} domain. Requests can be let through, answered from memory or failed
+ * without ever touching the network.
+ *
+ * One interceptor exists per session; handlers are added and removed as tests need them, and
+ * interception is switched off entirely while the chain is empty. Only requests matching some
+ * handler's {@link RequestHandler#filters() filters} are paused, so a handler that cares about a
+ * few resource types does not cost every other request a round trip.
+ */
+public class FetchInterceptor {
+
+    private static final Map<WebDriver, FetchInterceptor> ATTACHED = new WeakHashMap<>();
+
+    private final DevTools devTools;
+    private final List<RequestHandler> handlers = new CopyOnWriteArrayList<>();
+    private volatile String mainFrameId;
+    private volatile String documentUrl;
+    private List<Map<String, Object>> activePatterns = List.of();
+    private boolean pausingResponses;
+
+    private FetchInterceptor(DevTools devTools) {
+        this.devTools = devTools;
+        devTools.addListener(Cdp.event("Fetch.requestPaused"), this::onPaused);
+        devTools.addListener(Cdp.event("Page.frameNavigated"), params -> {
+            if (params.get("frame") instanceof Map<?, ?> frame && frame.get("parentId") == null) {
+                mainFrameId = String.valueOf(frame.get("id"));
+                documentUrl = String.valueOf(frame.get("url"));
+            }
+        });
+        devTools.send(Cdp.command("Page.enable", Map.of()));
+    }
+
+    /** Returns the session's interceptor, creating it on first use. */
+    public static FetchInterceptor of(WebDriver driver) {
+        WebDriver target = Cdp.unwrap(driver);
+        synchronized (ATTACHED) {
+            return ATTACHED.computeIfAbsent(target, d -> new FetchInterceptor(Cdp.devTools(d).orElseThrow(
+                    () -> new IllegalStateException("Request interception needs a Chromium browser with DevTools, got "
+                            + d.getClass().getSimpleName()))));
+        }
+    }
+
+    /**
+     * Whether {@code driver}'s session has handlers attached. They see only the requests of the
+     * tab the session's DevTools connection is attached to, not those of tabs opened later.
+     */
+    public static boolean intercepting(WebDriver driver) {
+        synchronized (ATTACHED) {
+            FetchInterceptor interceptor = ATTACHED.get(Cdp.unwrap(driver));
+            return interceptor != null && !interceptor.handlers.isEmpty();
+        }
+    }
+
+    public synchronized void add(RequestHandler handler) {
+        handlers.add(handler);
+        reconfigure();
+    }
+
+    /** Adds a handler ahead of all others, for decisions that must win over any later handler. */
+    public synchronized void addFirst(RequestHandler handler) {
+        handlers.add(0, handler);
+        reconfigure();
+    }
+
+    public synchronized void remove(RequestHandler handler) {
+        handlers.remove(handler);
+        reconfigure();
+    }
+
+    private void reconfigure() {
+        boolean wantsResponses = handlers.stream().anyMatch(RequestHandler::wantsResponses);
+        if (handlers.isEmpty()) {
+            if (!activePatterns.isEmpty()) {
+                devTools.send(Cdp.command("Fetch.disable", Map.of()));
+                activePatterns = List.of();
+            }
+        } else {
+            List<Map<String, Object>> patterns = requestPatterns();
+            if (wantsResponses) {
+                patterns.add(Map.of("urlPattern", "*", "requestStage", "Response"));
+            }
+            if (!patterns.equals(activePatterns)) {
+                devTools.send(Cdp.command("Fetch.enable", Map.of("patterns", patterns)));
+                activePatterns = patterns;
+            }
+        }
+        if (wantsResponses != pausingResponses) {
+            // Anything served from the HTTP cache would never reach a response handler
+            devTools.send(Cdp.command("Network.enable", Map.of()));
+            devTools.send(Cdp.command("Network.setCacheDisabled", Map.of("cacheDisabled", wantsResponses)));
+            pausingResponses = wantsResponses;
+        }
+    }
+
+    private List<Map<String, Object>> requestPatterns() {
+        List<RequestHandler.Filter> filters = handlers.stream()
+                .flatMap(handler -> handler.filters().stream())
+                .distinct()
+                .toList();
+        List<Map<String, Object>> patterns = new ArrayList<>();
+        for (RequestHandler.Filter filter : filters.contains(RequestHandler.Filter.ALL)
+                ? List.of(RequestHandler.Filter.ALL) : filters) {
+            Map<String, Object> pattern = new LinkedHashMap<>();
+            pattern.put("urlPattern", filter.urlPattern());
+            if (filter.resourceType() != null) {
+                pattern.put("resourceType", filter.resourceType());
+            }
+            pattern.put("requestStage", "Request");
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+
+    private void onPaused(Map<String, Object> params) {
+        String requestId = String.valueOf(params.get("requestId"));
+        try {
+            InterceptedRequest request = toRequest(requestId, params);
+            if (params.containsKey("responseStatusCode") || params.containsKey("responseErrorReason")) {
+                onResponseStage(request, params);
+            } else {
+                onRequestStage(request);
+            }
+        } catch (WebDriverException e) {
+            // The request was cancelled (navigation, closed tab) while it was paused
+        }
+    }
+
+    private void onRequestStage(InterceptedRequest request) {
+        for (RequestHandler handler : handlers) {
+            RequestHandler.Decision decision = handler.onRequest(request);
+            if (decision instanceof RequestHandler.Fulfil fulfil) {
+                fulfil(request.id(), fulfil.response());
+                return;
+            }
+            if (decision instanceof RequestHandler.Fail fail) {
+                devTools.send(Cdp.command("Fetch.failRequest",
+                        Map.of("requestId", request.id(), "errorReason", fail.errorReason())));
+                return;
+            }
+        }
+        devTools.send(Cdp.command("Fetch.continueRequest", Map.of("requestId", request.id())));
+    }
+
+    private void onResponseStage(InterceptedRequest request, Map<String, Object> params) {
+        if (params.get("responseStatusCode") instanceof Number status) {
+            InterceptedResponse response = new InterceptedResponse(status.intValue(),
+                    toHeaders(params.get("responseHeaders")), responseBody(request.id(), status.intValue()));
+            for (RequestHandler handler : handlers) {
+                if (handler.wantsResponses()) {
+                    handler.onResponse(request, response);
+                }
+            }
+        }
+        devTools.send(Cdp.command("Fetch.continueRequest", Map.of("requestId", request.id())));
+    }
+
+    private byte[] responseBody(String requestId, int status) {
+        if (status >= 300 && status < 400) {
+            return new byte[0]; // Redirects have no body to fetch
+        }
+        try {
+            Map<String, Object> result = devTools.send(
+                    Cdp.command("Fetch.getResponseBody", Map.of("requestId", requestId)));
+            String body = String.valueOf(result.getOrDefault("body", ""));
+            return Boolean.TRUE.equals(result.get("base64Encoded"))
+                    ? Base64.getDecoder().decode(body)
+                    : body.getBytes(StandardCharsets.UTF_8);
+        } catch (WebDriverException e) {
+            return new byte[0];
+        }
+    }
+
+    private void fulfil(String requestId, InterceptedResponse response) {
+        List<Map<String, Object>> headers = new ArrayList<>();
+        for (InterceptedResponse.Header header : response.headers()) {
+            String name = header.name().toLowerCase();
+            // The stored body is already decoded and may differ in length from the original
+            if (!name.equals("content-encoding") && !name.equals("content-length")) {
+                headers.add(Map.of("name", header.name(), "value", header.value()));
+            }
+        }
+        devTools.send(Cdp.command("Fetch.fulfillRequest", Map.of(
+                "requestId", requestId,
+                "responseCode", response.status(),
+                "responseHeaders", headers,
+                "body", Base64.getEncoder().encodeToString(response.body()))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private InterceptedRequest toRequest(String requestId, Map<String, Object> params) {
+        Map<String, Object> request = (Map<String, Object>) params.get("request");
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (request.get("headers") instanceof Map<?, ?> raw) {
+            raw.forEach((name, value) -> headers.put(String.valueOf(name), String.valueOf(value)));
+        }
+        String url = String.valueOf(request.get("url"));
+        String resourceType = String.valueOf(params.get("resourceType"));
+        Object frameId = params.get("frameId");
+        if ("Document".equals(resourceType) && (mainFrameId == null || mainFrameId.equals(frameId))) {
+            documentUrl = url;
+        }
+        return new InterceptedRequest(requestId, String.valueOf(request.get("method")), url, headers,
+                (String) request.get("postData"), resourceType, documentUrl);
+    }
+
+    private static List<InterceptedResponse.Header> toHeaders(Object raw) {
+        List<InterceptedResponse.Header> headers = new ArrayList<>();
+        if (raw instanceof List<?> list) {
+            for (Object entry : list) {
+                if (entry instanceof Map<?, ?> header) {
+                    headers.add(new InterceptedResponse.Header(
+                            String.valueOf(header.get("name")), String.valueOf(header.get("value"))));
+                }
+            }
+        }
+        return headers;
+    }
+}
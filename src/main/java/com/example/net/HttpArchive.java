@@ -0,0 +1,150 @@
+package com.example.net;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * On-disk store of recorded responses for one test: an {@code index.json} describing every
+ * exchange plus one file per response body.
+ *
+ * Lookups match method and full URL first, replaying repeated requests in recorded order.
+ * If the exact URL was never seen, a recording for the same method, host and path with a
+ * different query string is used, since pages often add timestamps or nonces to URLs.
+ */
+public class HttpArchive {
+
+    private static final Json JSON = new Json();
+
+    private final Path directory;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, AtomicInteger> cursors = new LinkedHashMap<>();
+
+    public record Entry(String method, String url, InterceptedResponse response) {
+
+        String key() {
+            return method + " " + url;
+        }
+
+        String pathKey() {
+            return method + " " + withoutQuery(url);
+        }
+    }
+
+    private HttpArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public static HttpArchive empty(Path directory) {
+        return new HttpArchive(directory);
+    }
+
+    /** Loads the archive in {@code directory}; an archive that was never recorded is empty. */
+    @SuppressWarnings("unchecked")
+    public static HttpArchive load(Path directory) {
+        HttpArchive archive = new HttpArchive(directory);
+        Path index = directory.resolve("index.json");
+        if (!Files.exists(index)) {
+            return archive;
+        }
+        try {
+            Map<String, Object> root = JSON.toType(Files.readString(index), Json.MAP_TYPE);
+            for (Object raw : (List<Object>) root.getOrDefault("entries", List.of())) {
+                Map<String, Object> entry = (Map<String, Object>) raw;
+                List<InterceptedResponse.Header> headers = new ArrayList<>();
+                for (Object h : (List<Object>) entry.getOrDefault("headers", List.of())) {
+                    Map<String, Object> header = (Map<String, Object>) h;
+                    headers.add(new InterceptedResponse.Header(
+                            String.valueOf(header.get("name")), String.valueOf(header.get("value"))));
+                }
+                byte[] body = Files.readAllBytes(directory.resolve(String.valueOf(entry.get("body"))));
+                archive.entries.add(new Entry(String.valueOf(entry.get("method")), String.valueOf(entry.get("url")),
+                        new InterceptedResponse(((Number) entry.get("status")).intValue(), headers, body)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read recording " + index, e);
+        }
+        return archive;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public synchronized void add(String method, String url, InterceptedResponse response) {
+        entries.add(new Entry(method, url, response));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Next recorded response for this request, or empty when nothing comparable was recorded. */
+    public synchronized Optional<InterceptedResponse> lookup(String method, String url) {
+        Optional<InterceptedResponse> exact = next(method + " " + url, Entry::key);
+        return exact.isPresent() ? exact : next(method + " " + withoutQuery(url), Entry::pathKey);
+    }
+
+    private Optional<InterceptedResponse> next(String key, Function<Entry, String> keyOf) {
+        List<Entry> matches = entries.stream().filter(e -> keyOf.apply(e).equals(key)).toList();
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+        // Replay repeats in recorded order and keep serving the last one once they run out
+        int index = cursors.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        return Optional.of(matches.get(Math.min(index, matches.size() - 1)).response());
+    }
+
+    public synchronized void save() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> old = Files.list(directory)) {
+                for (Path file : old.filter(f -> f.toString().endsWith(".body")).toList()) {
+                    Files.delete(file);
+                }
+            }
+            List<Map<String, Object>> index = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                String bodyFile = String.format("%04d.body", i);
+                Files.write(directory.resolve(bodyFile), entry.response().body());
+                List<Map<String, Object>> headers = new ArrayList<>();
+                for (InterceptedResponse.Header header : entry.response().headers()) {
+                    headers.add(Map.of("name", header.name(), "value", header.value()));
+                }
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("method", entry.method());
+                json.put("url", entry.url());
+                json.put("status", entry.response().status());
+                json.put("headers", headers);
+                json.put("body", bodyFile);
+                index.add(json);
+            }
+            Files.writeString(directory.resolve("index.json"), JSON.toJson(Map.of("entries", index)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write recording " + directory, e);
+        }
+    }
+
+    static String withoutQuery(String url) {
+        try {
+            URI uri = URI.create(url);
+            return new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, null).toString();
+        } catch (Exception e) {
+            int query = url.indexOf('?');
+            return query < 0 ? url : url.substring(0, query);
+        }
+    }
+}
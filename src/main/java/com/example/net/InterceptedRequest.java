@@ -0,0 +1,13 @@
+package com.example.net;
+
+import java.util.Map;
+
+/**
+ * A browser request paused by {@link FetchInterceptor}.
+ *
+ * @param resourceType CDP resource type, e.g. {@code Document}, {@code Script}, {@code Image}
+ * @param documentUrl  URL of the top-level page that issued the request, when known
+ */
+public record InterceptedRequest(String id, String method, String url, Map<String, String> headers,
+                                 String postData, String resourceType, String documentUrl) {
+}
@@ -0,0 +1,16 @@
+package com.example.net;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** Status, headers and decoded body of a response, as recorded or as served back to the browser. */
+public record InterceptedResponse(int status, List<Header> headers, byte[] body) {
+
+    public record Header(String name, String value) {
+    }
+
+    public static InterceptedResponse text(int status, String contentType, String body) {
+        return new InterceptedResponse(status, List.of(new Header("Content-Type", contentType)),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.net;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/** Thrown after a replayed test made requests that its archive has no recording for. */
+public class MissingRecordingException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] requests;
+
+    public MissingRecordingException(Path archive, List<String> requests) {
+        super(requests.size() + " request(s) have no recording in " + archive
+                + " (re-record with -Dreplay.mode=record):\n  " + String.join("\n  ", requests));
+        this.requests = requests.toArray(new String[0]);
+    }
+
+    public List<String> requests() {
+        return List.of(requests);
+    }
+}
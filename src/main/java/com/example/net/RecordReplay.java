@@ -0,0 +1,102 @@
+package com.example.net;
+
+import com.example.log.StepLog;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records every response a test receives into an {@link HttpArchive}, or replays that archive
+ * to the browser so the test runs without network access.
+ *
+ * The mode comes from {@code -Dreplay.mode=off|record|replay} (default {@code off}) and archives
+ * live under {@code -Dreplay.dir} (default {@code src/test/resources/recordings}). Responses are
+ * served through CDP {@code Fetch} interception inside the browser, so HTTPS pages replay without
+ * a proxy or certificate setup and at local-disk latency.
+ */
+public class RecordReplay implements RequestHandler {
+
+    public enum Mode {
+        OFF, RECORD, REPLAY;
+
+        public static Mode fromSystemProperty() {
+            return valueOf(System.getProperty("replay.mode", "off").trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Mode mode;
+    private final HttpArchive archive;
+    private final List<String> misses = new ArrayList<>();
+    private FetchInterceptor interceptor;
+
+    private RecordReplay(Mode mode, HttpArchive archive) {
+        this.mode = mode;
+        this.archive = archive;
+    }
+
+    public static Path archiveRoot() {
+        return Paths.get(System.getProperty("replay.dir", "src/test/resources/recordings"));
+    }
+
+    /** Starts recording or replaying {@code name} on this session; returns null in {@code OFF} mode. */
+    public static RecordReplay start(WebDriver driver, Mode mode, String name) {
+        if (mode == Mode.OFF) {
+            return null;
+        }
+        Path directory = archiveRoot().resolve(name);
+        HttpArchive archive = mode == Mode.RECORD ? HttpArchive.empty(directory) : HttpArchive.load(directory);
+        RecordReplay session = new RecordReplay(mode, archive);
+        session.interceptor = FetchInterceptor.of(driver);
+        session.interceptor.add(session);
+        return session;
+    }
+
+    @Override
+    public Decision onRequest(InterceptedRequest request) {
+        if (mode == Mode.RECORD) {
+            return Decision.proceed();
+        }
+        return archive.lookup(request.method(), request.url())
+                .map(Decision::fulfil)
+                .orElseGet(() -> {
+                    String miss = request.method() + " " + request.url();
+                    synchronized (misses) {
+                        misses.add(miss);
+                    }
+                    return Decision.fulfil(InterceptedResponse.text(504, "text/plain; charset=utf-8",
+                            "No recording for " + miss + " in " + archive.directory()));
+                });
+    }
+
+    @Override
+    public void onResponse(InterceptedRequest request, InterceptedResponse response) {
+        archive.add(request.method(), request.url(), response);
+    }
+
+    @Override
+    public boolean wantsResponses() {
+        return mode == Mode.RECORD;
+    }
+
+    /**
+     * Stops intercepting. A recording is written to disk and noted in the test's {@code log}; a
+     * replay that hit requests without a recording fails with {@link MissingRecordingException}.
+     */
+    public void finish(StepLog log) {
+        interceptor.remove(this);
+        if (mode == Mode.RECORD) {
+            archive.save();
+            log.info("Recorded " + archive.size() + " responses to " + archive.directory());
+            return;
+        }
+        synchronized (misses) {
+            if (!misses.isEmpty()) {
+                throw new MissingRecordingException(archive.directory(), misses);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.net;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Fails requests a test never looks at - images, fonts, trackers - inside the browser, before
+ * they reach the network. A request is blocked when
+ *
+ * <ul>
+ *   <li>its CDP resource type is in {@link Rules#resourceTypes()}, or</li>
+ *   <li>its resource type is in {@link Rules#thirdPartyTypes()} ({@code *} for any) and its host
+ *       is not on the same site as the page, or</li>
+ *   <li>its URL matches one of {@link Rules#urlPatterns()} ({@code *} and {@code ?} globs).</li>
+ * </ul>
+ *
+ * Only requests that could match are paused (see {@link RequestHandler#filters()}).
+ *
+ * {@code -Dblock.requests=on|off|measure} (default {@code on}) switches blocking on or off, or
+ * lets matching requests through and counts the bytes they transfer, for a before/after
+ * comparison. Counts per test and reason go to {@code -Dblock.report.file} (default
+ * {@code target/blocked-requests.json}) when the JVM exits; bytes only for tests that measured
+ * them, since a blocked request never transfers any.
+ */
+public class RequestBlocker implements RequestHandler {
+
+    public enum Mode {
+        ON, OFF, MEASURE;
+
+        public static Mode fromSystemProperty() {
+            return valueOf(System.getProperty("block.requests", "on").trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public record Rules(Set<String> resourceTypes, Set<String> thirdPartyTypes, List<String> urlPatterns) {
+
+        public boolean isEmpty() {
+            return resourceTypes.isEmpty() && thirdPartyTypes.isEmpty() && urlPatterns.isEmpty();
+        }
+    }
+
+    private record Tally(AtomicLong requests, AtomicLong bytes, AtomicBoolean measured,
+                         Map<String, AtomicLong> reasons) {
+
+        Tally() {
+            this(new AtomicLong(), new AtomicLong(), new AtomicBoolean(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private static final Map<String, Tally> TESTS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RequestBlocker::report, "request-blocker"));
+    }
+
+    private final Mode mode;
+    private final Rules rules;
+    private final List<Pattern> urlPatterns;
+    private final Tally tally;
+    private final Set<String> passedThrough = ConcurrentHashMap.newKeySet();
+    private FetchInterceptor interceptor;
+
+    /** A blocker that counts into a tally of its own, which is never reported. */
+    RequestBlocker(Mode mode, Rules rules) {
+        this(mode, rules, new Tally());
+    }
+
+    private RequestBlocker(Mode mode, Rules rules, Tally tally) {
+        this.mode = mode;
+        this.rules = rules;
+        this.urlPatterns = rules.urlPatterns().stream().map(RequestBlocker::glob).toList();
+        this.tally = tally;
+        if (mode == Mode.MEASURE) {
+            tally.measured().set(true);
+        }
+    }
+
+    /** Starts blocking on this session ahead of other handlers; null if off or nothing to block. */
+    public static RequestBlocker start(WebDriver driver, Mode mode, Rules rules, String name) {
+        if (mode == Mode.OFF || rules.isEmpty()) {
+            return null;
+        }
+        RequestBlocker blocker = new RequestBlocker(mode, rules, TESTS.computeIfAbsent(name, n -> new Tally()));
+        blocker.interceptor = FetchInterceptor.of(driver);
+        blocker.interceptor.addFirst(blocker);
+        return blocker;
+    }
+
+    public void finish() {
+        interceptor.remove(this);
+        passedThrough.clear();
+    }
+
+    @Override
+    public List<Filter> filters() {
+        if (rules.thirdPartyTypes().contains("*")) {
+            return List.of(Filter.ALL);
+        }
+        List<Filter> filters = new ArrayList<>();
+        rules.resourceTypes().forEach(type -> filters.add(Filter.resourceType(type)));
+        rules.thirdPartyTypes().forEach(type -> filters.add(Filter.resourceType(type)));
+        rules.urlPatterns().forEach(pattern -> filters.add(Filter.url(pattern)));
+        return filters;
+    }
+
+    @Override
+    public Decision onRequest(InterceptedRequest request) {
+        String reason = reason(request);
+        if (reason == null) {
+            return Decision.proceed();
+        }
+        tally.requests().incrementAndGet();
+        tally.reasons().computeIfAbsent(reason, r -> new AtomicLong()).incrementAndGet();
+        if (mode == Mode.MEASURE) {
+            passedThrough.add(request.id());
+            return Decision.proceed();
+        }
+        return Decision.fail("BlockedByClient");
+    }
+
+    @Override
+    public void onResponse(InterceptedRequest request, InterceptedResponse response) {
+        if (passedThrough.remove(request.id())) {
+            tally.bytes().addAndGet(response.body().length);
+        }
+    }
+
+    @Override
+    public boolean wantsResponses() {
+        return mode == Mode.MEASURE;
+    }
+
+    /** Why {@code request} is blocked, e.g. {@code type:Image}, or null to let it through. */
+    String reason(InterceptedRequest request) {
+        String type = request.resourceType();
+        if (rules.resourceTypes().contains(type)) {
+            return "type:" + type;
+        }
+        for (int i = 0; i < urlPatterns.size(); i++) {
+            if (urlPatterns.get(i).matcher(request.url()).matches()) {
+                return "pattern:" + rules.urlPatterns().get(i);
+            }
+        }
+        if ((rules.thirdPartyTypes().contains(type) || rules.thirdPartyTypes().contains("*"))
+                && !"Document".equals(type) && isThirdParty(request)) {
+            return "third-party:" + type;
+        }
+        return null;
+    }
+
+    private static boolean isThirdParty(InterceptedRequest request) {
+        if (request.documentUrl() == null) {
+            return false;
+        }
+        String page = site(request.documentUrl());
+        String target = site(request.url());
+        return page != null && target != null && !page.equals(target);
+    }
+
+    /**
+     * Registrable domain, approximated without a public-suffix list: the last two labels, or
+     * three under a short second-level label such as {@code co.uk}.
+     */
+    static String site(String url) {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (host == null) {
+            return null;
+        }
+        String[] labels = host.toLowerCase(Locale.ROOT).split("\\.");
+        if (labels.length <= 2 || host.matches("[0-9.]+")) {
+            return host;
+        }
+        int keep = labels[labels.length - 1].length() == 2 && labels[labels.length - 2].length() <= 3 ? 3 : 2;
+        return String.join(".", List.of(labels).subList(Math.max(0, labels.length - keep), labels.length));
+    }
+
+    /** CDP URL pattern semantics: {@code *} any run, {@code ?} one character, backslash escapes. */
+    public static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /** Per test: requests blocked (or, in {@code measure} mode, that would be, and their bytes), by reason. */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> report = new TreeMap<>();
+        TESTS.forEach((test, tally) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", tally.requests().get());
+            if (tally.measured().get()) {
+                entry.put("bytes", tally.bytes().get());
+            }
+            Map<String, Object> reasons = new TreeMap<>();
+            tally.reasons().forEach((reason, count) -> reasons.put(reason, count.get()));
+            entry.put("reasons", reasons);
+            report.put(test, entry);
+        });
+        return report;
+    }
+
+    static void report() {
+        if (TESTS.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(System.getProperty("block.report.file", "target/blocked-requests.json"));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, new Json().toJson(snapshot()));
+        } catch (IOException e) {
+            System.err.println("Could not write blocked requests to " + file + ": " + e.getMessage());
+        }
+        boolean measuring = TESTS.values().stream().anyMatch(tally -> tally.measured().get());
+        System.out.println((measuring ? "Requests that would be blocked (" : "Blocked requests (") + file + "):");
+        new TreeMap<>(TESTS).forEach((test, tally) -> System.out.printf("  %-50s %6d requests%s%n", test,
+                tally.requests().get(),
+                tally.measured().get() ? String.format(", %,d bytes", tally.bytes().get()) : ""));
+    }
+}
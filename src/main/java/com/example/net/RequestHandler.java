@@ -0,0 +1,75 @@
+package com.example.net;
+
+import java.util.List;
+
+/**
+ * One link in a session's request chain (see {@link FetchInterceptor}). Handlers are asked in
+ * the order they were added; the first decision other than {@link Decision#proceed()} wins.
+ */
+public interface RequestHandler {
+
+    Decision onRequest(InterceptedRequest request);
+
+    /**
+     * The requests this handler needs to see. Only matching requests are paused unless another
+     * handler needs everything, so a handler must still check what it is given.
+     */
+    default List<Filter> filters() {
+        return List.of(Filter.ALL);
+    }
+
+    /** Called with the real response of every request that reached the network. */
+    default void onResponse(InterceptedRequest request, InterceptedResponse response) {
+    }
+
+    /** Whether {@link #onResponse} should be called; pausing responses costs an extra round trip. */
+    default boolean wantsResponses() {
+        return false;
+    }
+
+    /**
+     * A CDP {@code Fetch.RequestPattern} for the request stage.
+     *
+     * @param urlPattern   URL glob: {@code *} matches any run of characters, {@code ?} exactly one
+     * @param resourceType CDP resource type such as {@code Image}, or null for any type
+     */
+    record Filter(String urlPattern, String resourceType) {
+
+        public static final Filter ALL = new Filter("*", null);
+
+        public static Filter resourceType(String resourceType) {
+            return new Filter("*", resourceType);
+        }
+
+        public static Filter url(String urlPattern) {
+            return new Filter(urlPattern, null);
+        }
+    }
+
+    /** What to do with a paused request. */
+    sealed interface Decision permits Proceed, Fulfil, Fail {
+
+        static Decision proceed() {
+            return Proceed.INSTANCE;
+        }
+
+        static Decision fulfil(InterceptedResponse response) {
+            return new Fulfil(response);
+        }
+
+        /** @param errorReason a CDP {@code Network.ErrorReason}, e.g. {@code BlockedByClient} */
+        static Decision fail(String errorReason) {
+            return new Fail(errorReason);
+        }
+    }
+
+    enum Proceed implements Decision {
+        INSTANCE
+    }
+
+    record Fulfil(InterceptedResponse response) implements Decision {
+    }
+
+    record Fail(String errorReason) implements Decision {
+    }
+}
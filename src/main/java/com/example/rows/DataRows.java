@@ -0,0 +1,164 @@
+package com.example.rows;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Input rows for a {@link RowRunner}, read from CSV (first line is the header) or from a JSON
+ * array of objects. CSV is streamed line by line, so a file of many thousands of rows is never
+ * held in memory; close the stream, or let {@link RowRunner#run} do it.
+ *
+ * CSV fields may be quoted with {@code "}, with {@code ""} for a literal quote; a field cannot
+ * span lines. Blank lines are skipped.
+ */
+public final class DataRows {
+
+    private static final Json JSON = new Json();
+
+    /** One input row; {@code index} counts from 1 in file order. */
+    public record Row(int index, Map<String, String> values) {
+
+        /** The value in {@code column}; fails fast on a misspelt column rather than returning null. */
+        public String get(String column) {
+            String value = values.get(column);
+            if (value == null && !values.containsKey(column)) {
+                throw new IllegalArgumentException("Row " + index + " has no column '" + column + "', only " + values.keySet());
+            }
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + values;
+        }
+    }
+
+    private DataRows() {
+    }
+
+    /** Rows from a {@code .csv} or {@code .json} file. */
+    public static Stream<Row> read(Path file) {
+        try {
+            return parse(file.toString(), Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read rows from " + file, e);
+        }
+    }
+
+    /** Rows from a {@code .csv} or {@code .json} file on the classpath, e.g. {@code rows/google-searches.csv}. */
+    public static Stream<Row> resource(String name) {
+        InputStream in = DataRows.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) {
+            throw new IllegalArgumentException("No rows resource " + name + " on the classpath");
+        }
+        return parse(name, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    /** Single-column rows, for a handful of inline values. */
+    public static Stream<Row> of(String column, String... values) {
+        AtomicInteger index = new AtomicInteger();
+        return Arrays.stream(values).map(value -> new Row(index.incrementAndGet(), Map.of(column, value)));
+    }
+
+    private static Stream<Row> parse(String name, BufferedReader reader) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return csv(reader).onClose(() -> close(reader));
+        }
+        try (reader) {
+            if (lower.endsWith(".json")) {
+                return json(reader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read rows from " + name, e);
+        }
+        throw new IllegalArgumentException("Rows must be .csv or .json: " + name);
+    }
+
+    static Stream<Row> csv(BufferedReader reader) {
+        List<String> header;
+        try {
+            String first = reader.readLine();
+            header = first == null ? List.of() : fields(first.startsWith("\uFEFF") ? first.substring(1) : first);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AtomicInteger index = new AtomicInteger();
+        return reader.lines()
+                .filter(line -> !line.isBlank())
+                .map(line -> {
+                    List<String> fields = fields(line);
+                    Map<String, String> values = new LinkedHashMap<>();
+                    for (int i = 0; i < header.size(); i++) {
+                        values.put(header.get(i), i < fields.size() ? fields.get(i) : "");
+                    }
+                    return new Row(index.incrementAndGet(), Collections.unmodifiableMap(values));
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    static Stream<Row> json(Reader reader) {
+        List<Object> array = JSON.toType(reader, List.class);
+        List<Row> rows = new ArrayList<>(array.size());
+        for (Object element : array) {
+            Map<String, String> values = new LinkedHashMap<>();
+            ((Map<String, Object>) element).forEach((key, value) -> values.put(key, value == null ? null : String.valueOf(value)));
+            rows.add(new Row(rows.size() + 1, Collections.unmodifiableMap(values)));
+        }
+        return rows.stream();
+    }
+
+    static List<String> fields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void close(Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.rows;
+
+import com.example.browser.BrowserPool;
+import com.example.browser.SessionLimiter;
+import com.example.browser.SessionReset;
+import com.example.metrics.CommandMetrics;
+import com.example.net.FetchInterceptor;
+import com.example.rows.DataRows.Row;
+import com.example.wait.PushWait;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Runs one journey per input row, fanned out across sessions of a {@link BrowserPool}: each row
+ * gets its own virtual thread, a warm session for the duration of the row and a {@link PushWait}
+ * on it, and ends in its own {@link Result}.
+ *
+ * At most {@code concurrency} rows are in flight ({@code -Drows.concurrency}, default
+ * {@code -Dbrowser.maxSessions}); reading the next row blocks until one finishes, so thousands of
+ * rows never turn into thousands of threads queueing for a browser, and the pool's
+ * {@link SessionLimiter} still caps the Chrome processes actually alive.
+ *
+ * A test can lend the session it already holds with {@link #borrowing}; it runs rows like any
+ * pooled one and is reset after each. Per-test network hooks such as request blocking or replay
+ * ({@link FetchInterceptor}) live on that lent session only, so while they are attached every
+ * row runs on it, one at a time, and none goes to the live network on a leased session.
+ */
+public class RowRunner {
+
+    /** What to do with one row; a thrown exception or failed assertion fails that row only. */
+    @FunctionalInterface
+    public interface Journey {
+        void run(Row row, WebDriver driver, WebDriverWait wait) throws Exception;
+    }
+
+    /** Outcome of one row; {@code failure} is null if it passed. */
+    public record Result(Row row, Duration elapsed, Throwable failure) {
+
+        public boolean passed() {
+            return failure == null;
+        }
+
+        @Override
+        public String toString() {
+            return (passed() ? "✓ " : "✗ ") + row + " in " + elapsed.toMillis() + " ms"
+                    + (passed() ? "" : ": " + failure);
+        }
+    }
+
+    /** All rows in input order, and how fast they went through. */
+    public record Summary(String name, List<Result> results, Duration elapsed, int concurrency) {
+
+        public List<Result> failed() {
+            return results.stream().filter(result -> !result.passed()).toList();
+        }
+
+        public double rowsPerSecond() {
+            return elapsed.isZero() ? 0 : results.size() * 1e9 / elapsed.toNanos();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%s: %d rows, %d failed in %.1f s (%.2f rows/s, %d in flight)",
+                    name, results.size(), failed().size(), elapsed.toMillis() / 1000.0, rowsPerSecond(), concurrency));
+            failed().forEach(result -> text.append(System.lineSeparator()).append("  ").append(result));
+            return text.toString();
+        }
+    }
+
+    private final BrowserPool pool;
+    private final String name;
+    private final Duration waitTimeout;
+    private final int concurrency;
+    private final BlockingQueue<WebDriver> lent = new LinkedBlockingQueue<>();
+    private volatile boolean lentOnly;
+
+    public RowRunner(BrowserPool pool, String name, Duration waitTimeout) {
+        this(pool, name, waitTimeout,
+                Integer.getInteger("rows.concurrency", SessionLimiter.GLOBAL.maxSessions()));
+    }
+
+    public RowRunner(BrowserPool pool, String name, Duration waitTimeout, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1, was " + concurrency);
+        }
+        this.pool = pool;
+        this.name = name;
+        this.waitTimeout = waitTimeout;
+        this.concurrency = concurrency;
+    }
+
+    /** Uses {@code driver}, already leased by the caller, for rows too; it stays the caller's. */
+    public RowRunner borrowing(WebDriver driver) {
+        if (driver != null) {
+            lent.add(driver);
+        }
+        return this;
+    }
+
+    /** Runs every row, closes {@code rows} and returns once the last row has finished. */
+    public Summary run(Stream<Row> rows, Journey journey) {
+        List<Result> results = Collections.synchronizedList(new ArrayList<>());
+        Semaphore inFlight = new Semaphore(concurrency);
+        lentOnly = lent.stream().anyMatch(FetchInterceptor::intercepting);
+        long started = System.nanoTime();
+        try (Stream<Row> input = rows; ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            Iterator<Row> next = input.iterator();
+            while (next.hasNext()) {
+                Row row = next.next();
+                inFlight.acquire();
+                threads.submit(() -> {
+                    try {
+                        results.add(runRow(row, journey));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while feeding rows to " + name, e);
+        }
+        List<Result> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingInt(result -> result.row().index()));
+        return new Summary(name, List.copyOf(ordered), Duration.ofNanos(System.nanoTime() - started), concurrency);
+    }
+
+    private Result runRow(Row row, Journey journey) {
+        long started = System.nanoTime();
+        WebDriver driver = null;
+        boolean leased = false;
+        try {
+            driver = lentOnly ? lent.take() : lent.poll();
+            if (driver == null) {
+                driver = pool.lease();
+                leased = true;
+            }
+            CommandMetrics.attribute(driver, name + "[" + row.index() + "]");
+            journey.run(row, driver, new PushWait(driver, waitTimeout));
+            return new Result(row, Duration.ofNanos(System.nanoTime() - started), null);
+        } catch (Exception | AssertionError e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return new Result(row, Duration.ofNanos(System.nanoTime() - started), e);
+        } finally {
+            if (driver != null) {
+                handBack(driver, leased);
+            }
+        }
+    }
+
+    private void handBack(WebDriver driver, boolean leased) {
+        if (leased) {
+            CommandMetrics.attribute(driver, null);
+            pool.release(driver);
+            return;
+        }
+        CommandMetrics.attribute(driver, name);
+        try {
+            SessionReset.reset(driver);
+        } catch (WebDriverException e) {
+            if (!lentOnly) {
+                // Broken: leave it to its owner, later rows lease from the pool instead
+                return;
+            }
+            // Still the only session with the test's network hooks; later rows fail on it instead
+        }
+        lent.add(driver);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Translates the common subset of CSS selectors to XPath 1.0 so they can run against a
+ * {@link DomSnapshot}: type, universal, id, class and attribute selectors, the four
+ * combinators, {@code :first-child}, {@code :last-child}, {@code :only-child},
+ * {@code :nth-child(n)}, {@code :empty}, {@code :root} and {@code :not(...)} of a compound.
+ *
+ * Anything else (state pseudo-classes, {@code an+b} formulas, hex escapes, attribute flags)
+ * is reported as unsupported, and the caller asks the browser instead.
+ */
+final class CssToXPath {
+
+    private final String css;
+    private int pos;
+
+    private CssToXPath(String css) {
+        this.css = css;
+    }
+
+    /** Document-wide XPath selecting the same elements in document order, or empty if unsupported. */
+    static Optional<String> translate(String css) {
+        try {
+            return Optional.of(new CssToXPath(css).selectorList());
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String selectorList() {
+        List<String> alternatives = new ArrayList<>();
+        do {
+            skipWhitespace();
+            alternatives.add(complexSelector());
+            skipWhitespace();
+        } while (consume(','));
+        if (pos < css.length()) {
+            throw unsupported();
+        }
+        return String.join(" | ", alternatives);
+    }
+
+    private String complexSelector() {
+        StringBuilder xpath = new StringBuilder("//").append(step());
+        while (true) {
+            boolean whitespace = skipWhitespace();
+            if (pos >= css.length() || peek() == ',') {
+                return xpath.toString();
+            }
+            char combinator = peek();
+            if (combinator == '>' || combinator == '+' || combinator == '~') {
+                pos++;
+                skipWhitespace();
+            } else if (whitespace) {
+                combinator = ' ';
+            } else {
+                throw unsupported();
+            }
+            Step step = step();
+            switch (combinator) {
+                case '>' -> xpath.append('/').append(step);
+                case '+' -> xpath.append("/following-sibling::*[1]/self::").append(step);
+                case '~' -> xpath.append("/following-sibling::").append(step);
+                default -> xpath.append("//").append(step);
+            }
+        }
+    }
+
+    private record Step(String tag, List<String> predicates) {
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(tag);
+            for (String predicate : predicates) {
+                out.append('[').append(predicate).append(']');
+            }
+            return out.toString();
+        }
+    }
+
+    private Step step() {
+        String tag = "*";
+        boolean universal = consume('*');
+        if (!universal && pos < css.length() && isIdentStart(peek())) {
+            tag = identifier().toLowerCase(Locale.ROOT);
+        }
+        List<String> predicates = new ArrayList<>();
+        while (pos < css.length()) {
+            char c = peek();
+            if (c == '#') {
+                pos++;
+                predicates.add("@id=" + literal(identifier()));
+            } else if (c == '.') {
+                pos++;
+                predicates.add(containsWord("@class", identifier()));
+            } else if (c == '[') {
+                pos++;
+                predicates.add(attribute());
+            } else if (c == ':') {
+                pos++;
+                predicates.add(pseudoClass());
+            } else {
+                break;
+            }
+        }
+        if (tag.equals("*") && !universal && predicates.isEmpty()) {
+            throw unsupported();
+        }
+        return new Step(tag, predicates);
+    }
+
+    private String attribute() {
+        skipWhitespace();
+        String name = "@" + identifier().toLowerCase(Locale.ROOT);
+        skipWhitespace();
+        if (consume(']')) {
+            return name;
+        }
+        String operator;
+        if (consume('=')) {
+            operator = "=";
+        } else if (pos + 1 < css.length() && "~|^$*".indexOf(peek()) >= 0 && css.charAt(pos + 1) == '=') {
+            operator = css.substring(pos, pos + 2);
+            pos += 2;
+        } else {
+            throw unsupported();
+        }
+        skipWhitespace();
+        String value = peek() == '"' || peek() == '\'' ? string() : identifier();
+        skipWhitespace();
+        if (!consume(']')) {
+            throw unsupported();
+        }
+        String literal = literal(value);
+        return switch (operator) {
+            case "=" -> name + "=" + literal;
+            case "~=" -> value.isEmpty() || value.chars().anyMatch(Character::isWhitespace)
+                    ? "false()" : containsWord(name, value);
+            case "|=" -> name + "=" + literal + " or starts-with(" + name + ", " + literal(value + "-") + ")";
+            case "^=" -> value.isEmpty() ? "false()" : "starts-with(" + name + ", " + literal + ")";
+            case "$=" -> value.isEmpty() ? "false()" : "substring(" + name + ", string-length(" + name + ") - "
+                    + value.length() + " + 1)=" + literal;
+            default -> value.isEmpty() ? "false()" : "contains(" + name + ", " + literal + ")";
+        };
+    }
+
+    private String pseudoClass() {
+        String name = identifier().toLowerCase(Locale.ROOT);
+        switch (name) {
+            case "first-child":
+                return "not(preceding-sibling::*)";
+            case "last-child":
+                return "not(following-sibling::*)";
+            case "only-child":
+                return "not(preceding-sibling::*) and not(following-sibling::*)";
+            case "empty":
+                return "not(node())";
+            case "root":
+                return "not(parent::*)";
+            case "nth-child": {
+                String argument = arguments().trim();
+                if (!argument.matches("\\d+")) {
+                    throw unsupported();
+                }
+                return "count(preceding-sibling::*)=" + (Integer.parseInt(argument) - 1);
+            }
+            case "not": {
+                CssToXPath inner = new CssToXPath(arguments().trim());
+                Step negated = inner.step();
+                if (inner.pos < inner.css.length()) {
+                    throw unsupported();
+                }
+                return "not(self::" + negated + ")";
+            }
+            default:
+                throw unsupported();
+        }
+    }
+
+    private String arguments() {
+        if (!consume('(')) {
+            throw unsupported();
+        }
+        int end = css.indexOf(')', pos);
+        if (end < 0 || css.indexOf('(', pos) >= 0 && css.indexOf('(', pos) < end) {
+            throw unsupported();
+        }
+        String arguments = css.substring(pos, end);
+        pos = end + 1;
+        return arguments;
+    }
+
+    private String identifier() {
+        StringBuilder out = new StringBuilder();
+        while (pos < css.length()) {
+            char c = peek();
+            if (c == '\\') {
+                out.append(escape());
+            } else if (isIdentStart(c) || c == '-' || Character.isDigit(c)) {
+                out.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (out.isEmpty()) {
+            throw unsupported();
+        }
+        return out.toString();
+    }
+
+    private String string() {
+        char quote = css.charAt(pos++);
+        StringBuilder out = new StringBuilder();
+        while (pos < css.length() && peek() != quote) {
+            out.append(peek() == '\\' ? escape() : css.charAt(pos++));
+        }
+        if (!consume(quote)) {
+            throw unsupported();
+        }
+        return out.toString();
+    }
+
+    private char escape() {
+        pos++;
+        if (pos >= css.length() || Character.digit(peek(), 16) >= 0 || peek() == '\n') {
+            throw unsupported();
+        }
+        return css.charAt(pos++);
+    }
+
+    private static boolean isIdentStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '-' || c == '\\' || c > 0x7f;
+    }
+
+    private static String containsWord(String attribute, String word) {
+        return "contains(concat(' ', normalize-space(" + attribute + "), ' '), " + literal(" " + word + " ") + ")";
+    }
+
+    /** XPath 1.0 string literal; values holding both quote kinds are split with {@code concat}. */
+    static String literal(String value) {
+        if (value.indexOf('\'') < 0) {
+            return "'" + value + "'";
+        }
+        if (value.indexOf('"') < 0) {
+            return "\"" + value + "\"";
+        }
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+    }
+
+    private boolean skipWhitespace() {
+        int start = pos;
+        while (pos < css.length() && Character.isWhitespace(peek())) {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private boolean consume(char c) {
+        if (pos < css.length() && peek() == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private char peek() {
+        if (pos >= css.length()) {
+            throw unsupported();
+        }
+        return css.charAt(pos);
+    }
+
+    private IllegalArgumentException unsupported() {
+        return new IllegalArgumentException("Unsupported CSS at " + pos + ": " + css);
+    }
+}
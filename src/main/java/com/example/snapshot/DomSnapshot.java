@@ -0,0 +1,380 @@
+package com.example.snapshot;
+
+import com.example.locate.JsLocators;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * The current document captured with one {@code executeScript}: every element with its
+ * attributes, rendered text, enabled/selected state and the requested computed styles. Locators
+ * are evaluated in-process against a W3C DOM copy with the JDK's XPath engine; CSS selectors go
+ * through {@link CssToXPath}.
+ *
+ * The capture returns no element references, which would cost the driver a serialized reference
+ * per element. The page keeps the captured elements instead (the last {@value #KEPT} captures of
+ * a document), and {@link #live} fetches one by index the first time it is used against the
+ * browser. Once the document has gone, or more captures have been made since, that fetch fails
+ * as a stale element.
+ *
+ * Comments, shadow roots and frame contents are not captured.
+ */
+final class DomSnapshot {
+
+    /** Scope index meaning "the whole document". */
+    static final int DOCUMENT = -1;
+
+    /** Captures of one document whose elements the page keeps for {@link #live}. */
+    static final int KEPT = 16;
+
+    private static final AtomicLong CAPTURES = new AtomicLong();
+
+    private static final String CAPTURE_JS =
+            "var props = arguments[0], elements = [];"
+            + "function color(v) {"
+            + "  var m = /^rgb\\((\\d+), (\\d+), (\\d+)\\)$/.exec(v);"
+            + "  return m ? 'rgba(' + m[1] + ', ' + m[2] + ', ' + m[3] + ', 1)' : v;"
+            + "}"
+            + "function visit(el) {"
+            + "  var node = {i: elements.length, t: el.localName, a: [], k: [], s: {}};"
+            + "  elements.push(el);"
+            + "  for (var i = 0; i < el.attributes.length; i++) node.a.push([el.attributes[i].name, el.attributes[i].value]);"
+            + "  var text = el.getClientRects().length > 0 ? (el.innerText !== undefined ? el.innerText : el.textContent) : '';"
+            + "  node.x = (text || '').replace(/\\u00a0/g, ' ').trim();"
+            + "  node.e = !el.matches(':disabled');"
+            + "  node.c = el.matches(':checked');"
+            + "  if (props.length) {"
+            + "    var style = window.getComputedStyle(el);"
+            + "    for (var p = 0; p < props.length; p++) {"
+            + "      var v = style.getPropertyValue(props[p]);"
+            + "      node.s[props[p]] = props[p].indexOf('color') >= 0 ? color(v) : v;"
+            + "    }"
+            + "  }"
+            + "  for (var c = el.firstChild; c; c = c.nextSibling) {"
+            + "    if (c.nodeType === 1) node.k.push(visit(c));"
+            + "    else if (c.nodeType === 3 || c.nodeType === 4) node.k.push(c.data);"
+            + "  }"
+            + "  return node;"
+            + "}"
+            + "var root = visit(document.documentElement);"
+            + "var kept = window.__domSnapshots || (window.__domSnapshots = []);"
+            + "kept.push({id: arguments[1], elements: elements});"
+            + "if (kept.length > " + KEPT + ") kept.shift();"
+            + "return root;";
+
+    private static final String RESOLVE_JS =
+            "var kept = window.__domSnapshots || [];"
+            + "for (var i = 0; i < kept.length; i++) {"
+            + "  if (kept[i].id === arguments[0]) return kept[i].elements[arguments[1]] || null;"
+            + "}"
+            + "return null;";
+
+    private static final Set<String> VOID_ELEMENTS = Set.of("area", "base", "basefont", "bgsound", "br", "col",
+            "embed", "frame", "hr", "img", "input", "keygen", "link", "meta", "param", "source", "track", "wbr");
+    private static final Set<String> RAW_TEXT_ELEMENTS = Set.of("style", "script", "xmp", "iframe", "noembed",
+            "noframes", "plaintext", "noscript");
+    private static final String INDEX = "snapshot.index";
+
+    /** One captured element; children are text strings or indexes of child elements. */
+    private record Node(String tag, Map<String, String> attributes, List<Object> children, String text,
+                        Map<String, String> styles, boolean enabled, boolean selected) {
+    }
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Element> dom = new ArrayList<>();
+    private final IntFunction<WebElement> resolver;
+    private final WebElement[] live;
+    private final Set<String> styleProperties;
+    private final Document document;
+    private final XPath xpath = XPathFactory.newInstance().newXPath();
+    private boolean queryable = true;
+
+    private DomSnapshot(Map<String, Object> root, IntFunction<WebElement> resolver,
+                        Collection<String> styleProperties) {
+        this.resolver = resolver;
+        this.styleProperties = Set.copyOf(styleProperties);
+        try {
+            this.document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        document.appendChild(read(root));
+        this.live = new WebElement[nodes.size()];
+    }
+
+    /** Captures the current document, including the computed values of {@code styleProperties}. */
+    @SuppressWarnings("unchecked")
+    static DomSnapshot capture(WebDriver driver, Collection<String> styleProperties) {
+        JavascriptExecutor browser = (JavascriptExecutor) driver;
+        String id = "capture-" + CAPTURES.incrementAndGet();
+        Map<String, Object> root = (Map<String, Object>) browser.executeScript(CAPTURE_JS,
+                List.copyOf(styleProperties), id);
+        return of(root, index -> {
+            if (browser.executeScript(RESOLVE_JS, id, index) instanceof WebElement element) {
+                return element;
+            }
+            throw new StaleElementReferenceException("The document of snapshot " + id + " has gone, or the page"
+                    + " has dropped its elements for newer captures");
+        }, styleProperties);
+    }
+
+    /** Builds a snapshot from the capture script's result tree; {@code resolver} fetches an element by index. */
+    static DomSnapshot of(Map<String, Object> root, IntFunction<WebElement> resolver,
+                          Collection<String> styleProperties) {
+        return new DomSnapshot(root, resolver, styleProperties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Element read(Map<String, Object> raw) {
+        int index = ((Number) raw.get("i")).intValue();
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (List<String> attribute : (List<List<String>>) raw.get("a")) {
+            attributes.put(attribute.get(0), attribute.get(1));
+        }
+        Map<String, String> styles = new LinkedHashMap<>();
+        ((Map<String, Object>) raw.getOrDefault("s", Map.of())).forEach((name, value) -> styles.put(name, String.valueOf(value)));
+        List<Object> children = new ArrayList<>();
+        while (nodes.size() <= index) {
+            nodes.add(null);
+            dom.add(null);
+        }
+        Element element = createElement((String) raw.get("t"));
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            setAttribute(element, attribute.getKey(), attribute.getValue());
+        }
+        element.setUserData(INDEX, index, null);
+        dom.set(index, element);
+        for (Object child : (List<Object>) raw.get("k")) {
+            if (child instanceof Map<?, ?> map) {
+                Element childElement = read((Map<String, Object>) map);
+                element.appendChild(childElement);
+                children.add(childElement.getUserData(INDEX));
+            } else {
+                element.appendChild(document.createTextNode(String.valueOf(child)));
+                children.add(String.valueOf(child));
+            }
+        }
+        nodes.set(index, new Node((String) raw.get("t"), attributes, children, (String) raw.getOrDefault("x", ""),
+                styles, !Boolean.FALSE.equals(raw.get("e")), Boolean.TRUE.equals(raw.get("c"))));
+        return element;
+    }
+
+    private Element createElement(String tag) {
+        try {
+            return document.createElement(tag);
+        } catch (DOMException e) {
+            // Not a valid XML name; keep the element for reads but stop answering queries
+            queryable = false;
+            return document.createElement("invalid-name");
+        }
+    }
+
+    private void setAttribute(Element element, String name, String value) {
+        try {
+            element.setAttribute(name, value);
+            if (name.equals("id")) {
+                element.setIdAttribute(name, true);
+            }
+        } catch (DOMException e) {
+            // Framework attributes such as '@click' cannot be expressed in XPath either
+        }
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Indexes of the elements matching {@code by} under the element at {@code scope} (or the whole
+     * document), in document order; empty when the locator cannot be answered in-process.
+     */
+    Optional<List<Integer>> findAll(By by, int scope) {
+        if (!queryable || !(by instanceof By.Remotable)) {
+            return Optional.empty();
+        }
+        Map<String, Object> locator = JsLocators.toJson(by);
+        String value = String.valueOf(locator.get("value"));
+        return switch (String.valueOf(locator.get("using"))) {
+            case "xpath" -> evaluate(value, scope == DOCUMENT ? document : dom.get(scope), DOCUMENT);
+            case "css selector", "tag name" -> CssToXPath.translate(value).flatMap(x -> evaluate(x, document, scope));
+            case "link text" -> Optional.of(links(scope, value, true));
+            case "partial link text" -> Optional.of(links(scope, value, false));
+            default -> Optional.empty();
+        };
+    }
+
+    private Optional<List<Integer>> evaluate(String expression, org.w3c.dom.Node context, int within) {
+        NodeList found;
+        try {
+            found = (NodeList) xpath.evaluate(expression, context, XPathConstants.NODESET);
+        } catch (XPathExpressionException e) {
+            // Invalid or non-node-set expression: let the browser report it
+            return Optional.empty();
+        }
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < found.getLength(); i++) {
+            if (found.item(i) instanceof Element element && isWithin(element, within)) {
+                indexes.add((Integer) element.getUserData(INDEX));
+            }
+        }
+        return Optional.of(indexes);
+    }
+
+    private boolean isWithin(Element element, int scope) {
+        if (scope == DOCUMENT) {
+            return true;
+        }
+        Element root = dom.get(scope);
+        for (org.w3c.dom.Node parent = element.getParentNode(); parent != null; parent = parent.getParentNode()) {
+            if (parent == root) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Integer> links(int scope, String text, boolean exact) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (node.tag().equals("a") && isWithin(dom.get(i), scope)
+                    && (exact ? node.text().equals(text) : node.text().contains(text))) {
+                indexes.add(i);
+            }
+        }
+        return indexes;
+    }
+
+    /** The browser's element at {@code index}, fetched on first use. */
+    synchronized WebElement live(int index) {
+        if (live[index] == null) {
+            live[index] = resolver.apply(index);
+        }
+        return live[index];
+    }
+
+    String tagName(int index) {
+        return nodes.get(index).tag();
+    }
+
+    /** Rendered text, as {@code getText} reports it; empty for elements that are not rendered. */
+    String text(int index) {
+        return nodes.get(index).text();
+    }
+
+    boolean hasAttribute(int index, String name) {
+        return nodes.get(index).attributes().containsKey(name);
+    }
+
+    String attribute(int index, String name) {
+        return nodes.get(index).attributes().get(name);
+    }
+
+    boolean enabled(int index) {
+        return nodes.get(index).enabled();
+    }
+
+    boolean selected(int index) {
+        return nodes.get(index).selected();
+    }
+
+    boolean hasStyle(String property) {
+        return styleProperties.contains(property);
+    }
+
+    String style(int index, String property) {
+        return nodes.get(index).styles().get(property);
+    }
+
+    String textContent(int index) {
+        StringBuilder out = new StringBuilder();
+        appendText(index, out);
+        return out.toString();
+    }
+
+    private void appendText(int index, StringBuilder out) {
+        for (Object child : nodes.get(index).children()) {
+            if (child instanceof Integer element) {
+                appendText(element, out);
+            } else {
+                out.append(child);
+            }
+        }
+    }
+
+    /** Serialises like the browser's {@code outerHTML}. */
+    String outerHtml(int index) {
+        StringBuilder out = new StringBuilder();
+        serialize(index, out);
+        return out.toString();
+    }
+
+    String innerHtml(int index) {
+        StringBuilder out = new StringBuilder();
+        serializeChildren(index, out);
+        return out.toString();
+    }
+
+    private void serialize(int index, StringBuilder out) {
+        Node node = nodes.get(index);
+        out.append('<').append(node.tag());
+        node.attributes().forEach((name, value) -> out.append(' ').append(name).append("=\"")
+                .append(escape(value, true)).append('"'));
+        out.append('>');
+        if (VOID_ELEMENTS.contains(node.tag())) {
+            return;
+        }
+        serializeChildren(index, out);
+        out.append("</").append(node.tag()).append('>');
+    }
+
+    private void serializeChildren(int index, StringBuilder out) {
+        Node node = nodes.get(index);
+        for (Object child : node.children()) {
+            if (child instanceof Integer element) {
+                serialize(element, out);
+            } else if (RAW_TEXT_ELEMENTS.contains(node.tag())) {
+                out.append(child);
+            } else {
+                out.append(escape((String) child, false));
+            }
+        }
+    }
+
+    private static String escape(String value, boolean attribute) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '\u00a0' -> out.append("&nbsp;");
+                case '"' -> out.append(attribute ? "&quot;" : "\"");
+                case '<' -> out.append(attribute ? "<" : "&lt;");
+                case '>' -> out.append(attribute ? ">" : "&gt;");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.snapshot;
+
+import com.example.wait.NetworkActivity;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-only query mode for assertion-heavy steps. The first lookup captures the whole document
+ * in one round trip ({@link DomSnapshot}); later {@code findElement}/{@code findElements} calls
+ * and text, attribute and captured-style reads are answered in-process from that snapshot.
+ *
+ * <pre>
+ * WebDriver page = SnapshotDriver.wrap(driver, "color");
+ * page.get("https://example.com/");
+ * String heading = page.findElement(By.tagName("h1")).getText();   // one capture, then local
+ * </pre>
+ *
+ * The snapshot is dropped on navigation (including script-initiated navigation, when DevTools is
+ * available), on {@code executeScript}, window or frame switches, actions and element
+ * interactions. Locators the snapshot cannot evaluate, and lookups that find nothing, go to the
+ * browser with the usual implicit wait. Changes a page makes to itself without navigating are not
+ * detected; use the wrapper on pages that are static while being inspected, or call
+ * {@link #invalidate()}.
+ */
+public class SnapshotDriver implements WebDriver, JavascriptExecutor, TakesScreenshot, HasCapabilities,
+        Interactive, WrapsDriver {
+
+    private final WebDriver driver;
+    private final List<String> styleProperties;
+    private final Optional<NetworkActivity> activity;
+    private DomSnapshot snapshot;
+    private long navigationsAtCapture;
+    private int captures;
+
+    private SnapshotDriver(WebDriver driver, List<String> styleProperties) {
+        this.driver = driver;
+        this.styleProperties = styleProperties;
+        this.activity = NetworkActivity.of(driver);
+    }
+
+    /** Wraps {@code driver}; {@code styleProperties} are the computed styles to capture for {@code getCssValue}. */
+    public static SnapshotDriver wrap(WebDriver driver, String... styleProperties) {
+        return new SnapshotDriver(driver, List.of(styleProperties));
+    }
+
+    /** Drops the current snapshot; the next lookup captures a fresh one. */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /** Number of snapshots captured so far. */
+    public int captures() {
+        return captures;
+    }
+
+    boolean isCurrent(DomSnapshot candidate) {
+        return candidate != null && candidate == snapshot && navigations() == navigationsAtCapture;
+    }
+
+    private long navigations() {
+        return activity.map(NetworkActivity::mainFrameNavigations).orElse(0L);
+    }
+
+    private DomSnapshot snapshot() {
+        if (!isCurrent(snapshot)) {
+            long navigations = navigations();
+            snapshot = DomSnapshot.capture(driver, styleProperties);
+            navigationsAtCapture = navigations;
+            captures++;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return findElement(by, null);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return findElements(by, null);
+    }
+
+    WebElement findElement(By by, SnapshotElement scope) {
+        Optional<List<WebElement>> found = fromSnapshot(by, scope);
+        if (found.isPresent()) {
+            return found.get().get(0);
+        }
+        return new SnapshotElement(this, scope == null ? driver.findElement(by) : scope.getWrappedElement().findElement(by));
+    }
+
+    List<WebElement> findElements(By by, SnapshotElement scope) {
+        Optional<List<WebElement>> found = fromSnapshot(by, scope);
+        if (found.isPresent()) {
+            return found.get();
+        }
+        List<WebElement> live = scope == null ? driver.findElements(by) : scope.getWrappedElement().findElements(by);
+        List<WebElement> elements = new ArrayList<>(live.size());
+        for (WebElement element : live) {
+            elements.add(new SnapshotElement(this, element));
+        }
+        return elements;
+    }
+
+    /** Non-empty matches from the snapshot, or empty when the browser has to answer. */
+    private Optional<List<WebElement>> fromSnapshot(By by, SnapshotElement scope) {
+        if (scope != null && !isCurrent(scope.snapshot())) {
+            return Optional.empty();
+        }
+        DomSnapshot current = snapshot();
+        Optional<List<Integer>> indexes = current.findAll(by, scope == null ? DomSnapshot.DOCUMENT : scope.index());
+        if (indexes.isEmpty()) {
+            return Optional.empty();
+        }
+        if (indexes.get().isEmpty()) {
+            // The page may have moved on since the capture; recapture on the next lookup
+            invalidate();
+            return Optional.empty();
+        }
+        List<WebElement> elements = new ArrayList<>(indexes.get().size());
+        for (int index : indexes.get()) {
+            elements.add(new SnapshotElement(this, current, index));
+        }
+        return Optional.of(elements);
+    }
+
+    @Override
+    public void get(String url) {
+        invalidate();
+        driver.get(url);
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return driver.getCurrentUrl();
+    }
+
+    @Override
+    public String getTitle() {
+        return driver.getTitle();
+    }
+
+    @Override
+    public String getPageSource() {
+        return driver.getPageSource();
+    }
+
+    @Override
+    public void close() {
+        invalidate();
+        driver.close();
+    }
+
+    @Override
+    public void quit() {
+        invalidate();
+        driver.quit();
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return driver.getWindowHandles();
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return driver.getWindowHandle();
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        invalidate();
+        return driver.switchTo();
+    }
+
+    @Override
+    public Navigation navigate() {
+        invalidate();
+        return driver.navigate();
+    }
+
+    @Override
+    public Options manage() {
+        return driver.manage();
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        invalidate();
+        return ((JavascriptExecutor) driver).executeScript(script, args);
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        invalidate();
+        return ((JavascriptExecutor) driver).executeAsyncScript(script, args);
+    }
+
+    @Override
+    public void perform(Collection<Sequence> actions) {
+        invalidate();
+        ((Interactive) driver).perform(actions);
+    }
+
+    @Override
+    public void resetInputState() {
+        invalidate();
+        ((Interactive) driver).resetInputState();
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return ((TakesScreenshot) driver).getScreenshotAs(target);
+    }
+
+    @Override
+    public Capabilities getCapabilities() {
+        return ((HasCapabilities) driver).getCapabilities();
+    }
+
+    @Override
+    public WebDriver getWrappedDriver() {
+        return driver;
+    }
+}
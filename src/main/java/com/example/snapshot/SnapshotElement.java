@@ -0,0 +1,222 @@
+package com.example.snapshot;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Element handed out by a {@link SnapshotDriver}. While its snapshot is current, tag, text,
+ * attribute, style and state reads are answered from the snapshot; geometry, visibility and
+ * anything the snapshot did not capture go to the browser. Interactions go to the browser and
+ * invalidate the snapshot.
+ *
+ * The browser's element behind a snapshot element is only fetched when something has to go to
+ * the browser. Elements found by the browser rather than the snapshot carry no snapshot and
+ * always read live.
+ */
+final class SnapshotElement implements WebElement, WrapsElement {
+
+    /**
+     * {@code getAttribute} names answered from the element's live property rather than its
+     * markup; the snapshot holds markup only, so these are read from the browser.
+     */
+    private static final Set<String> PROPERTY_BACKED = Set.of("value", "checked", "selected", "href", "src",
+            "action", "disabled", "readonly", "multiple", "required", "hidden", "index", "class", "style");
+
+    private final SnapshotDriver owner;
+    private final DomSnapshot snapshot;
+    private final int index;
+    private final WebElement live;
+
+    SnapshotElement(SnapshotDriver owner, DomSnapshot snapshot, int index) {
+        this.owner = owner;
+        this.snapshot = snapshot;
+        this.index = index;
+        this.live = null;
+    }
+
+    SnapshotElement(SnapshotDriver owner, WebElement live) {
+        this.owner = owner;
+        this.snapshot = null;
+        this.index = DomSnapshot.DOCUMENT;
+        this.live = live;
+    }
+
+    DomSnapshot snapshot() {
+        return snapshot;
+    }
+
+    int index() {
+        return index;
+    }
+
+    private boolean fromSnapshot() {
+        return snapshot != null && owner.isCurrent(snapshot);
+    }
+
+    /** The browser's element; fetched from the page on first use if this one came from the snapshot. */
+    private WebElement live() {
+        return live != null ? live : snapshot.live(index);
+    }
+
+    @Override
+    public WebElement getWrappedElement() {
+        return live();
+    }
+
+    @Override
+    public void click() {
+        owner.invalidate();
+        live().click();
+    }
+
+    @Override
+    public void submit() {
+        owner.invalidate();
+        live().submit();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        owner.invalidate();
+        live().sendKeys(keysToSend);
+    }
+
+    @Override
+    public void clear() {
+        owner.invalidate();
+        live().clear();
+    }
+
+    @Override
+    public String getTagName() {
+        return fromSnapshot() ? snapshot.tagName(index) : live().getTagName();
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        if (!fromSnapshot()) {
+            return live().getAttribute(name);
+        }
+        String lower = name.toLowerCase(Locale.ROOT);
+        return switch (lower) {
+            case "outerhtml" -> snapshot.outerHtml(index);
+            case "innerhtml" -> snapshot.innerHtml(index);
+            case "textcontent" -> snapshot.textContent(index);
+            default -> PROPERTY_BACKED.contains(lower) ? live().getAttribute(name) : snapshot.attribute(index, lower);
+        };
+    }
+
+    @Override
+    public String getDomAttribute(String name) {
+        return fromSnapshot() ? snapshot.attribute(index, name.toLowerCase(Locale.ROOT)) : live().getDomAttribute(name);
+    }
+
+    @Override
+    public String getDomProperty(String name) {
+        return live().getDomProperty(name);
+    }
+
+    @Override
+    public String getAriaRole() {
+        return live().getAriaRole();
+    }
+
+    @Override
+    public String getAccessibleName() {
+        return live().getAccessibleName();
+    }
+
+    @Override
+    public boolean isSelected() {
+        return fromSnapshot() ? snapshot.selected(index) : live().isSelected();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return fromSnapshot() ? snapshot.enabled(index) : live().isEnabled();
+    }
+
+    @Override
+    public String getText() {
+        return fromSnapshot() ? snapshot.text(index) : live().getText();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return owner.findElements(by, this);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return owner.findElement(by, this);
+    }
+
+    @Override
+    public SearchContext getShadowRoot() {
+        return live().getShadowRoot();
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return live().isDisplayed();
+    }
+
+    @Override
+    public Point getLocation() {
+        return live().getLocation();
+    }
+
+    @Override
+    public Dimension getSize() {
+        return live().getSize();
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return live().getRect();
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        if (fromSnapshot() && snapshot.hasStyle(propertyName)) {
+            return snapshot.style(index, propertyName);
+        }
+        return live().getCssValue(propertyName);
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return live().getScreenshotAs(target);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof SnapshotElement element && snapshot != null && element.snapshot == snapshot) {
+            return index == element.index;
+        }
+        if (other instanceof WrapsElement wrapper) {
+            return live().equals(wrapper.getWrappedElement());
+        }
+        return live().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return live().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return live != null ? "snapshot of " + live : "snapshot of <" + snapshot.tagName(index) + "> #" + index;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.tabs;
+
+import com.example.net.FetchInterceptor;
+import com.example.wait.MeasuredWait;
+import com.example.wait.PageContracts;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Checks many pages in one browser session by loading them in several tabs at once, instead of
+ * one browser per concurrent page. Each tab costs a renderer, not a whole Chrome.
+ *
+ * {@link #check} keeps up to {@code maxTabs} pages loading ({@code -Dbrowser.tabs}, default 4).
+ * It runs the check on whichever page is ready first and then loads the next URL into the tab
+ * that page freed. Pages are ready as {@link PageContracts#loaded} defines it. Checks run one at
+ * a time, since the session can only look at one window; while a check runs, the other tabs
+ * keep loading.
+ *
+ * Every switch of the session's current window goes through {@link #in}, so code on other
+ * threads sharing the group never finds itself in the wrong tab. Suited to read-mostly
+ * checks: tabs share cookies and storage. {@link #close} closes the extra tabs and returns to
+ * the window the session started in.
+ *
+ * Request interception ({@link FetchInterceptor}: replay, recording, request blocking) only
+ * reaches the tab the session started in. While it is on, every page loads there, one after
+ * another, rather than letting extra tabs go to the live network unrecorded.
+ */
+public final class TabGroup implements AutoCloseable {
+
+    public static final int DEFAULT_TABS = Integer.getInteger("browser.tabs", 4);
+
+    private static final Duration POLL = Duration.ofMillis(50);
+
+    /** What to assert on one loaded page; the driver is switched to its tab. */
+    @FunctionalInterface
+    public interface Check {
+        void check(String url, WebDriver driver) throws Exception;
+    }
+
+    /** Outcome for one URL; {@code failure} is null if the page loaded and its check passed. */
+    public record Page(String url, Duration elapsed, Throwable failure) {
+
+        public boolean passed() {
+            return failure == null;
+        }
+
+        @Override
+        public String toString() {
+            return (passed() ? "✓ " : "✗ ") + url + " in " + elapsed.toMillis() + " ms" + (passed() ? "" : ": " + failure);
+        }
+    }
+
+    /** A tab's current page and when it must be ready. */
+    private record Loading(int index, String url, long startedNanos, long deadlineNanos) {
+    }
+
+    private final WebDriver driver;
+    private final int maxTabs;
+    private final Duration timeout;
+    private final String home;
+    private final List<String> opened = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public TabGroup(WebDriver driver, Duration timeout) {
+        this(driver, DEFAULT_TABS, timeout);
+    }
+
+    public TabGroup(WebDriver driver, int maxTabs, Duration timeout) {
+        if (maxTabs < 1) {
+            throw new IllegalArgumentException("maxTabs must be at least 1, was " + maxTabs);
+        }
+        this.driver = driver;
+        this.maxTabs = maxTabs;
+        this.timeout = timeout;
+        this.home = driver.getWindowHandle();
+    }
+
+    /** Loads and checks every URL; one {@link Page} per URL, in input order. */
+    public List<Page> check(List<String> urls, Check check) {
+        Page[] pages = new Page[urls.size()];
+        Map<String, Loading> tabs = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            int width = FetchInterceptor.intercepting(driver) ? 1 : maxTabs;
+            int next = 0;
+            while (next < urls.size() && tabs.size() < width) {
+                String handle = tabs.isEmpty() ? home : tab(tabs.size() - 1);
+                tabs.put(handle, start(handle, next, urls.get(next)));
+                next++;
+            }
+            while (!tabs.isEmpty()) {
+                String handle = firstReady(tabs);
+                Loading page = tabs.remove(handle);
+                pages[page.index()] = run(handle, page, check);
+                if (next < urls.size()) {
+                    tabs.put(handle, start(handle, next, urls.get(next)));
+                    next++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return List.of(pages);
+    }
+
+    /** Runs {@code work} with the session switched to the tab {@code handle}. */
+    public <T> T in(String handle, Function<WebDriver, T> work) {
+        lock.lock();
+        try {
+            driver.switchTo().window(handle);
+            return work.apply(driver);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The {@code n}th extra tab, opening it on first use. */
+    private String tab(int n) {
+        if (n < opened.size()) {
+            return opened.get(n);
+        }
+        String handle = driver.switchTo().newWindow(WindowType.TAB).getWindowHandle();
+        opened.add(handle);
+        return handle;
+    }
+
+    private Loading start(String handle, int index, String url) {
+        long started = System.nanoTime();
+        try {
+            in(handle, session -> {
+                PageContracts.start(session, url);
+                return null;
+            });
+        } catch (WebDriverException e) {
+            // Shows up as this page never becoming ready
+        }
+        return new Loading(index, url, started, started + timeout.toNanos());
+    }
+
+    /** The tab to check next: the first one whose page is ready or out of time. */
+    private String firstReady(Map<String, Loading> tabs) {
+        ExpectedCondition<String> anyReady = new ExpectedCondition<>() {
+            @Override
+            public String apply(WebDriver session) {
+                for (Map.Entry<String, Loading> tab : tabs.entrySet()) {
+                    if (System.nanoTime() > tab.getValue().deadlineNanos() || ready(tab.getKey(), tab.getValue())) {
+                        return tab.getKey();
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public String toString() {
+                return "first ready of " + tabs.size() + " tab(s)";
+            }
+        };
+        Map.Entry<String, Loading> earliest = tabs.entrySet().stream()
+                .min(Map.Entry.comparingByValue(Comparator.comparingLong(Loading::deadlineNanos)))
+                .orElseThrow();
+        do {
+            try {
+                return new MeasuredWait(driver, timeout, POLL).until(anyReady);
+            } catch (TimeoutException e) {
+                // A deadline learned from earlier runs passed before any tab's own; keep waiting
+            }
+        } while (System.nanoTime() <= earliest.getValue().deadlineNanos());
+        // The earliest tab is out of time; run() reports it as not ready
+        return earliest.getKey();
+    }
+
+    private boolean ready(String handle, Loading page) {
+        try {
+            return in(handle, session -> PageContracts.loaded(page.url()).apply(session));
+        } catch (WebDriverException e) {
+            // Mid-navigation; ask again on the next round
+            return false;
+        }
+    }
+
+    private Page run(String handle, Loading page, Check check) {
+        try {
+            if (!ready(handle, page)) {
+                throw new TimeoutException("Page did not become ready within " + timeout.toSeconds() + " second(s) in its tab");
+            }
+            in(handle, session -> {
+                try {
+                    check.check(page.url(), session);
+                    return null;
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CheckFailed(e);
+                }
+            });
+            return new Page(page.url(), Duration.ofNanos(System.nanoTime() - page.startedNanos()), null);
+        } catch (RuntimeException | AssertionError e) {
+            Throwable failure = e instanceof CheckFailed ? e.getCause() : e;
+            return new Page(page.url(), Duration.ofNanos(System.nanoTime() - page.startedNanos()), failure);
+        }
+    }
+
+    /** Carries a checked exception from a {@link Check} out of {@link #in}. */
+    private static final class CheckFailed extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        CheckFailed(Exception cause) {
+            super(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            for (String handle : opened) {
+                try {
+                    driver.switchTo().window(handle);
+                    driver.close();
+                } catch (NoSuchWindowException e) {
+                    // Closed by the page itself
+                }
+            }
+            opened.clear();
+            driver.switchTo().window(home);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.wait;
+
+import com.example.metrics.WaitStats;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * {@link WebDriverWait} that reports every {@link #until} to {@link WaitStats}: how long it
+ * blocked, when the condition first held and how long it slept after the last failed check.
+ * Use it wherever a {@code WebDriverWait} would be created.
+ *
+ * Deadline and poll interval adapt to how long the same wait took in earlier runs (see
+ * {@link WaitHistory}); the timeout passed in is the upper bound and applies until there is
+ * enough history.
+ */
+public class MeasuredWait extends WebDriverWait {
+
+    final WebDriver driver;
+    final Duration timeout;
+    final Duration sleep;
+    final WaitStats.Kind kind;
+
+    /** Deadline of the wait in progress, at most {@link #timeout}. */
+    Duration deadline;
+
+    public MeasuredWait(WebDriver driver, Duration timeout) {
+        this(driver, timeout, Duration.ofMillis(DEFAULT_SLEEP_TIMEOUT));
+    }
+
+    public MeasuredWait(WebDriver driver, Duration timeout, Duration sleep) {
+        this(driver, timeout, sleep, WaitStats.Kind.EXPLICIT);
+    }
+
+    MeasuredWait(WebDriver driver, Duration timeout, Duration sleep, WaitStats.Kind kind) {
+        super(driver, timeout, sleep);
+        this.driver = driver;
+        this.timeout = timeout;
+        this.sleep = sleep;
+        this.kind = kind;
+        this.deadline = timeout;
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        WaitHistory history = WaitHistory.of(driver);
+        String key = WaitHistory.key(driver, isTrue);
+        deadline = history.deadline(key, timeout);
+        withTimeout(deadline);
+        pollingEvery(history.pollInterval(key, sleep));
+        WaitStats.Span span = WaitStats.begin(driver, kind, deadline);
+        boolean satisfied = false;
+        try {
+            V value = super.until(new Checked<>(isTrue, span));
+            satisfied = true;
+            return value;
+        } finally {
+            history.record(key, span.end(satisfied));
+            withTimeout(timeout);
+            pollingEvery(sleep);
+            deadline = timeout;
+        }
+    }
+
+    @Override
+    protected RuntimeException timeoutException(String message, Throwable lastException) {
+        if (deadline.compareTo(timeout) < 0) {
+            message += String.format(" (adaptive deadline from wait history, configured %d second(s); "
+                    + "-Dwait.adaptive=off to disable)", timeout.getSeconds());
+        }
+        return super.timeoutException(message, lastException);
+    }
+
+    /** Reports each evaluation; keeps the condition's {@code toString} for timeout messages. */
+    private record Checked<V>(Function<? super WebDriver, V> condition, WaitStats.Span span)
+            implements Function<WebDriver, V> {
+
+        @Override
+        public V apply(WebDriver driver) {
+            long started = System.nanoTime();
+            boolean satisfied = false;
+            try {
+                V value = condition.apply(driver);
+                satisfied = value != null && !Boolean.FALSE.equals(value);
+                return value;
+            } finally {
+                span.checked(started, satisfied);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return condition.toString();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.wait;
+
+import com.example.browser.Cdp;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Push-fed view of a session's network traffic, built from CDP {@code Network.*} and
+ * {@code Page.lifecycleEvent} notifications. Reading it costs no WebDriver round trip.
+ *
+ * Requests that stay open longer than five seconds (beacons, long polls, event
+ * streams) are not counted as in flight, so they cannot hold a page "busy" forever.
+ */
+public class NetworkActivity {
+
+    private static final Map<WebDriver, Optional<NetworkActivity>> ATTACHED = new WeakHashMap<>();
+    private static final Duration LONG_REQUEST = Duration.ofSeconds(5);
+
+    private final Map<String, Long> inflight = new ConcurrentHashMap<>();
+    private volatile long lastActivity = System.nanoTime();
+    private volatile String mainFrameId;
+    private volatile String lastLifecycleEvent = "";
+    private final AtomicLong navigations = new AtomicLong();
+
+    private NetworkActivity() {
+    }
+
+    /**
+     * Returns the tracker for this session, attaching to DevTools on first use, or empty
+     * when the browser does not expose DevTools.
+     */
+    public static Optional<NetworkActivity> of(WebDriver driver) {
+        WebDriver target = Cdp.unwrap(driver);
+        synchronized (ATTACHED) {
+            return ATTACHED.computeIfAbsent(target, d -> Cdp.devTools(d).map(NetworkActivity::attach));
+        }
+    }
+
+    private static NetworkActivity attach(DevTools devTools) {
+        NetworkActivity activity = new NetworkActivity();
+        devTools.addListener(Cdp.event("Network.requestWillBeSent"), params -> {
+            activity.inflight.put(String.valueOf(params.get("requestId")), System.nanoTime());
+            activity.touch();
+        });
+        devTools.addListener(Cdp.event("Network.loadingFinished"), activity::finished);
+        devTools.addListener(Cdp.event("Network.loadingFailed"), activity::finished);
+        devTools.addListener(Cdp.event("Page.frameNavigated"), params -> {
+            Object frame = params.get("frame");
+            if (frame instanceof Map<?, ?> f && f.get("parentId") == null) {
+                activity.mainFrameId = String.valueOf(f.get("id"));
+                activity.navigations.incrementAndGet();
+            }
+        });
+        devTools.addListener(Cdp.event("Page.lifecycleEvent"), params -> {
+            String frameId = String.valueOf(params.get("frameId"));
+            if (activity.mainFrameId == null || activity.mainFrameId.equals(frameId)) {
+                activity.lastLifecycleEvent = String.valueOf(params.get("name"));
+                activity.touch();
+            }
+        });
+
+        devTools.send(Cdp.command("Network.enable", Map.of()));
+        devTools.send(Cdp.command("Page.enable", Map.of()));
+        devTools.send(Cdp.command("Page.setLifecycleEventsEnabled", Map.of("enabled", true)));
+        devTools.send(Cdp.command("Page.addScriptToEvaluateOnNewDocument",
+                Map.of("source", ReadyConditions.PROBE_INSTALL_JS)));
+        return activity;
+    }
+
+    private void finished(Map<String, Object> params) {
+        if (inflight.remove(String.valueOf(params.get("requestId"))) != null) {
+            touch();
+        }
+    }
+
+    private void touch() {
+        lastActivity = System.nanoTime();
+    }
+
+    /** Number of short-lived requests still waiting for a response. */
+    public int inflightRequests() {
+        long cutoff = System.nanoTime() - LONG_REQUEST.toNanos();
+        return (int) inflight.values().stream().filter(started -> started > cutoff).count();
+    }
+
+    /** Time since a request last started or finished, or the main frame changed lifecycle state. */
+    public Duration sinceLastActivity() {
+        return Duration.ofNanos(System.nanoTime() - lastActivity);
+    }
+
+    /** Name of the latest main-frame lifecycle event, e.g. {@code load} or {@code networkAlmostIdle}. */
+    public String lastLifecycleEvent() {
+        return lastLifecycleEvent;
+    }
+
+    /** Number of main-frame document changes seen since attaching, including script-initiated ones. */
+    public long mainFrameNavigations() {
+        return navigations.get();
+    }
+
+    /** True once at most {@code maxInflight} requests are open and nothing changed for {@code quiet}. */
+    public boolean isIdle(Duration quiet, int maxInflight) {
+        return inflightRequests() <= maxInflight && sinceLastActivity().compareTo(quiet) >= 0;
+    }
+}
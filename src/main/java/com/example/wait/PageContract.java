@@ -0,0 +1,94 @@
+package com.example.wait;
+
+import com.example.net.RequestBlocker;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * What "ready" means for a page the suite navigates to. After a {@code get} or
+ * {@code navigate().to} of a matching URL, {@link PageContracts} waits until every selector
+ * matches in the <em>new</em> document, so tests can run with the {@code eager} or {@code none}
+ * page-load strategy and still never look at a half-built page.
+ *
+ * Contracts only list what tests need; images, ads and third-party scripts are not waited for.
+ * Small static pages additionally wait until parsing has finished ({@code parsed}), which
+ * costs nothing there and guarantees the full body text is present.
+ *
+ * The tests that know a site declare its contracts and {@link #register} them before they
+ * navigate; pages without one load as the page-load strategy dictates.
+ */
+public final class PageContract {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    private static final Map<String, PageContract> REGISTERED = new LinkedHashMap<>();
+
+    private final String name;
+    private final Pattern url;
+    private final boolean parsed;
+    private final List<String> selectors;
+
+    /**
+     * A contract named {@code name} (it appears in wait reports and history keys) for the URLs
+     * matching {@code urlGlob} ({@code *} and {@code ?} globs).
+     */
+    public PageContract(String name, String urlGlob, boolean parsed, String... selectors) {
+        this.name = name;
+        this.url = RequestBlocker.glob(urlGlob);
+        this.parsed = parsed;
+        this.selectors = List.of(selectors);
+    }
+
+    /**
+     * Makes {@code contracts} known to every session; the first registered contract whose URL
+     * matches wins. Registering a contract again under the same name replaces it in place.
+     */
+    public static void register(PageContract... contracts) {
+        synchronized (REGISTERED) {
+            for (PageContract contract : contracts) {
+                REGISTERED.put(contract.name, contract);
+            }
+        }
+    }
+
+    /** CSS selectors that must all match; each may be a selector list. */
+    public List<String> selectors() {
+        return selectors;
+    }
+
+    /** Whether the page must also have finished parsing ({@code readyState != 'loading'}). */
+    public boolean parsed() {
+        return parsed;
+    }
+
+    /** The contract for {@code url}, if the page is known. {@code https://host} counts as {@code https://host/}. */
+    public static Optional<PageContract> forUrl(String url) {
+        String normalised = normalise(url);
+        synchronized (REGISTERED) {
+            return REGISTERED.values().stream()
+                    .filter(contract -> contract.url.matcher(normalised).matches())
+                    .findFirst();
+        }
+    }
+
+    private static String normalise(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getHost() != null && (uri.getRawPath() == null || uri.getRawPath().isEmpty())
+                    ? url.replaceFirst("^([^:]+://[^/?#]+)", "$1/") : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
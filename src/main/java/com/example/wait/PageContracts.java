@@ -0,0 +1,161 @@
+package com.example.wait;
+
+import com.example.metrics.WaitStats;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.net.URL;
+import java.time.Duration;
+
+/**
+ * Enforces {@link PageContract}s: every {@code get} and {@code navigate().to} of a known page
+ * returns only once that page's contract holds. Unknown pages return as the page-load strategy
+ * dictates. Use {@link #enforce} on a plain driver, or pass {@link #listener} to the one
+ * decorator a session already has (e.g. {@code CommandMetrics.instrument(driver, listener)}).
+ *
+ * Before navigating, the current document is marked; the contract is not met while the mark is
+ * still visible, so under the {@code none} strategy a wait never passes on the page being left.
+ * A navigation that only changes the fragment keeps the document, so it clears the mark instead.
+ * A contract that is not met within {@link PageContract#TIMEOUT} does not fail the navigation:
+ * the test's own waits decide, and the miss shows up in {@link WaitStats}.
+ */
+public final class PageContracts {
+
+    private static final Duration POLL = Duration.ofMillis(50);
+
+    /** Marks the document unless going to {@code arguments[0]} is a fragment navigation, which keeps it. */
+    private static final String MARK_JS =
+            "var to = new URL(arguments[0], location.href).href;"
+            + "window.__pageContractLeaving ="
+            + "    to.indexOf('#') < 0 || to.split('#')[0] !== location.href.split('#')[0];";
+
+    private static final String START_JS = MARK_JS + "window.location.href = arguments[0];";
+
+    private static final String PARSED_JS =
+            "return !window.__pageContractLeaving && location.href !== 'about:blank'"
+            + "    && document.readyState !== 'loading';";
+
+    private static final String READY_JS =
+            "if (window.__pageContractLeaving) return false;"
+            + "if (arguments[1] && document.readyState === 'loading') return false;"
+            + "return arguments[0].every(function(s) { return document.querySelector(s) !== null; });";
+
+    private PageContracts() {
+    }
+
+    public static WebDriver enforce(WebDriver driver) {
+        return new EventFiringDecorator<>(listener(driver)).decorate(driver);
+    }
+
+    /** Listener that enforces contracts on {@code driver}, which it also uses to poll them. */
+    public static WebDriverListener listener(WebDriver driver) {
+        return new Listener(driver);
+    }
+
+    /** One evaluation of {@code contract} against the current document. */
+    public static ExpectedCondition<Boolean> ready(PageContract contract) {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return Boolean.TRUE.equals(((JavascriptExecutor) driver)
+                        .executeScript(READY_JS, contract.selectors(), contract.parsed()));
+            }
+
+            @Override
+            public String toString() {
+                return "page contract " + contract + " " + contract.selectors();
+            }
+        };
+    }
+
+    /**
+     * Starts loading {@code url} in the current window and returns at once, so several windows of
+     * one session can load in parallel. Follow with {@link #loaded}.
+     */
+    public static void start(WebDriver driver, String url) {
+        ((JavascriptExecutor) driver).executeScript(START_JS, url);
+    }
+
+    /**
+     * Whether the page {@link #start started} in the current window is usable: its contract if
+     * it has one, otherwise parsed. The document being left never counts.
+     */
+    public static ExpectedCondition<Boolean> loaded(String url) {
+        return PageContract.forUrl(url).map(PageContracts::ready).orElseGet(() -> new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(PARSED_JS));
+            }
+
+            @Override
+            public String toString() {
+                return "page parsed at " + url;
+            }
+        });
+    }
+
+    private static final class Listener implements WebDriverListener {
+
+        private final WebDriver driver;
+
+        Listener(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        @Override
+        public void beforeGet(WebDriver target, String url) {
+            leaving(url);
+        }
+
+        @Override
+        public void afterGet(WebDriver target, String url) {
+            await(url);
+        }
+
+        @Override
+        public void beforeTo(WebDriver.Navigation navigation, String url) {
+            leaving(url);
+        }
+
+        @Override
+        public void afterTo(WebDriver.Navigation navigation, String url) {
+            await(url);
+        }
+
+        @Override
+        public void beforeTo(WebDriver.Navigation navigation, URL url) {
+            leaving(url.toString());
+        }
+
+        @Override
+        public void afterTo(WebDriver.Navigation navigation, URL url) {
+            await(url.toString());
+        }
+
+        private void leaving(String url) {
+            if (PageContract.forUrl(url).isEmpty()) {
+                return;
+            }
+            try {
+                ((JavascriptExecutor) driver).executeScript(MARK_JS, url);
+            } catch (WebDriverException e) {
+                // No scriptable document to leave (e.g. an error page); nothing can be mistaken for the target
+            }
+        }
+
+        private void await(String url) {
+            PageContract.forUrl(url).ifPresent(contract -> {
+                try {
+                    new MeasuredWait(driver, PageContract.TIMEOUT, POLL, WaitStats.Kind.PAGE).until(ready(contract));
+                } catch (TimeoutException e) {
+                    // Reported by WaitStats; the test's own waits and assertions decide what it means
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.wait;
+
+import com.example.locate.JsLocators;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Drop-in replacements for the common {@link org.openqa.selenium.support.ui.ExpectedConditions}
+ * that a {@link PushWait} resolves inside the page: one script call installs a
+ * {@code MutationObserver} and returns as soon as the condition holds, instead of a round trip
+ * every 500 ms. Under any other wait they are evaluated like ordinary conditions, one script
+ * call per poll.
+ *
+ * <pre>
+ * wait.until(ExpectedConditions.presenceOfElementLocated(By.name("q")));   // before
+ * wait.until(PushConditions.presenceOfElementLocated(By.name("q")));       // after
+ * </pre>
+ *
+ * Visibility follows computed style and client rects rather than Selenium's full
+ * {@code isDisplayed} atom, like {@code LocatorGroup#awaitClickable}.
+ */
+public final class PushConditions {
+
+    /** Defines {@code __check(kind, argument)}: the value the condition waits for, or null. */
+    static final String CHECK_JS = JsLocators.FIND_ALL_JS
+            + "function __visible(el) {"
+            + "  var style = window.getComputedStyle(el);"
+            + "  return el.getClientRects().length > 0 && style.visibility !== 'hidden'"
+            + "      && style.display !== 'none' && style.opacity !== '0';"
+            + "}"
+            + "function __check(kind, arg) {"
+            + "  var found;"
+            + "  switch (kind) {"
+            + "    case 'presence': found = __findAll(document, arg); return found.length ? found[0] : null;"
+            + "    case 'presenceOfAll': found = __findAll(document, arg); return found.length ? found : null;"
+            + "    case 'visibility': found = __findAll(document, arg);"
+            + "      return found.length && __visible(found[0]) ? found[0] : null;"
+            + "    case 'clickable': found = __findAll(document, arg);"
+            + "      return found.length && __visible(found[0]) && !found[0].disabled ? found[0] : null;"
+            + "    case 'titleContains': return document.title.indexOf(arg) >= 0 ? true : null;"
+            + "    case 'urlContains': return location.href.indexOf(arg) >= 0 ? true : null;"
+            + "  }"
+            + "  throw new Error('Unknown push condition: ' + kind);"
+            + "}";
+
+    /**
+     * Async script: resolves with {@code {value: ...}} once {@code __check} holds, or with null
+     * after {@code arguments[2]} ms. Rechecks on every DOM mutation; conditions that also depend
+     * on layout or the URL are rechecked on transitions, history changes and a 100 ms in-page tick.
+     */
+    static final String AWAIT_JS = CHECK_JS
+            + "var kind = arguments[0], arg = arguments[1], ms = arguments[2], done = arguments[arguments.length - 1];"
+            + "var first = __check(kind, arg);"
+            + "if (first) { done({value: first}); return; }"
+            + "var finished = false, events = ['transitionend', 'animationend', 'load', 'hashchange', 'popstate'];"
+            + "var observer = new MutationObserver(recheck), ticker = null;"
+            + "function finish(value) {"
+            + "  if (finished) return;"
+            + "  finished = true;"
+            + "  observer.disconnect();"
+            + "  clearTimeout(timer);"
+            + "  if (ticker) clearInterval(ticker);"
+            + "  events.forEach(function(e) { window.removeEventListener(e, recheck, true); });"
+            + "  done(value ? {value: value} : null);"
+            + "}"
+            + "function recheck() { var value = __check(kind, arg); if (value) finish(value); }"
+            + "observer.observe(document, {subtree: true, childList: true, attributes: true, characterData: true});"
+            + "events.forEach(function(e) { window.addEventListener(e, recheck, true); });"
+            + "if (kind !== 'presence' && kind !== 'presenceOfAll' && kind !== 'titleContains') {"
+            + "  ticker = setInterval(recheck, 100);"
+            + "}"
+            + "var timer = setTimeout(function() { finish(null); }, ms);";
+
+    private PushConditions() {
+    }
+
+    /** A condition {@link PushWait} can hand to the page; an ordinary {@link ExpectedCondition} otherwise. */
+    public static final class Condition<V> implements ExpectedCondition<V> {
+
+        private final String kind;
+        private final Object argument;
+        private final Function<Object, V> convert;
+        private final String description;
+
+        private Condition(String kind, Object argument, Function<Object, V> convert, String description) {
+            this.kind = kind;
+            this.argument = argument;
+            this.convert = convert;
+            this.description = description;
+        }
+
+        String kind() {
+            return kind;
+        }
+
+        Object argument() {
+            return argument;
+        }
+
+        /** The condition's value from a script result, or null/false if it does not hold. */
+        V convert(Object result) {
+            return convert.apply(result instanceof Map<?, ?> map ? map.get("value") : null);
+        }
+
+        @Override
+        public V apply(WebDriver driver) {
+            Object value = ((JavascriptExecutor) driver).executeScript(
+                    CHECK_JS + "return __check(arguments[0], arguments[1]);", kind, argument);
+            return convert.apply(value);
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    public static Condition<WebElement> presenceOfElementLocated(By locator) {
+        return element("presence", locator, "presence of element located by: " + locator);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Condition<List<WebElement>> presenceOfAllElementsLocatedBy(By locator) {
+        return new Condition<>("presenceOfAll", JsLocators.toJson(locator),
+                value -> value instanceof List<?> list && !list.isEmpty() ? (List<WebElement>) list : null,
+                "presence of any elements located by " + locator);
+    }
+
+    public static Condition<WebElement> visibilityOfElementLocated(By locator) {
+        return element("visibility", locator, "visibility of element located by " + locator);
+    }
+
+    public static Condition<WebElement> elementToBeClickable(By locator) {
+        return element("clickable", locator, "element to be clickable: " + locator);
+    }
+
+    public static Condition<Boolean> titleContains(String title) {
+        return new Condition<>("titleContains", title, Boolean.TRUE::equals,
+                "title to contain \"" + title + "\"");
+    }
+
+    public static Condition<Boolean> urlContains(String fraction) {
+        return new Condition<>("urlContains", fraction, Boolean.TRUE::equals,
+                "url to contain \"" + fraction + "\"");
+    }
+
+    private static Condition<WebElement> element(String kind, By locator, String description) {
+        return new Condition<>(kind, JsLocators.toJson(locator),
+                value -> value instanceof WebElement element ? element : null, description);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.wait;
+
+import com.example.metrics.WaitStats;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Wait that resolves {@link PushConditions} inside the page: each {@link #until} is one
+ * {@code executeAsyncScript} that returns the moment the condition becomes true, so there is no
+ * poll interval to overshoot and no stream of commands to chromedriver while waiting. Any other
+ * condition is polled as by {@link MeasuredWait}.
+ *
+ * A wait longer than {@link #SLICE} is split into several script calls so the session's script
+ * timeout is never hit; a navigation during the wait aborts the script, and the condition is
+ * then awaited again in the new document.
+ */
+public class PushWait extends MeasuredWait {
+
+    static final Duration SLICE = Duration.ofSeconds(10);
+
+    /** Pause before retrying when the page returned early, e.g. while a navigation commits. */
+    private static final Duration RETRY_PAUSE = Duration.ofMillis(100);
+
+    public PushWait(WebDriver driver, Duration timeout) {
+        super(driver, timeout);
+    }
+
+    public PushWait(WebDriver driver, Duration timeout, Duration sleep) {
+        super(driver, timeout, sleep);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        if (isTrue instanceof PushConditions.Condition<?> condition) {
+            return (V) await(condition);
+        }
+        return super.until(isTrue);
+    }
+
+    private <V> V await(PushConditions.Condition<V> condition) {
+        WaitHistory history = WaitHistory.of(driver);
+        String key = WaitHistory.key(driver, condition);
+        deadline = history.deadline(key, timeout);
+        WaitStats.Span span = WaitStats.begin(driver, kind, deadline);
+        boolean satisfied = false;
+        try {
+            long giveUp = System.nanoTime() + deadline.toNanos();
+            WebDriverException last = null;
+            do {
+                long slice = Math.max(0, Math.min(SLICE.toMillis(), (giveUp - System.nanoTime()) / 1_000_000));
+                long started = System.nanoTime();
+                V value = null;
+                try {
+                    value = condition.convert(((JavascriptExecutor) driver).executeAsyncScript(
+                            PushConditions.AWAIT_JS, condition.kind(), condition.argument(), slice));
+                } catch (JavascriptException | ScriptTimeoutException e) {
+                    // The document went away mid-wait, or the script timeout is shorter than the slice
+                    last = e;
+                }
+                boolean met = value != null && !Boolean.FALSE.equals(value);
+                span.checked(started, met);
+                if (met) {
+                    satisfied = true;
+                    return value;
+                }
+                if (System.nanoTime() - started < slice * 1_000_000 && System.nanoTime() < giveUp) {
+                    sleep(RETRY_PAUSE);
+                }
+            } while (System.nanoTime() < giveUp);
+            throw timeoutException(String.format("Expected condition failed: waiting for %s (tried for %d second(s) "
+                    + "with in-page notifications)", condition, deadline.getSeconds()), last);
+        } finally {
+            history.record(key, span.end(satisfied));
+            deadline = timeout;
+        }
+    }
+
+    private static void sleep(Duration pause) {
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.wait;
+
+import com.example.metrics.WaitStats;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.time.Duration;
+
+/**
+ * Drop-in replacement for a fixed {@code Thread.sleep}: returns as soon as the page is
+ * ready, and at the latest after the old sleep duration, without failing the test.
+ *
+ * <pre>
+ * Thread.sleep(3000);                               // before
+ * Readiness.settle(driver, Duration.ofSeconds(3));   // after
+ * </pre>
+ *
+ * Use {@code wait.until(ReadyConditions.pageReady())} instead when an unready page should fail.
+ * Every call is reported to {@link WaitStats} as a {@link WaitStats.Kind#SETTLE settle}.
+ */
+public final class Readiness {
+
+    private static final Duration POLL = Duration.ofMillis(100);
+
+    private Readiness() {
+    }
+
+    /** Waits for {@link ReadyConditions#pageReady()}; returns false if {@code cap} ran out first. */
+    public static boolean settle(WebDriver driver, Duration cap) {
+        return settle(driver, cap, ReadyConditions.pageReady());
+    }
+
+    public static boolean settle(WebDriver driver, Duration cap, ExpectedCondition<Boolean> condition) {
+        try {
+            new MeasuredWait(driver, cap, POLL, WaitStats.Kind.SETTLE).until(condition);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.wait;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link ExpectedCondition}s that report when a page has actually settled, for use with
+ * {@code wait.until(...)} in place of fixed {@code Thread.sleep} calls.
+ *
+ * Network state comes from CDP events ({@link NetworkActivity}); DOM mutations, layout
+ * shifts and running animations are recorded in the page by a small observer script and
+ * read back with a single {@code executeScript} per poll.
+ */
+public final class ReadyConditions {
+
+    static final Duration DEFAULT_NETWORK_QUIET = Duration.ofMillis(500);
+    static final Duration DEFAULT_DOM_QUIET = Duration.ofMillis(300);
+    static final Duration DEFAULT_LAYOUT_QUIET = Duration.ofMillis(300);
+    static final int DEFAULT_MAX_INFLIGHT = 2;
+
+    /** Installs the in-page recorder; safe to run more than once per document. */
+    static final String PROBE_INSTALL_JS =
+            "(function() {"
+            + "  if (window.__readiness) return;"
+            + "  var r = window.__readiness = {lastMutation: performance.now(), lastShift: 0,"
+            + "      lastResize: performance.now(), size: ''};"
+            + "  new MutationObserver(function() { r.lastMutation = performance.now(); })"
+            + "      .observe(document, {subtree: true, childList: true, attributes: true, characterData: true});"
+            + "  try {"
+            + "    new PerformanceObserver(function(list) {"
+            + "      list.getEntries().forEach(function(e) { r.lastShift = Math.max(r.lastShift, e.startTime); });"
+            + "    }).observe({type: 'layout-shift', buffered: true});"
+            + "  } catch (e) {}"
+            + "})();";
+
+    private static final String PROBE_JS = PROBE_INSTALL_JS
+            + "var r = window.__readiness, now = performance.now(), el = document.documentElement;"
+            + "var size = el ? el.scrollWidth + 'x' + el.scrollHeight : '';"
+            + "if (size !== r.size) { r.size = size; r.lastResize = now; }"
+            + "var running = 0;"
+            + "if (document.getAnimations) {"
+            + "  document.getAnimations().forEach(function(a) {"
+            + "    var t = a.effect && a.effect.getComputedTiming ? a.effect.getComputedTiming() : null;"
+            + "    if (a.playState === 'running' && (!t || t.iterations !== Infinity)) running++;"
+            + "  });"
+            + "}"
+            + "var lastResource = 0;"
+            + "performance.getEntriesByType('resource').forEach(function(e) {"
+            + "  lastResource = Math.max(lastResource, e.responseEnd);"
+            + "});"
+            + "return {readyState: document.readyState, sinceMutation: now - r.lastMutation,"
+            + "    sinceLayout: now - Math.max(r.lastShift, r.lastResize), runningAnimations: running,"
+            + "    sinceResource: now - lastResource};";
+
+    private ReadyConditions() {
+    }
+
+    /** No more than two short-lived requests open and no network activity for 500 ms. */
+    public static ExpectedCondition<Boolean> networkIdle() {
+        return networkIdle(DEFAULT_NETWORK_QUIET);
+    }
+
+    public static ExpectedCondition<Boolean> networkIdle(Duration quiet) {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return isNetworkIdle(driver, quiet, null);
+            }
+
+            @Override
+            public String toString() {
+                return "network to be idle for " + quiet.toMillis() + " ms";
+            }
+        };
+    }
+
+    /** No DOM mutation for 300 ms and the document is no longer loading. */
+    public static ExpectedCondition<Boolean> domQuiet() {
+        return domQuiet(DEFAULT_DOM_QUIET);
+    }
+
+    public static ExpectedCondition<Boolean> domQuiet(Duration quiet) {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                Probe probe = Probe.read(driver);
+                return !probe.loading() && probe.sinceMutation >= quiet.toMillis();
+            }
+
+            @Override
+            public String toString() {
+                return "DOM to stop changing for " + quiet.toMillis() + " ms";
+            }
+        };
+    }
+
+    /** No layout shift and no change in document size for 300 ms. */
+    public static ExpectedCondition<Boolean> layoutStable() {
+        return layoutStable(DEFAULT_LAYOUT_QUIET);
+    }
+
+    public static ExpectedCondition<Boolean> layoutStable(Duration quiet) {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return Probe.read(driver).sinceLayout >= quiet.toMillis();
+            }
+
+            @Override
+            public String toString() {
+                return "layout to be stable for " + quiet.toMillis() + " ms";
+            }
+        };
+    }
+
+    /** No finite CSS or Web Animation is still running; infinite spinners are ignored. */
+    public static ExpectedCondition<Boolean> animationsFinished() {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return Probe.read(driver).runningAnimations == 0;
+            }
+
+            @Override
+            public String toString() {
+                return "animations to finish";
+            }
+        };
+    }
+
+    /**
+     * All readiness signals at once: network idle, DOM quiet, layout stable and animations
+     * finished. Costs one {@code executeScript} per poll.
+     */
+    public static ExpectedCondition<Boolean> pageReady() {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                Probe probe = Probe.read(driver);
+                return !probe.loading()
+                        && probe.sinceMutation >= DEFAULT_DOM_QUIET.toMillis()
+                        && probe.sinceLayout >= DEFAULT_LAYOUT_QUIET.toMillis()
+                        && probe.runningAnimations == 0
+                        && isNetworkIdle(driver, DEFAULT_NETWORK_QUIET, probe);
+            }
+
+            @Override
+            public String toString() {
+                return "page to be ready (network idle, DOM quiet, layout stable, animations finished)";
+            }
+        };
+    }
+
+    private static boolean isNetworkIdle(WebDriver driver, Duration quiet, Probe probe) {
+        Optional<NetworkActivity> activity = NetworkActivity.of(driver);
+        if (activity.isPresent()) {
+            return activity.get().isIdle(quiet, DEFAULT_MAX_INFLIGHT);
+        }
+        // Without DevTools, fall back to resource timing: pending requests are invisible,
+        // so only the time since the last completed response is checked
+        Probe p = probe != null ? probe : Probe.read(driver);
+        return "complete".equals(p.readyState) && p.sinceResource >= quiet.toMillis();
+    }
+
+    private record Probe(String readyState, double sinceMutation, double sinceLayout,
+                         long runningAnimations, double sinceResource) {
+
+        @SuppressWarnings("unchecked")
+        static Probe read(WebDriver driver) {
+            Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(PROBE_JS);
+            return new Probe(
+                    String.valueOf(result.get("readyState")),
+                    number(result.get("sinceMutation")),
+                    number(result.get("sinceLayout")),
+                    (long) number(result.get("runningAnimations")),
+                    number(result.get("sinceResource")));
+        }
+
+        boolean loading() {
+            return "loading".equals(readyState);
+        }
+
+        private static double number(Object value) {
+            return value instanceof Number n ? n.doubleValue() : 0;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.wait;
+
+import com.example.browser.Cdp;
+import com.example.metrics.CommandMetrics;
+import com.example.metrics.WaitStats;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How long each wait took to resolve in earlier runs, kept in a small state file so deadlines
+ * adapt to the suite instead of blanket 10 s or 25 s timeouts. A wait is identified by test, call
+ * site (which pins the page in the test's flow) and condition, e.g.
+ * {@code AmazonTest#testAmazonSite | AmazonTest.testAmazonSite:129 | presence of element ...}.
+ *
+ * Once a wait has {@value #MIN_SAMPLES} successful samples (the last {@value #MAX_SAMPLES} are
+ * kept) it
+ *
+ * <ul>
+ *   <li>gives up at p99.9 &times; {@code -Dwait.adaptive.factor} (default 3), but never sooner
+ *       than {@link #FLOOR} nor later than the configured timeout, and</li>
+ *   <li>polls at a quarter of its median, between {@link #MIN_POLL} and the configured interval.</li>
+ * </ul>
+ *
+ * A wait whose last run timed out gets its full configured timeout next time, so a page that
+ * became slower for good is re-learned instead of failing every run.
+ *
+ * The file is {@code -Dwait.history.file} (default {@code ~/.cache/selenium-demo/wait-history.json},
+ * next to the driver cache so CI can keep both; Maven's test runs keep it in {@code target/}
+ * unless overridden); {@code -Dwait.adaptive=off} records history but uses the configured
+ * timeouts. A session can be given a history of its own with {@link #use}, which keeps unit tests
+ * on fake sessions out of the shared file.
+ */
+final class WaitHistory {
+
+    static final int MIN_SAMPLES = 5;
+    static final int MAX_SAMPLES = 50;
+    static final Duration FLOOR = Duration.ofSeconds(2);
+    static final Duration MIN_POLL = Duration.ofMillis(50);
+
+    private static final Json JSON = new Json();
+    private static final Map<WebDriver, WaitHistory> SESSIONS = new WeakHashMap<>();
+
+    private final Path file;
+    private final boolean adaptive;
+    private final double factor;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    /** Successful times to resolve in milliseconds, newest last, and whether the last run timed out. */
+    private static final class Entry {
+        private final Deque<Long> samples = new ArrayDeque<>();
+        private boolean timedOut;
+
+        synchronized List<Long> sorted() {
+            List<Long> sorted = new ArrayList<>(samples);
+            sorted.sort(null);
+            return sorted;
+        }
+
+        synchronized void add(long millis) {
+            samples.addLast(millis);
+            while (samples.size() > MAX_SAMPLES) {
+                samples.removeFirst();
+            }
+            timedOut = false;
+        }
+
+        synchronized boolean timedOut() {
+            return timedOut;
+        }
+
+        synchronized void timedOut(boolean value) {
+            timedOut = value;
+        }
+
+        synchronized Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("samplesMs", List.copyOf(samples));
+            json.put("timedOut", timedOut);
+            return json;
+        }
+    }
+
+    private static final class Shared {
+        static final WaitHistory INSTANCE = new WaitHistory(file(),
+                !"off".equalsIgnoreCase(System.getProperty("wait.adaptive", "on").trim()),
+                Double.parseDouble(System.getProperty("wait.adaptive.factor", "3")));
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::save, "wait-history"));
+        }
+    }
+
+    WaitHistory(Path file, boolean adaptive, double factor) {
+        this.file = file;
+        this.adaptive = adaptive;
+        this.factor = factor;
+        load();
+    }
+
+    static WaitHistory shared() {
+        return Shared.INSTANCE;
+    }
+
+    /** Records and learns the waits on {@code driver} in {@code history} instead of the shared one. */
+    static void use(WebDriver driver, WaitHistory history) {
+        synchronized (SESSIONS) {
+            SESSIONS.put(Cdp.unwrap(driver), history);
+        }
+    }
+
+    /** The history for waits on {@code driver}: its own if it was given one, else the shared one. */
+    static WaitHistory of(WebDriver driver) {
+        WaitHistory own;
+        synchronized (SESSIONS) {
+            own = SESSIONS.get(Cdp.unwrap(driver));
+        }
+        return own != null ? own : shared();
+    }
+
+    private static Path file() {
+        String configured = System.getProperty("wait.history.file");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "selenium-demo", "wait-history.json");
+    }
+
+    /** Key of a wait on {@code driver} for {@code condition}, made at the call site. */
+    static String key(WebDriver driver, Object condition) {
+        return CommandMetrics.testOf(driver) + " | " + WaitStats.callSite() + " | " + describe(condition);
+    }
+
+    /** {@code toString} without what changes between runs: lambda class names and identity hashes. */
+    static String describe(Object condition) {
+        String text = String.valueOf(condition);
+        if (text.contains("$$Lambda")) {
+            return "lambda";
+        }
+        return text.replaceAll("@[0-9a-f]+$", "");
+    }
+
+    /** When to give up on the wait {@code key}; {@code configured} until enough history exists. */
+    Duration deadline(String key, Duration configured) {
+        Entry entry = entries.get(key);
+        if (!adaptive || entry == null || entry.timedOut()) {
+            return configured;
+        }
+        List<Long> sorted = entry.sorted();
+        if (sorted.size() < MIN_SAMPLES) {
+            return configured;
+        }
+        long p999 = sorted.get((int) Math.ceil(0.999 * sorted.size()) - 1);
+        Duration learned = Duration.ofMillis((long) Math.ceil(p999 * factor));
+        return min(configured, learned.compareTo(FLOOR) < 0 ? FLOOR : learned);
+    }
+
+    /** How often to poll the wait {@code key}; {@code configured} until enough history exists. */
+    Duration pollInterval(String key, Duration configured) {
+        Entry entry = entries.get(key);
+        if (!adaptive || entry == null) {
+            return configured;
+        }
+        List<Long> sorted = entry.sorted();
+        if (sorted.size() < MIN_SAMPLES) {
+            return configured;
+        }
+        Duration quarterMedian = Duration.ofMillis(sorted.get(sorted.size() / 2) / 4);
+        return min(configured, quarterMedian.compareTo(MIN_POLL) < 0 ? MIN_POLL : quarterMedian);
+    }
+
+    /** Records one wait: its time to resolve, or a negative value if it never resolved. */
+    void record(String key, long timeToTrueNanos) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        if (timeToTrueNanos < 0) {
+            entry.timedOut(true);
+        } else {
+            entry.add(timeToTrueNanos / 1_000_000);
+        }
+        touched.add(key);
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            Map<String, Object> root = JSON.toType(Files.readString(file), Json.MAP_TYPE);
+            root.forEach((key, raw) -> {
+                Map<String, Object> json = (Map<String, Object>) raw;
+                Entry entry = new Entry();
+                for (Object sample : (List<Object>) json.getOrDefault("samplesMs", List.of())) {
+                    entry.add(((Number) sample).longValue());
+                }
+                entry.timedOut(Boolean.TRUE.equals(json.get("timedOut")));
+                entries.put(key, entry);
+            });
+        } catch (IOException | RuntimeException e) {
+            // A damaged history only costs the configured timeouts for one run
+            System.err.println("Ignoring unreadable wait history " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the waits this JVM ran over the file's current content, so parallel forks sharing
+     * the file lose at most each other's updates to the same wait.
+     */
+    void save() {
+        if (touched.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            WaitHistory current = new WaitHistory(file, adaptive, factor);
+            Map<String, Object> root = new TreeMap<>();
+            current.entries.forEach((key, entry) -> root.put(key, entry.toJson()));
+            touched.forEach(key -> root.put(key, entries.get(key).toJson()));
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "wait-history", ".json");
+            Files.writeString(temp, JSON.toJson(root));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write wait history to " + file + ": " + e.getMessage());
+        }
+    }
+}
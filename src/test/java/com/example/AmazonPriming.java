@@ -0,0 +1,46 @@
+package com.example;
+
+import com.example.browser.PrimedState;
+import com.example.locate.LocatorGroup;
+import com.example.log.StepLog;
+import com.example.wait.Readiness;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Gets a new Amazon session past the "Continue shopping" interstitial. Tests annotated with
+ * {@code @PrimedSession(AmazonPriming.class)} start from the state this leaves behind.
+ */
+public class AmazonPriming implements PrimedState.Setup {
+
+    private static final LocatorGroup CONTINUE_SHOPPING = LocatorGroup.of("amazon.continue-shopping",
+            By.xpath("//button[@alt='Continue shopping']"),
+            By.xpath("//button[@class='a-button-text' and contains(text(),'Continue shopping')]"),
+            By.xpath("//button[contains(text(),'Continue shopping')]"));
+
+    @Override
+    public List<String> origins() {
+        return List.of("https://www.amazon.in");
+    }
+
+    @Override
+    public void prime(WebDriver driver, StepLog log) {
+        driver.get("https://www.amazon.in/");
+        Readiness.settle(driver, Duration.ofSeconds(3)); // Allow network + JS load before waiting
+        // All alternatives are checked together against one 10 s deadline
+        WebElement btn = CONTINUE_SHOPPING.awaitClickable(driver, Duration.ofSeconds(10))
+                .map(LocatorGroup.Match::element)
+                .orElse(null);
+        if (btn == null) {
+            log.info("'Continue shopping' button not found - continuing anyway");
+        } else {
+            btn.click();
+            log.info("Clicked 'Continue shopping' button");
+        }
+        Readiness.settle(driver, Duration.ofSeconds(6));
+    }
+}
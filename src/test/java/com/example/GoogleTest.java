@@ -1,13 +1,22 @@
 package com.example;
 
+import com.example.browser.DriverBinaries;
+import com.example.browser.LaunchProfile;
+import com.example.junit.BlockRequests;
+import com.example.junit.BrowserPoolExtension;
+import com.example.junit.ReplayExtension;
+import com.example.log.StepLog;
+import com.example.rows.DataRows;
+import com.example.rows.RowRunner;
+import com.example.wait.PageContract;
+import com.example.wait.PushConditions;
+import com.example.wait.Readiness;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
 import org.openqa.selenium.support.ui.WebDriverWait;
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 import java.time.Duration;
 import java.util.List;
@@ -15,51 +24,42 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(ReplayExtension.class)
+@BlockRequests(resourceTypes = {"Image", "Font", "Media", "Ping"},
+        urlPatterns = {"*/gen_204*", "*/client_204*", "*googletagmanager.com/*", "*doubleclick.net/*"})
 public class GoogleTest {
 
-    private static WebDriver driver;
-    private static WebDriverWait wait;
+    private WebDriver driver;
+    private WebDriverWait wait;
+    private StepLog log;
+
+    @RegisterExtension
+    static final BrowserPoolExtension browsers = new BrowserPoolExtension("google", LaunchProfile.STEALTH::launch,
+            Duration.ofSeconds(25));
 
     @BeforeAll
     public static void setupClass() {
-        WebDriverManager.chromedriver().setup();
+        DriverBinaries.setupChromedriver();
+        PageContract.register(SitePages.GOOGLE_HOME);
     }
 
     @BeforeEach
-    public void setupTest() {
-        ChromeOptions options = new ChromeOptions();
-        // Comment out headless to see the browser
-        options.addArguments("--headless");
-        options.addArguments("--start-maximized");
-        options.addArguments("--disable-blink-features=AutomationControlled");
-        options.addArguments("--headless=new");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--disable-gpu");
-        options.addArguments("--window-size=1920,1080");
-        options.addArguments("--disable-blink-features=AutomationControlled");
-
-        driver = new ChromeDriver(options);
-        wait = new WebDriverWait(driver, Duration.ofSeconds(25));
-    }
-
-    @AfterEach
-    public void teardown() {
-        if (driver != null) {
-            driver.quit();
-        }
+    public void setupTest(WebDriver driver, WebDriverWait wait, StepLog log) {
+        this.driver = driver;
+        this.wait = wait;
+        this.log = log;
     }
 
     @Test
     @Order(1)
     @DisplayName("Test Google homepage loads")
-    public void testGoogleHomepageLoads() throws InterruptedException {
+    public void testGoogleHomepageLoads() {
         driver.get("https://www.google.com");
-        Thread.sleep(3000); // Allow network + JS load before waiting
+        Readiness.settle(driver, Duration.ofSeconds(3)); // Allow network + JS load before waiting
 
         String title = driver.getTitle();
         assertTrue(title.contains("Google"), "Page title should contain 'Google'");
-        System.out.println("✓ Google homepage loaded successfully!");
+        log.info("Google homepage loaded successfully!");
     }
 
     @Test
@@ -69,13 +69,13 @@ public class GoogleTest {
         driver.get("https://www.google.com");
 
         // Wait for search box to be present
-        WebElement searchBox = wait.until(ExpectedConditions.presenceOfElementLocated(
+        WebElement searchBox = wait.until(PushConditions.presenceOfElementLocated(
                 By.name("q")
         ));
 
         assertNotNull(searchBox, "Search box should be present");
         assertTrue(searchBox.isDisplayed(), "Search box should be visible");
-        System.out.println("✓ Search box found and visible!");
+        log.info("Search box found and visible!");
     }
 
 
@@ -86,28 +86,28 @@ public class GoogleTest {
         driver.get("https://www.google.com");
 
         // Wait for the page to load
-        wait.until(ExpectedConditions.presenceOfElementLocated(By.name("q")));
+        wait.until(PushConditions.presenceOfElementLocated(By.name("q")));
 
         // Find "I'm Feeling Lucky" button (it may be hidden initially)
         List<WebElement> buttons = driver.findElements(By.name("btnI"));
 
         assertTrue(buttons.size() > 0, "I'm Feeling Lucky button should exist");
-        System.out.println("✓ I'm Feeling Lucky button found!");
+        log.info("I'm Feeling Lucky button found!");
     }
 
     @Test
     @Order(6)
     @DisplayName("Test Google search with suggestions")
-    public void testSearchSuggestions() throws InterruptedException {
+    public void testSearchSuggestions() {
         driver.get("https://www.google.com");
 
-        WebElement searchBox = wait.until(ExpectedConditions.presenceOfElementLocated(
+        WebElement searchBox = wait.until(PushConditions.presenceOfElementLocated(
                 By.name("q")
         ));
 
         // Type slowly to trigger suggestions
         searchBox.sendKeys("java");
-        Thread.sleep(1000); // Wait for suggestions to appear
+        Readiness.settle(driver, Duration.ofSeconds(1)); // Wait for suggestions to appear
 
         // Check if suggestions dropdown appears
         List<WebElement> suggestions = driver.findElements(
@@ -115,10 +115,10 @@ public class GoogleTest {
         );
 
         if (suggestions.size() > 0) {
-            System.out.println("✓ Search suggestions appeared!");
-            System.out.println("  Found " + suggestions.size() + " suggestions");
+            log.info("Search suggestions appeared!");
+            log.info("Found " + suggestions.size() + " suggestions");
         } else {
-            System.out.println("⚠ No suggestions found (may be blocked or delayed)");
+            log.warn("No suggestions found (may be blocked or delayed)");
         }
     }
 
@@ -130,46 +130,48 @@ public class GoogleTest {
 
         // Find and click Images link
         try {
-            WebElement imagesLink = wait.until(ExpectedConditions.elementToBeClickable(
+            WebElement imagesLink = wait.until(PushConditions.elementToBeClickable(
                     By.linkText("Images")
             ));
             imagesLink.click();
 
             // Wait for Images page to load
-            wait.until(ExpectedConditions.urlContains("images"));
+            wait.until(PushConditions.urlContains("images"));
 
             String currentUrl = driver.getCurrentUrl();
             assertTrue(currentUrl.contains("images"),
                     "Should navigate to Google Images");
-            System.out.println("✓ Google Images link works!");
+            log.info("Google Images link works!");
 
         } catch (Exception e) {
-            System.out.println("⚠ Images link test skipped (element might not be visible)");
+            log.warn("Images link test skipped (element might not be visible)");
         }
     }
 
     @Test
     @Order(8)
     @DisplayName("Test multiple searches")
-    public void testMultipleSearches() {
-        String[] searchTerms = {"Java", "Python", "JavaScript"};
-
-        for (String term : searchTerms) {
+    public void testMultipleSearches(RowRunner rows) {
+        RowRunner.Summary summary = rows.run(DataRows.resource("rows/google-searches.csv"), (row, driver, wait) -> {
+            String term = row.get("term");
             driver.get("https://www.google.com");
 
-            WebElement searchBox = wait.until(ExpectedConditions.presenceOfElementLocated(
+            WebElement searchBox = wait.until(PushConditions.presenceOfElementLocated(
                     By.name("q")
             ));
             searchBox.sendKeys(term);
             searchBox.submit();
 
-            wait.until(ExpectedConditions.titleContains(term));
+            wait.until(PushConditions.titleContains(term));
 
             String title = driver.getTitle();
             assertTrue(title.contains(term),
                     "Title should contain search term: " + term);
-            System.out.println("✓ Search for '" + term + "' successful!");
-        }
+        });
+
+        assertTrue(summary.failed().isEmpty(), summary::toString);
+        summary.results().forEach(result -> log.info(result.toString()));
+        log.info(summary.toString());
     }
 
     @Test
@@ -178,14 +180,12 @@ public class GoogleTest {
     public void testSearchWithEnterKey() {
         driver.get("https://www.google.com");
 
-        WebElement searchBox = wait.until(ExpectedConditions.presenceOfElementLocated(
+        WebElement searchBox = wait.until(PushConditions.presenceOfElementLocated(
                 By.name("q")
         ));
         searchBox.sendKeys("Selenium automation");
         searchBox.sendKeys(Keys.RETURN);
 
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
         wait.until(driver -> {
             String title = driver.getTitle();
             return title.contains("Selenium+automation") || title.contains("Selenium automation");
@@ -194,7 +194,7 @@ public class GoogleTest {
         String currentUrl = driver.getCurrentUrl();
         assertTrue(currentUrl.contains("search"),
                 "Should be on search results page");
-        System.out.println("✓ Search with Enter key works!");
+        log.info("Search with Enter key works!");
     }
 
     @Test
@@ -203,7 +203,7 @@ public class GoogleTest {
     public void testSearchBoxClears() {
         driver.get("https://www.google.com");
 
-        WebElement searchBox = wait.until(ExpectedConditions.presenceOfElementLocated(
+        WebElement searchBox = wait.until(PushConditions.presenceOfElementLocated(
                 By.name("q")
         ));
 
@@ -217,6 +217,6 @@ public class GoogleTest {
         assertEquals("", searchBox.getAttribute("value"),
                 "Search box should be empty after clear");
 
-        System.out.println("✓ Search box clear functionality works!");
+        log.info("Search box clear functionality works!");
     }
 }
\ No newline at end of file
@@ -22,23 +22,41 @@ Priority in decreasing order of selecting elements:
 - By.className("login-btn")
 - driver.findElement(By.tagName("input"))
 - By.xpath("/html/body/div[2]/button")   (absolute xpath)
+
+Measured per strategy and page size by LocatorBenchmark:
+  mvn -Pjmh package -DskipTests && java -jar target/benchmarks.jar LocatorBenchmark
  */
 
 package com.example;
 
+import com.example.browser.DriverBinaries;
+import com.example.browser.LaunchProfile;
+import com.example.junit.BrowserPoolExtension;
+import com.example.junit.ReplayExtension;
+import com.example.log.StepLog;
+import com.example.snapshot.SnapshotDriver;
+import com.example.wait.PageContract;
+import com.example.wait.PushConditions;
+import com.example.wait.PushWait;
+import com.example.wait.Readiness;
 import java.time.Duration;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import java.util.concurrent.TimeUnit;
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.*;
-import io.github.bonigarcia.wdm.WebDriverManager;
 import java.util.*;
 
+@ExtendWith(ReplayExtension.class)
 public class InterviewTest{
-    private static WebDriver driver;
-    private static WebDriverWait wait;
+    private WebDriver driver;
+    private WebDriverWait wait;
+    private StepLog log;
+
+    @RegisterExtension
+    static final BrowserPoolExtension browsers = new BrowserPoolExtension("interview", LaunchProfile.STEALTH::launch);
 
     public static void main(String[] args) {
         System.out.println("Hello Selenium!");
@@ -46,26 +64,16 @@ public class InterviewTest{
 
     @BeforeAll
     public static void setupClass() {
-        WebDriverManager.chromedriver().setup();
+        DriverBinaries.setupChromedriver();
+        PageContract.register(SitePages.EXAMPLE_DOMAIN, SitePages.GOOGLE_HOME);
     }
 
     @BeforeEach
-    public void setup(){
-        ChromeOptions options = new ChromeOptions();
-        // Comment out headless to see the browser during tests
-        options.addArguments("--headless");
-        options.addArguments("--window-size=1920,1080");
-        options.addArguments("--disable-blink-features=AutomationControlled");
-        options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-
-        driver = new ChromeDriver(options);
+    public void setup(WebDriver driver, WebDriverWait wait, StepLog log){
+        this.driver = driver;
+        this.wait = wait;
+        this.log = log;
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-    }
-
-    @AfterEach
-    public void teardown(){
-        if(driver != null) driver.quit();
     }
 
 
@@ -73,44 +81,48 @@ public class InterviewTest{
     @DisplayName("First example")
     public void test1(){
 
-        driver.get("https://example.com/");
-        driver.findElement(By.cssSelector("html"));
-        driver.findElement(By.xpath("//html"));
-        driver.findElement(By.tagName("html"));
+        // Everything up to the click only reads the page: answer it from one DOM snapshot
+        SnapshotDriver page = SnapshotDriver.wrap(driver, "color");
+
+        page.get("https://example.com/");
+        page.findElement(By.cssSelector("html"));
+        page.findElement(By.xpath("//html"));
+        page.findElement(By.tagName("html"));
 
-        driver.findElement(By.cssSelector("html > head"));
-        driver.findElement(By.xpath("//html/head"));
-        driver.findElement(By.tagName("head"));
+        page.findElement(By.cssSelector("html > head"));
+        page.findElement(By.xpath("//html/head"));
+        page.findElement(By.tagName("head"));
 
-        driver.findElement(By.xpath("//body"));
-        driver.findElement(By.tagName("body"));
+        page.findElement(By.xpath("//body"));
+        page.findElement(By.tagName("body"));
 
-        driver.findElement(By.cssSelector("div"));
-        driver.findElement(By.xpath("//div"));
-        driver.findElement(By.tagName("div"));
+        page.findElement(By.cssSelector("div"));
+        page.findElement(By.xpath("//div"));
+        page.findElement(By.tagName("div"));
 
-        driver.findElement(By.cssSelector("div > h1"));
-        driver.findElement(By.xpath("//h1[normalize-space()='Example Domain']"));
-        driver.findElement(By.xpath("//h1[contains(normalize-space(),'Example Domain')]"));
-        driver.findElement(By.xpath("//h1[normalize-space()='Example Domain']"));
-        WebElement h1 = driver.findElement(By.tagName("h1"));
+        page.findElement(By.cssSelector("div > h1"));
+        page.findElement(By.xpath("//h1[normalize-space()='Example Domain']"));
+        page.findElement(By.xpath("//h1[contains(normalize-space(),'Example Domain')]"));
+        page.findElement(By.xpath("//h1[normalize-space()='Example Domain']"));
+        WebElement h1 = page.findElement(By.tagName("h1"));
         String text = h1.getText(), attribute = h1.getAttribute("outerHTML"), css = h1.getCssValue("color");
-        System.out.println(text + " , " + attribute + " , " + css);
+        log.info(text + " , " + attribute + " , " + css);
 
-        driver.findElement(By.cssSelector("div > p")); // only first element
-        List<WebElement> elements = driver.findElements(By.cssSelector("div > p"));  // all such elements
-        driver.findElement(By.xpath("//div/p[1]"));
-        driver.findElement(By.tagName("p"));
+        page.findElement(By.cssSelector("div > p")); // only first element
+        List<WebElement> elements = page.findElements(By.cssSelector("div > p"));  // all such elements
+        page.findElement(By.xpath("//div/p[1]"));
+        page.findElement(By.tagName("p"));
 
-        driver.findElement(By.xpath("//a[normalize-space()='Learn more']"));
-        driver.findElement(By.xpath("//a[normalize-space()='Learn more']"));
-        driver.findElement(By.tagName("a"));
+        page.findElement(By.xpath("//a[normalize-space()='Learn more']"));
+        page.findElement(By.xpath("//a[normalize-space()='Learn more']"));
+        page.findElement(By.tagName("a"));
 
         // for going to next page
-        if (isClickable(driver, By.cssSelector("a[href='https://iana.org/domains/example']"))) {
-            System.out.println("Clickable!");
+        if (isClickable(page, By.cssSelector("a[href='https://iana.org/domains/example']"))) {
+            log.info("Clickable!");
         }
-        driver.findElement(By.cssSelector("a[href='https://iana.org/domains/example']")).click();
+        log.info("DOM snapshots captured: " + page.captures());
+        page.findElement(By.cssSelector("a[href='https://iana.org/domains/example']")).click();
 
     }
 
@@ -118,13 +130,13 @@ public class InterviewTest{
     @Test
     @Order(2)
     @DisplayName("Second example")
-    public void test2() throws InterruptedException{
+    public void test2(){
 
         driver.get("https://www.google.com/");
         WebElement type = driver.findElement(By.name("q"));
         type.clear();
         type.sendKeys("QA automation", Keys.ENTER);
-        Thread.sleep(2000);
+        Readiness.settle(driver, Duration.ofSeconds(2));
 
         Actions actions = new Actions(driver);
 
@@ -151,8 +163,8 @@ public class InterviewTest{
 
     public boolean isClickable(WebDriver driver, By locator) {
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(5));
-            wait.until(ExpectedConditions.elementToBeClickable(locator));
+            WebDriverWait wait = new PushWait(driver, Duration.ofSeconds(5));
+            wait.until(PushConditions.elementToBeClickable(locator));
             return true;
         } catch (Exception e) {
             return false;
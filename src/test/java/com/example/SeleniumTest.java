@@ -1,83 +1,84 @@
 package com.example;
 
+import com.example.browser.DriverBinaries;
+import com.example.browser.LaunchProfile;
+import com.example.junit.BrowserPoolExtension;
+import com.example.junit.ReplayExtension;
+import com.example.log.StepLog;
+import com.example.tabs.TabGroup;
+import com.example.wait.PageContract;
+import com.example.wait.PushConditions;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.support.ui.WebDriverWait;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 import java.time.Duration;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(ReplayExtension.class)
 public class SeleniumTest {
 
-    private static WebDriver driver;
-    private static WebDriverWait wait;
+    private WebDriver driver;
+    private WebDriverWait wait;
+    private StepLog log;
+
+    @RegisterExtension
+    static final BrowserPoolExtension browsers = new BrowserPoolExtension("selenium", LaunchProfile.FAST_HEADLESS::launch);
 
     @BeforeAll
     public static void setupClass() {
         // Setup ChromeDriver once for all tests
-        WebDriverManager.chromedriver().setup();
+        DriverBinaries.setupChromedriver();
+        PageContract.register(SitePages.EXAMPLE_DOMAIN, SitePages.IANA_RESERVED);
     }
 
 
     @BeforeEach
-    public void setupTest() {
-        ChromeOptions options = new ChromeOptions();
-        // Comment out headless to see the browser during tests
-        options.addArguments("--headless");
-        options.addArguments("--window-size=1920,1080");
-        options.addArguments("--disable-blink-features=AutomationControlled");
-        options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-
-        driver = new ChromeDriver(options);
+    public void setupTest(WebDriver driver, WebDriverWait wait, StepLog log) {
+        // The pool resets cookies, storage, windows and timeouts between tests
+        this.driver = driver;
+        this.wait = wait;
+        this.log = log;
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-    }
-
-    @AfterEach
-    public void teardown() {
-        if (driver != null) {
-            driver.quit();
-        }
     }
 
     @Test
     @DisplayName("Test Example.com page title")
     public void testPageTitle() {
         driver.get("https://example.com");
-        wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+        wait.until(PushConditions.presenceOfElementLocated(By.tagName("body")));
 
         String title = driver.getTitle();
         assertEquals("Example Domain", title, "Page title should be 'Example Domain'");
-        System.out.println("✓ Page title test passed!");
+        log.info("Page title test passed!");
     }
 
     @Test
     @DisplayName("Test heading text on Example.com")
     public void testHeadingText() {
         driver.get("https://example.com");
-        WebElement heading = wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("h1")));
+        WebElement heading = wait.until(PushConditions.presenceOfElementLocated(By.tagName("h1")));
 
         assertEquals("Example Domain", heading.getText(), "Heading should contain 'Example Domain'");
-        System.out.println("✓ Heading text test passed!");
+        log.info("Heading text test passed!");
     }
 
     @Test
     @DisplayName("Test page body text content")
     public void testPageTextContent() {
         driver.get("https://example.com");
-        WebElement body = wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+        WebElement body = wait.until(PushConditions.presenceOfElementLocated(By.tagName("body")));
 
         String bodyText = body.getText();
         assertTrue(bodyText.contains("This domain is for use in documentation"),
                 "Page should contain expected text about documentation");
-        System.out.println("✓ Page text content test passed!");
+        log.info("Page text content test passed!");
     }
 
     @Test
@@ -85,39 +86,39 @@ public class SeleniumTest {
     public void testNavigation() {
         // First visit example.com
         driver.get("https://example.com");
-        wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+        wait.until(PushConditions.presenceOfElementLocated(By.tagName("body")));
 
         String firstUrl = driver.getCurrentUrl();
         assertTrue(firstUrl.contains("example.com"), "Should be on example.com");
 
         // Navigate to IANA (related to example.com)
         driver.get("https://www.iana.org/domains/reserved");
-        wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("h1")));
+        wait.until(PushConditions.presenceOfElementLocated(By.tagName("h1")));
 
         String currentUrl = driver.getCurrentUrl();
         assertTrue(currentUrl.contains("iana.org"),
                 "URL should contain iana.org, but was: " + currentUrl);
-        System.out.println("✓ Navigation test passed! Current URL: " + currentUrl);
+        log.info("Navigation test passed! Current URL: " + currentUrl);
     }
 
     @Test
     @DisplayName("Test page has content")
     public void testPageHasContent() {
         driver.get("https://example.com");
-        WebElement body = wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+        WebElement body = wait.until(PushConditions.presenceOfElementLocated(By.tagName("body")));
 
         assertNotNull(body, "Page should have body content");
         String bodyText = body.getText();
         assertTrue(bodyText.length() > 0, "Body should have text");
         assertTrue(bodyText.contains("Example Domain"), "Body should contain heading text");
-        System.out.println("✓ Page content test passed!");
+        log.info("Page content test passed!");
     }
 
     @Test
     @DisplayName("Test page structure")
     public void testPageStructure() {
         driver.get("https://example.com");
-        wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+        wait.until(PushConditions.presenceOfElementLocated(By.tagName("body")));
 
         // Verify h1 exists
         WebElement heading = driver.findElement(By.tagName("h1"));
@@ -127,6 +128,26 @@ public class SeleniumTest {
         WebElement body = driver.findElement(By.tagName("body"));
         assertTrue(body.isDisplayed(), "Body should be displayed");
 
-        System.out.println("✓ Page structure test passed!");
+        log.info("Page structure test passed!");
+    }
+
+    @Test
+    @DisplayName("Test pages checked side by side in tabs of one browser")
+    public void testPagesInTabs() {
+        List<String> urls = List.of("https://example.com", "https://www.iana.org/domains/reserved");
+
+        List<TabGroup.Page> pages;
+        try (TabGroup tabs = new TabGroup(driver, Duration.ofSeconds(20))) {
+            pages = tabs.check(urls, (url, tab) -> {
+                WebElement heading = tab.findElement(By.tagName("h1"));
+                assertFalse(heading.getText().isBlank(), "Heading should have text on " + url);
+                assertTrue(tab.getCurrentUrl().contains(url.contains("iana") ? "iana.org" : "example.com"),
+                        "Tab should show " + url + ", but was: " + tab.getCurrentUrl());
+            });
+        }
+
+        pages.forEach(page -> log.info(page.toString()));
+        assertTrue(pages.stream().allMatch(TabGroup.Page::passed), "Every page should pass: " + pages);
+        log.info("Tab group test passed!");
     }
-}
\ No newline at end of file
+}
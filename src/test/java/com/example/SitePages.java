@@ -0,0 +1,27 @@
+package com.example;
+
+import com.example.wait.PageContract;
+
+/**
+ * Readiness contracts for the pages the end-to-end tests visit. Each test class registers the
+ * ones it navigates to in its {@code @BeforeAll}.
+ */
+public final class SitePages {
+
+    /** Search box, or the captcha form Amazon shows instead. */
+    public static final PageContract AMAZON_HOME = new PageContract("AMAZON_HOME",
+            "https://www.amazon.in/", false, "#twotabsearchtextbox, form[action*='validateCaptcha']");
+    public static final PageContract AMAZON_SEARCH_RESULTS = new PageContract("AMAZON_SEARCH_RESULTS",
+            "https://www.amazon.in/s?*", false, ".s-main-slot");
+    public static final PageContract AMAZON_PRODUCT = new PageContract("AMAZON_PRODUCT",
+            "https://www.amazon.in/*dp/*", false, "#productTitle");
+    public static final PageContract GOOGLE_HOME = new PageContract("GOOGLE_HOME",
+            "https://www.google.com/", false, "textarea[name='q'], input[name='q']");
+    public static final PageContract EXAMPLE_DOMAIN = new PageContract("EXAMPLE_DOMAIN",
+            "https://example.com/", true, "h1", "p");
+    public static final PageContract IANA_RESERVED = new PageContract("IANA_RESERVED",
+            "https://www.iana.org/domains/reserved", true, "h1");
+
+    private SitePages() {
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.browser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BrowserPoolTest {
+
+    private final List<FakeDriver> launched = new ArrayList<>();
+
+    private BrowserPool newPool(int maxIdle, int maxLeases) {
+        return newPool(maxIdle, maxLeases, new SessionLimiter(4, Duration.ofSeconds(5)));
+    }
+
+    private BrowserPool newPool(int maxIdle, int maxLeases, SessionLimiter limiter) {
+        return BrowserPool.create("test", () -> {
+            FakeDriver fake = FakeDriver.create();
+            launched.add(fake);
+            return fake.driver();
+        }, maxIdle, maxLeases, limiter);
+    }
+
+    @Test
+    @DisplayName("Released session is reset and leased again")
+    public void testReuse() {
+        try (BrowserPool pool = newPool(2, 10)) {
+            WebDriver first = pool.lease();
+            pool.release(first);
+            WebDriver second = pool.lease();
+
+            assertSame(first, second, "Warm session should be handed out again");
+            assertEquals(1, pool.launchedCount());
+            assertEquals(1, pool.reusedCount());
+            assertTrue(launched.get(0).calls().contains("deleteAllCookies"), "Release should reset state");
+        }
+    }
+
+    @Test
+    @DisplayName("Broken session is recycled on the next lease")
+    public void testHealthCheck() {
+        try (BrowserPool pool = newPool(2, 10)) {
+            WebDriver first = pool.lease();
+            pool.release(first);
+            launched.get(0).breakSession();
+
+            WebDriver second = pool.lease();
+
+            assertNotSame(first, second, "Broken session must not be leased");
+            assertTrue(launched.get(0).isQuit(), "Broken session should be quit");
+            assertEquals(2, pool.launchedCount());
+            assertEquals(1, pool.recycledCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Session is retired after its lease limit")
+    public void testMaxLeases() {
+        try (BrowserPool pool = newPool(2, 2)) {
+            WebDriver driver = pool.lease();
+            pool.release(driver);
+            assertSame(driver, pool.lease());
+            pool.release(driver);
+
+            assertTrue(launched.get(0).isQuit(), "Worn-out session should be quit");
+            assertEquals(0, pool.idleCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Session failing the retire check after reset is replaced")
+    public void testRetireWhen() {
+        try (BrowserPool pool = newPool(2, 10)) {
+            List<WebDriver> checked = new ArrayList<>();
+            pool.retireWhen(driver -> checked.add(driver) && checked.size() == 1);
+            WebDriver first = pool.lease();
+            pool.release(first);
+
+            assertTrue(launched.get(0).isQuit(), "Retired session should be quit");
+            assertTrue(launched.get(0).calls().contains("deleteAllCookies"), "Check should run after the reset");
+            assertSame(first, checked.get(0));
+            assertNotSame(first, pool.lease());
+            assertEquals(1, pool.retiredCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing the pool quits parked sessions")
+    public void testClose() {
+        BrowserPool pool = newPool(2, 10);
+        WebDriver driver = pool.lease();
+        pool.release(driver);
+        pool.close();
+
+        assertTrue(launched.get(0).isQuit());
+        assertThrows(IllegalStateException.class, pool::lease);
+    }
+
+    @Test
+    @DisplayName("Session cap evicts idle browsers from other pools")
+    public void testLimiterEvictsIdle() {
+        SessionLimiter limiter = new SessionLimiter(1, Duration.ofSeconds(5));
+        try (BrowserPool first = newPool(2, 10, limiter); BrowserPool second = newPool(2, 10, limiter)) {
+            first.release(first.lease());
+            assertEquals(1, limiter.liveSessions());
+
+            WebDriver driver = second.lease();
+
+            assertNotNull(driver);
+            assertTrue(launched.get(0).isQuit(), "Idle session of the other pool should make room");
+            assertEquals(1, limiter.liveSessions());
+        }
+    }
+
+    @Test
+    @DisplayName("Session cap blocks new launches while every browser is leased")
+    public void testLimiterTimesOut() {
+        SessionLimiter limiter = new SessionLimiter(1, Duration.ofMillis(300));
+        try (BrowserPool pool = newPool(2, 10, limiter)) {
+            WebDriver held = pool.lease();
+
+            assertThrows(IllegalStateException.class, pool::lease);
+
+            pool.release(held);
+            assertSame(held, pool.lease(), "Released session should be reused without a new slot");
+        }
+    }
+}
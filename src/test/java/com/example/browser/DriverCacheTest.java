@@ -0,0 +1,68 @@
+package com.example.browser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DriverCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private Path binary(String content) throws IOException {
+        Path file = Files.createDirectories(dir.resolve("downloads")).resolve("chromedriver");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Stored driver is found again for the same browser version")
+    public void testStoreAndLookup() throws IOException {
+        DriverCache cache = new DriverCache(dir.resolve("cache"));
+        Path stored = cache.store("120.0.6099.109", "120.0.6099.109", binary("driver-120"));
+
+        assertEquals(Optional.of(stored), new DriverCache(dir.resolve("cache")).lookup("120.0.6099.109"));
+        assertEquals("driver-120", Files.readString(stored));
+    }
+
+    @Test
+    @DisplayName("A patch update of Chrome reuses the driver cached for the same major version")
+    public void testMajorFallback() throws IOException {
+        DriverCache cache = new DriverCache(dir.resolve("cache"));
+        Path stored = cache.store("120.0.6099.109", "120.0.6099.109", binary("driver-120"));
+
+        assertEquals(Optional.of(stored), cache.lookup("120.0.6099.216"));
+        assertEquals(Optional.empty(), cache.lookup("121.0.6167.85"));
+    }
+
+    @Test
+    @DisplayName("A binary whose checksum no longer matches is not used")
+    public void testChecksum() throws IOException {
+        DriverCache cache = new DriverCache(dir.resolve("cache"));
+        Path stored = cache.store("120.0.6099.109", "120.0.6099.109", binary("driver-120"));
+
+        Files.writeString(stored, "driver-666");
+        Files.setLastModifiedTime(stored, FileTime.fromMillis(Files.getLastModifiedTime(stored).toMillis() + 1000));
+
+        assertEquals(Optional.empty(), cache.lookup("120.0.6099.109"));
+    }
+
+    @Test
+    @DisplayName("Nothing is cached or found for a browser version that was not detected")
+    public void testUnknownVersion() throws IOException {
+        DriverCache cache = new DriverCache(dir.resolve("cache"));
+        Path driver = binary("driver-any");
+
+        assertThrows(IllegalArgumentException.class, () -> cache.store("unknown", "120.0.6099.109", driver));
+        assertEquals(Optional.empty(), cache.lookup("unknown"));
+        assertFalse(Files.exists(dir.resolve("cache")));
+    }
+}
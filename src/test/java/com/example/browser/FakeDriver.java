@@ -0,0 +1,91 @@
+package com.example.browser;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory stand-in for a browser session so pool bookkeeping can be tested without Chrome.
+ * Every call is recorded; {@link #breakSession()} makes further commands fail like a dead browser.
+ */
+public class FakeDriver implements InvocationHandler {
+
+    private final List<String> calls = new ArrayList<>();
+    private volatile boolean broken;
+    private volatile boolean quit;
+
+    public static FakeDriver create() {
+        return new FakeDriver();
+    }
+
+    public WebDriver driver() {
+        return proxy(WebDriver.class, JavascriptExecutor.class);
+    }
+
+    public void breakSession() {
+        broken = true;
+    }
+
+    public boolean isQuit() {
+        return quit;
+    }
+
+    public synchronized List<String> calls() {
+        return List.copyOf(calls);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        switch (name) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "FakeDriver@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                break;
+        }
+        synchronized (this) {
+            calls.add(name);
+        }
+        if (name.equals("quit")) {
+            quit = true;
+            return null;
+        }
+        if (broken || quit) {
+            throw new WebDriverException("Session is gone");
+        }
+        switch (name) {
+            case "getWindowHandles":
+                return new LinkedHashSet<>(Set.of("window-1"));
+            case "getWindowHandle":
+                return "window-1";
+            case "executeScript":
+                return 1L;
+            default:
+                break;
+        }
+        Class<?> type = method.getReturnType();
+        if (type.isInterface()) {
+            return proxy(type);
+        }
+        return null;
+    }
+
+    private <T> T proxy(Class<T> type, Class<?>... extra) {
+        Class<?>[] types = new Class<?>[extra.length + 1];
+        types[0] = type;
+        System.arraycopy(extra, 0, types, 1, extra.length);
+        return type.cast(Proxy.newProxyInstance(FakeDriver.class.getClassLoader(), types, this));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.browser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.PageLoadStrategy;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LaunchProfileTest {
+
+    @SuppressWarnings("unchecked")
+    private static List<String> args(LaunchProfile profile) {
+        Map<String, Object> chrome = (Map<String, Object>) profile.options().asMap().get("goog:chromeOptions");
+        return (List<String>) chrome.get("args");
+    }
+
+    @AfterEach
+    public void clearOverride() {
+        System.clearProperty("browser.profile");
+        System.clearProperty("browser.page.load");
+    }
+
+    @Test
+    @DisplayName("No profile passes the same flag twice")
+    public void testNoDuplicateFlags() {
+        for (LaunchProfile profile : LaunchProfile.values()) {
+            List<String> args = args(profile);
+            assertEquals(args.size(), new HashSet<>(args).size(), profile + " repeats a flag: " + args);
+        }
+    }
+
+    @Test
+    @DisplayName("Headless profiles share the fast flags; debug runs a visible browser")
+    public void testProfiles() {
+        assertTrue(args(LaunchProfile.FAST_HEADLESS).containsAll(LaunchProfile.FAST_FLAGS));
+        assertTrue(args(LaunchProfile.STEALTH).containsAll(LaunchProfile.FAST_FLAGS));
+        assertTrue(args(LaunchProfile.STEALTH).contains("--disable-blink-features=AutomationControlled"));
+        assertFalse(args(LaunchProfile.FAST_HEADLESS).contains("--disable-blink-features=AutomationControlled"));
+        assertFalse(args(LaunchProfile.DEBUG).contains("--headless=new"));
+    }
+
+    @Test
+    @DisplayName("-Dbrowser.profile overrides the profile a class asked for")
+    public void testOverride() {
+        assertEquals(LaunchProfile.STEALTH, LaunchProfile.STEALTH.effective());
+
+        System.setProperty("browser.profile", "debug");
+        assertEquals(LaunchProfile.DEBUG, LaunchProfile.FAST_HEADLESS.effective());
+
+        System.setProperty("browser.profile", "fast-headless");
+        assertEquals(LaunchProfile.FAST_HEADLESS, LaunchProfile.STEALTH.effective());
+    }
+
+    @Test
+    @DisplayName("Navigation waits for DOMContentLoaded unless -Dbrowser.page.load says otherwise")
+    public void testPageLoadStrategy() {
+        assertEquals(PageLoadStrategy.EAGER, LaunchProfile.STEALTH.options().getCapability("pageLoadStrategy"));
+
+        System.setProperty("browser.page.load", "none");
+        assertEquals(PageLoadStrategy.NONE, LaunchProfile.FAST_HEADLESS.options().getCapability("pageLoadStrategy"));
+    }
+}
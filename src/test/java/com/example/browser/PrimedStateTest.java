@@ -0,0 +1,81 @@
+package com.example.browser;
+
+import com.example.log.StepLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrimedStateTest {
+
+    static final AtomicInteger PRIMED = new AtomicInteger();
+
+    static class CountingSetup implements PrimedState.Setup {
+        @Override
+        public List<String> origins() {
+            return List.of("https://shop.test");
+        }
+
+        @Override
+        public void prime(WebDriver driver, StepLog log) {
+            PRIMED.incrementAndGet();
+            driver.get("https://shop.test/");
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("State is stale once too old or once the setup's code changed")
+    public void testFreshness() {
+        String fingerprint = PrimedState.fingerprint(CountingSetup.class, "");
+        assertEquals(fingerprint, PrimedState.fingerprint(CountingSetup.class, ""));
+        assertNotEquals(fingerprint, PrimedState.fingerprint(CountingSetup.class, "2"));
+        assertNotEquals(fingerprint, PrimedState.fingerprint(PrimedStateTest.class, ""));
+
+        PrimedState state = new PrimedState(fingerprint, Instant.now().minus(Duration.ofHours(2)), List.of(), Map.of());
+        assertTrue(state.isFresh(fingerprint, Duration.ofHours(12)));
+        assertFalse(state.isFresh(fingerprint, Duration.ofHours(1)));
+        assertFalse(state.isFresh("edited", Duration.ofHours(12)));
+    }
+
+    @Test
+    @DisplayName("Saved state loads back with cookies and storage")
+    public void testSaveAndLoad() {
+        Path file = dir.resolve("state").resolve("setup.json");
+        Map<String, Object> origins = Map.of("https://shop.test",
+                Map.of("local", Map.of("consent", "yes"), "session", Map.of(), "indexedDB", List.of()));
+        new PrimedState("abc", Instant.now(), List.of(Map.of("name", "session-id", "value", "42", "domain", "shop.test")), origins)
+                .save(file);
+
+        PrimedState loaded = PrimedState.load(file).orElseThrow();
+        assertTrue(loaded.isFresh("abc", Duration.ofMinutes(1)));
+        assertTrue(loaded.restoreScript().contains("\"consent\": \"yes\"") || loaded.restoreScript().contains("\"consent\":\"yes\""),
+                loaded.restoreScript());
+        assertTrue(PrimedState.load(dir.resolve("missing.json")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Sessions without CDP run the setup every time")
+    public void testWithoutCdp() throws Exception {
+        FakeDriver fake = FakeDriver.create();
+        StepLog log = new StepLog("PrimedStateTest#testWithoutCdp");
+        int before = PRIMED.get();
+
+        assertNull(PrimedState.prime(fake.driver(), CountingSetup.class, Duration.ofHours(1), log));
+        assertNull(PrimedState.prime(fake.driver(), CountingSetup.class, Duration.ofHours(1), log));
+
+        assertEquals(before + 2, PRIMED.get());
+        assertTrue(fake.calls().contains("get"));
+    }
+}
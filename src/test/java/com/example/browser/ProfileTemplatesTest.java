@@ -0,0 +1,103 @@
+package com.example.browser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfileTemplatesTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    public void pinChromeVersion() {
+        System.setProperty("browser.chrome.version", "120.0.6099.109");
+    }
+
+    @AfterEach
+    public void clearChromeVersion() {
+        System.clearProperty("browser.chrome.version");
+    }
+
+    /** Stands in for Chrome's first run: profile files plus the lock files a live browser leaves. */
+    private String firstRun(Path profile) {
+        builds.incrementAndGet();
+        try {
+            Files.writeString(profile.resolve("Local State"), "{}");
+            Files.writeString(profile.resolve("Default").resolve("Cookies"), "cookies");
+            Files.writeString(profile.resolve("SingletonLock"), "host-1234");
+            Files.createDirectories(profile.resolve("Crashpad"));
+            Files.writeString(profile.resolve("Crashpad").resolve("settings.dat"), "x");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return "120.0.6099.109";
+    }
+
+    @Test
+    @DisplayName("The template is built once, with first run done, and without the browser's lock files")
+    public void testTemplate() throws IOException {
+        ProfileTemplates templates = new ProfileTemplates(dir.resolve("profiles"), dir.resolve("ram"));
+
+        Path template = templates.template(LaunchProfile.FAST_HEADLESS, this::firstRun);
+
+        assertEquals(dir.resolve("profiles"), template.getParent());
+        assertTrue(template.getFileName().toString().matches("fast_headless-\\d+"), template.toString());
+        assertTrue(Files.exists(template.resolve("First Run")));
+        assertTrue(Files.readString(template.resolve("Default").resolve("Preferences")).contains("has_seen_welcome_page"));
+        assertTrue(Files.exists(template.resolve("Default").resolve("Cookies")));
+        assertFalse(Files.exists(template.resolve("SingletonLock")));
+        assertFalse(Files.exists(template.resolve("Crashpad")));
+        assertTrue(ProfileTemplates.current(template));
+
+        assertSame(template, templates.template(LaunchProfile.FAST_HEADLESS, this::firstRun));
+        new ProfileTemplates(dir.resolve("profiles"), dir.resolve("ram")).template(LaunchProfile.FAST_HEADLESS, this::firstRun);
+        assertEquals(1, builds.get(), "A current template on disk is reused");
+
+        System.setProperty("browser.chrome.version", "121.0.6167.85");
+        assertFalse(ProfileTemplates.current(template), "A Chrome update makes the template stale");
+        Path rebuilt = new ProfileTemplates(dir.resolve("profiles"), dir.resolve("ram"))
+                .template(LaunchProfile.FAST_HEADLESS, profile -> firstRun(profile).replace("120.0.6099.109", "121.0.6167.85"));
+        assertNotEquals(template, rebuilt, "A rebuild goes into a directory of its own");
+        assertTrue(Files.exists(template.resolve("Default").resolve("Cookies")), "JVMs may still be copying the old one");
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    @DisplayName("Each session gets its own copy, deleted in the background once discarded")
+    public void testCopy() throws Exception {
+        Path ram = Files.createDirectories(dir.resolve("ram"));
+        ProfileTemplates templates = new ProfileTemplates(dir.resolve("profiles"), ram);
+        Path template = templates.template(LaunchProfile.FAST_HEADLESS, this::firstRun);
+
+        Path first = templates.copy(template);
+        Path second = templates.copy(template);
+
+        assertNotEquals(first, second);
+        assertEquals(ram, first.getParent());
+        assertTrue(first.getFileName().toString().startsWith(ProfileTemplates.CLONE_PREFIX));
+        assertEquals("cookies", Files.readString(first.resolve("Default").resolve("Cookies")));
+        assertFalse(Files.exists(first.resolve("template.json")));
+
+        templates.discard(first);
+        for (int i = 0; i < 100 && Files.exists(first); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(Files.exists(first), "Discarded copy should be deleted");
+        assertTrue(Files.exists(second));
+        assertEquals(Set.of(second), templates.clones());
+    }
+}
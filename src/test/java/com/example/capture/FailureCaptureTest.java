@@ -0,0 +1,65 @@
+package com.example.capture;
+
+import com.example.browser.FakeDriver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FailureCaptureTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("The ring keeps the newest entries, oldest first")
+    public void testRing() {
+        FailureCapture.Ring<Integer> ring = new FailureCapture.Ring<>(3);
+        assertEquals(List.of(), ring.snapshot());
+
+        for (int i = 1; i <= 5; i++) {
+            ring.add(i);
+        }
+        assertEquals(List.of(3, 4, 5), ring.snapshot());
+
+        ring.clear();
+        ring.add(6);
+        assertEquals(List.of(6), ring.snapshot());
+    }
+
+    @Test
+    @DisplayName("Steps are marked per session, and a failure is written in the background with the last of them")
+    public void testCapture() throws Exception {
+        WebDriver driver = FakeDriver.create().driver();
+        for (int i = 1; i <= FailureCapture.STEPS + 5; i++) {
+            FailureCapture.step(driver, "step " + i);
+        }
+        List<FailureCapture.Marker> steps = FailureCapture.steps(driver);
+        assertEquals(FailureCapture.STEPS, steps.size());
+        assertEquals("step 6", steps.get(0).label());
+        assertNull(steps.get(0).url(), "A page that cannot be read still gets its label marked");
+
+        Optional<Path> first = FailureCapture.capture(driver, "FakeTest#testFails[1]", new AssertionError("boom"), dir);
+        Optional<Path> second = FailureCapture.capture(driver, "FakeTest#testFails[1]", new AssertionError("again"), dir);
+
+        assertEquals(Optional.of(dir.resolve("FakeTest_testFails_1_")), first);
+        assertEquals(Optional.of(dir.resolve("FakeTest_testFails_1_-2")), second);
+        Path failure = second.get().resolve("failure.txt");
+        for (int i = 0; i < 100 && !Files.exists(failure); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(Files.readString(failure).contains("AssertionError: again"));
+        assertTrue(Files.readString(first.get().resolve("steps.json")).contains("step " + (FailureCapture.STEPS + 5)));
+        assertFalse(Files.exists(first.get().resolve("screenshot.png")), "The fake browser cannot take screenshots");
+
+        FailureCapture.clear(driver);
+        assertEquals(List.of(), FailureCapture.steps(driver));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.direct;
+
+import com.example.browser.FakeDriver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectDriverTest {
+
+    @Test
+    @DisplayName("Sessions without DevTools, or without the switch, keep their driver")
+    public void testWrapFallsBack() {
+        WebDriver driver = FakeDriver.create().driver();
+
+        assertSame(driver, DirectDriver.wrap(driver));
+        assertSame(driver, DirectDriver.wrapIfEnabled(driver));
+    }
+
+    @Test
+    @DisplayName("Script arguments pass by value or as remote objects; driver-only elements send the script to the driver")
+    public void testArguments() {
+        DirectElement element = new DirectElement(null, "remote-1");
+
+        Optional<List<Map<String, Object>>> arguments = DirectDriver.arguments(new Object[]{"text", 3L, null, element, List.of(1, 2)});
+        assertTrue(arguments.isPresent());
+        assertEquals(Map.of("value", "text"), arguments.get().get(0));
+        assertEquals(Map.of("value", 3L), arguments.get().get(1));
+        assertTrue(arguments.get().get(2).containsKey("value"));
+        assertNull(arguments.get().get(2).get("value"));
+        assertEquals(Map.of("objectId", "remote-1"), arguments.get().get(3));
+        assertEquals(Map.of("value", List.of(1, 2)), arguments.get().get(4));
+
+        assertTrue(DirectDriver.arguments(new Object[]{new RemoteWebElement()}).isEmpty());
+        assertTrue(DirectDriver.arguments(new Object[]{List.of(element)}).isEmpty(), "Nested elements cannot be sent by value");
+    }
+
+    @Test
+    @DisplayName("Script results come back in W3C shapes, with parked nodes as elements")
+    public void testDecode() {
+        WebElement first = new RemoteWebElement();
+        WebElement second = new RemoteWebElement();
+        List<WebElement> nodes = List.of(first, second);
+
+        Object decoded = DirectDriver.decode(Arrays.asList(
+                Map.of(DirectDriver.NODE, 1L), 2.0, 2.5, "text", null,
+                Map.of("inner", List.of(Map.of(DirectDriver.NODE, 0L)))), nodes);
+
+        List<?> list = (List<?>) decoded;
+        assertSame(second, list.get(0));
+        assertEquals(2L, list.get(1), "Whole numbers are longs, as the driver returns them");
+        assertEquals(2.5, list.get(2));
+        assertEquals("text", list.get(3));
+        assertNull(list.get(4));
+        assertSame(first, ((List<?>) ((Map<?, ?>) list.get(5)).get("inner")).get(0));
+    }
+
+    @Test
+    @DisplayName("get returns once the new document is loaded, and gives up at the session's page load timeout")
+    public void testGetWaitsForLoad() {
+        FakeCdp cdp = new FakeCdp();
+        AtomicInteger polls = new AtomicInteger();
+        cdp.on("Page.navigate", params -> Map.of("frameId", FakeCdp.TARGET, "loaderId", "loader-1"))
+                .on("Runtime.evaluate", params -> String.valueOf(params.get("expression")).contains("readyState")
+                        ? remote(polls.incrementAndGet() < 4 ? "leaving" : "complete") : remote(null));
+        WebDriver driver = DirectDriver.wrap(cdp.driver());
+        assertInstanceOf(DirectDriver.class, driver);
+
+        driver.get("https://example.com/");
+        assertEquals(4, polls.get(), "get should poll until the new document is complete");
+
+        cdp.on("Runtime.evaluate", params -> remote("leaving"));
+        cdp.pageLoadTimeout(Duration.ofMillis(200));
+        long started = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> driver.get("https://example.com/slow"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(5)) < 0,
+                "The session's page load timeout should apply");
+    }
+
+    @Test
+    @DisplayName("A click that starts a navigation returns once the new page is loaded; other clicks return at once")
+    public void testClickWaitsForNavigation() {
+        FakeCdp cdp = new FakeCdp();
+        AtomicInteger polls = new AtomicInteger();
+        cdp.on("Runtime.callFunctionOn", params -> remote(Map.of("x", 10, "y", 20)))
+                .on("Runtime.evaluate", params -> String.valueOf(params.get("expression")).contains("readyState")
+                        ? remote(polls.incrementAndGet() < 3 ? "leaving" : "complete") : remote(0));
+        DirectDriver driver = (DirectDriver) DirectDriver.wrap(cdp.driver());
+        DirectElement link = new DirectElement(driver, "link-1");
+
+        link.click();
+        assertEquals(3, cdp.sent("Input.dispatchMouseEvent").size());
+        assertEquals(0, polls.get(), "A click that does not navigate should not wait");
+
+        cdp.on("Input.dispatchMouseEvent", params -> {
+            if ("mouseReleased".equals(params.get("type"))) {
+                cdp.emit("Page.frameRequestedNavigation");
+                pause();
+            }
+            return Map.of();
+        });
+        link.click();
+        assertEquals(3, polls.get(), "The click should wait until the new document is complete");
+    }
+
+    @Test
+    @DisplayName("Scripts are evaluated so that a returned promise is awaited")
+    public void testScriptsAwaitPromises() {
+        FakeCdp cdp = new FakeCdp();
+        cdp.on("Runtime.evaluate", params -> remote(Map.of("value", "settled", "nodes", 0)));
+        JavascriptExecutor driver = (JavascriptExecutor) DirectDriver.wrap(cdp.driver());
+
+        assertEquals("settled", driver.executeScript("return new Promise(r => setTimeout(() => r('settled'), 10));"));
+        Map<String, Object> evaluated = cdp.sent("Runtime.evaluate").get(0);
+        assertEquals(true, evaluated.get("awaitPromise"));
+        assertTrue(String.valueOf(evaluated.get("expression")).contains(".then(finish)"),
+                "Promise results should be encoded once settled");
+    }
+
+    private static Map<String, Object> remote(Object value) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", value == null ? "undefined" : "object");
+        result.put("value", value);
+        return Map.of("result", result);
+    }
+
+    /** Lets the event reach its listener before the reply, as it would from Chrome. */
+    private static void pause() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.direct;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.CdpVersionFinder;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.Message;
+import org.openqa.selenium.remote.http.TextMessage;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-memory DevTools endpoint behind a fake Chrome session, so the direct path can be driven
+ * without a browser. Answers the target commands a DevTools session needs on its own; every
+ * other command goes to {@link #on}, or gets an empty result. Every command is recorded.
+ */
+class FakeCdp implements HttpClient, WebSocket {
+
+    static final String TARGET = "tab-1";
+
+    private static final Json JSON = new Json();
+
+    private final Map<String, Function<Map<String, Object>, Map<String, Object>>> handlers = new LinkedHashMap<>();
+    private final List<Map<String, Object>> sent = new ArrayList<>();
+    private WebSocket.Listener listener;
+    private volatile Duration pageLoadTimeout = Duration.ofSeconds(300);
+
+    FakeCdp() {
+        on("Target.getTargets", params -> Map.of("targetInfos", List.of(Map.of("targetId", TARGET, "type", "page",
+                "title", "", "url", "about:blank", "attached", false, "canAccessOpener", false))));
+        on("Target.attachToTarget", params -> Map.of("sessionId", "session-1"));
+        on("Target.getTargetInfo", params -> Map.of("targetInfo", Map.of("targetId", TARGET)));
+    }
+
+    /** Answers {@code method} with what {@code handler} returns for the command's params. */
+    FakeCdp on(String method, Function<Map<String, Object>, Map<String, Object>> handler) {
+        handlers.put(method, handler);
+        return this;
+    }
+
+    /** Sends the page event {@code method} for the tab's top-level frame. */
+    void emit(String method) {
+        listener.onText(JSON.toJson(Map.of("method", method, "params", Map.of("frameId", TARGET))));
+    }
+
+    void pageLoadTimeout(Duration timeout) {
+        pageLoadTimeout = timeout;
+    }
+
+    /** Params of every {@code method} command sent so far. */
+    synchronized List<Map<String, Object>> sent(String method) {
+        return sent.stream().filter(command -> method.equals(command.get("method")))
+                .map(command -> asMap(command.get("params"))).toList();
+    }
+
+    /** A Chrome session whose DevTools connection is this endpoint. */
+    WebDriver driver() {
+        DevTools devTools = new DevTools(new CdpVersionFinder().match("120.0").orElseThrow()::getDomains,
+                new Connection(this, "ws://fake/devtools/page/" + TARGET));
+        MutableCapabilities capabilities = new MutableCapabilities(Map.of("browserName", "chrome", "pageLoadStrategy", "normal"));
+        return (WebDriver) Proxy.newProxyInstance(FakeCdp.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class, HasDevTools.class, HasCapabilities.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getWindowHandle" -> TARGET;
+                    case "getCapabilities" -> capabilities;
+                    case "maybeGetDevTools" -> Optional.of(devTools);
+                    case "getDevTools" -> devTools;
+                    case "manage" -> settings(WebDriver.Options.class);
+                    default -> null;
+                });
+    }
+
+    private Object settings(Class<?> type) {
+        return Proxy.newProxyInstance(FakeCdp.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "timeouts" -> settings(WebDriver.Timeouts.class);
+                    case "getPageLoadTimeout" -> pageLoadTimeout;
+                    default -> null;
+                });
+    }
+
+    @Override
+    public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest req) {
+        throw new UnsupportedOperationException("Only the DevTools socket is faked");
+    }
+
+    @Override
+    public WebSocket send(Message message) {
+        Map<String, Object> command = JSON.toType(((TextMessage) message).text(), Json.MAP_TYPE);
+        synchronized (this) {
+            sent.add(command);
+        }
+        Map<String, Object> result = handlers.getOrDefault(String.valueOf(command.get("method")), params -> Map.of())
+                .apply(asMap(command.get("params")));
+        listener.onText(JSON.toJson(Map.of("id", command.get("id"), "result", result)));
+        return this;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.junit;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Blocks requests the annotated test class or method does not need (see
+ * {@link com.example.net.RequestBlocker}). A method annotation replaces the class one.
+ *
+ * <pre>
+ * &#64;BlockRequests(resourceTypes = {"Image", "Font", "Media"})      // no images, fonts or video
+ * &#64;BlockRequests(thirdParty = "Script")                           // no third-party scripts
+ * &#64;BlockRequests(urlPatterns = {"*doubleclick.net*", "*&#47;gen_204*"}) // explicit list
+ * </pre>
+ *
+ * Needs a session from {@link BrowserPoolExtension}; the annotation registers its own extension.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@ExtendWith(RequestBlockingExtension.class)
+public @interface BlockRequests {
+
+    /** CDP resource types to block everywhere, e.g. {@code Image}, {@code Font}, {@code Ping}. */
+    String[] resourceTypes() default {};
+
+    /** Resource types to block when served from another site than the page; {@code *} for all. */
+    String[] thirdParty() default {};
+
+    /** URL globs to block: {@code *} matches any run of characters, {@code ?} exactly one. */
+    String[] urlPatterns() default {};
+}
@@ -0,0 +1,151 @@
+package com.example.junit;
+
+import com.example.browser.BrowserPool;
+import com.example.capture.FailureCapture;
+import com.example.direct.DirectDriver;
+import com.example.metrics.CommandMetrics;
+import com.example.metrics.MemoryGovernor;
+import com.example.rows.RowRunner;
+import com.example.wait.PageContracts;
+import com.example.wait.PushWait;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Leases a warm browser from a shared {@link BrowserPool} for every test and hands it back
+ * afterwards. Register it on a test class and take the driver (and optionally a wait bound
+ * to it) as parameters:
+ *
+ * <pre>
+ * &#64;RegisterExtension
+ * static final BrowserPoolExtension browsers = new BrowserPoolExtension("example", LaunchProfile.FAST_HEADLESS::launch);
+ *
+ * &#64;BeforeEach
+ * public void setupTest(WebDriver driver, WebDriverWait wait) { ... }
+ * </pre>
+ *
+ * The driver and wait live in the test's own extension context, so tests running in parallel
+ * never share a session; keep them in instance fields, not static ones. Pools are shared by
+ * name across test classes and quit when the whole run finishes.
+ *
+ * What each lease comes with is described on the classes involved:
+ *
+ * <ul>
+ *   <li>{@link CommandMetrics} - every command is timed and attributed to the test holding the lease;</li>
+ *   <li>{@link PushWait} - the injected wait, resolving {@code PushConditions} inside the page;</li>
+ *   <li>{@link PageContracts} - navigating to a known page returns once that page is usable;</li>
+ *   <li>{@link RowRunner} - a data-driven test takes one instead of looping over its inputs;</li>
+ *   <li>{@link MemoryGovernor} - a session grown past its limits is quit rather than reused;</li>
+ *   <li>{@link FailureCapture} - a failing test's session is captured before it goes back;</li>
+ *   <li>{@link DirectDriver} - with {@code -Dbrowser.direct=on}, common commands skip chromedriver.</li>
+ * </ul>
+ */
+public class BrowserPoolExtension implements BeforeEachCallback, AfterTestExecutionCallback, AfterEachCallback,
+        ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(BrowserPoolExtension.class);
+
+    private final String poolName;
+    private final Supplier<WebDriver> factory;
+    private final Duration waitTimeout;
+
+    public BrowserPoolExtension(String poolName, Supplier<WebDriver> factory) {
+        this(poolName, factory, Duration.ofSeconds(10));
+    }
+
+    public BrowserPoolExtension(String poolName, Supplier<WebDriver> factory, Duration waitTimeout) {
+        this.poolName = poolName;
+        this.factory = factory;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        WebDriver driver = pool(context).lease();
+        CommandMetrics.attribute(driver, testName(context));
+        FailureCapture.clear(driver);
+        context.getStore(NAMESPACE).put(WebDriver.class, driver);
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        WebDriver driver = driver(context);
+        if (driver != null && context.getExecutionException().isPresent()) {
+            FailureCapture.capture(driver, testName(context), context.getExecutionException().get())
+                    .ifPresent(dir -> StepLogExtension.log(context).info("Failure artifacts: " + dir));
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        ExtensionContext.Store store = context.getStore(NAMESPACE);
+        store.remove(WebDriverWait.class);
+        WebDriver driver = store.remove(WebDriver.class, WebDriver.class);
+        if (driver != null) {
+            CommandMetrics.attribute(driver, null);
+            pool(context).release(driver);
+        }
+    }
+
+    /** {@code Class#method}, the key tests are reported under. */
+    public static String testName(ExtensionContext context) {
+        return context.getRequiredTestClass().getSimpleName() + "#" + context.getRequiredTestMethod().getName();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        return type == WebDriver.class || type == WebDriverWait.class || type == RowRunner.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        ExtensionContext.Store store = extensionContext.getStore(NAMESPACE);
+        WebDriver driver = store.get(WebDriver.class, WebDriver.class);
+        if (parameterContext.getParameter().getType() == WebDriverWait.class) {
+            return store.getOrComputeIfAbsent(WebDriverWait.class,
+                    key -> new PushWait(driver, waitTimeout), WebDriverWait.class);
+        }
+        if (parameterContext.getParameter().getType() == RowRunner.class) {
+            return new RowRunner(pool(extensionContext), testName(extensionContext), waitTimeout).borrowing(driver);
+        }
+        return driver;
+    }
+
+    /** The driver leased for the current test, for other extensions that act on the session. */
+    public static WebDriver driver(ExtensionContext context) {
+        return context.getStore(NAMESPACE).get(WebDriver.class, WebDriver.class);
+    }
+
+    private BrowserPool pool(ExtensionContext context) {
+        return context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(poolName, name -> new PoolResource(BrowserPool.create(name, this::newSession)
+                                .retireWhen(MemoryGovernor::overLimit)),
+                        PoolResource.class)
+                .pool();
+    }
+
+    private WebDriver newSession() {
+        WebDriver driver = DirectDriver.wrapIfEnabled(factory.get());
+        return CommandMetrics.instrument(driver, PageContracts.listener(driver), MemoryGovernor.listener(driver),
+                FailureCapture.listener(driver));
+    }
+
+    /** Lets the root store quit every parked browser when the test run ends. */
+    private record PoolResource(BrowserPool pool) implements ExtensionContext.Store.CloseableResource {
+        @Override
+        public void close() {
+            pool.close();
+        }
+    }
+}
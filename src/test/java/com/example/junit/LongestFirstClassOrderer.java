@@ -0,0 +1,34 @@
+package com.example.junit;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the test classes that took longest in earlier runs first (see {@link TestDurations}). With
+ * parallel execution that is longest-processing-time-first scheduling: long classes start while
+ * every worker is free and short ones fill in at the end, so the run does not finish with one
+ * worker still busy on a long class that happened to be discovered last. Classes without history
+ * count as the longest. Ties keep discovery order.
+ *
+ * Also plans the {@link TestShard}, which needs every top-level class of the run at once.
+ * The default orderer in {@code junit-platform.properties}.
+ */
+public class LongestFirstClassOrderer implements ClassOrderer {
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        List<? extends ClassDescriptor> classes = context.getClassDescriptors();
+        Map<String, Long> estimates = TestDurations.shared()
+                .estimates(classes.stream().map(descriptor -> descriptor.getTestClass().getName()).toList());
+        if (classes.stream().allMatch(descriptor -> descriptor.getTestClass().getEnclosingClass() == null)) {
+            TestShard.plan(estimates);
+        }
+        classes.sort(Comparator.comparingLong(
+                (ClassDescriptor descriptor) -> estimates.get(descriptor.getTestClass().getName())).reversed());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.junit;
+
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the test methods of a class that took longest in earlier runs first (see
+ * {@link TestDurations}), for the same reason as {@link LongestFirstClassOrderer}: with concurrent
+ * methods the class finishes when its longest method does, so that one should start first.
+ * Methods without history count as the longest. A class that declares its own
+ * {@code @TestMethodOrder} keeps it. The default orderer in {@code junit-platform.properties}.
+ */
+public class LongestFirstMethodOrderer implements MethodOrderer {
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        List<? extends MethodDescriptor> methods = context.getMethodDescriptors();
+        Class<?> testClass = context.getTestClass();
+        Map<String, Long> estimates = TestDurations.shared().estimates(
+                methods.stream().map(descriptor -> TestDurations.key(testClass, descriptor.getMethod())).toList());
+        methods.sort(Comparator.comparingLong(
+                (MethodDescriptor descriptor) -> estimates.get(TestDurations.key(testClass, descriptor.getMethod()))).reversed());
+    }
+}
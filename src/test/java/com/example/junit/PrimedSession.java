@@ -0,0 +1,38 @@
+package com.example.junit;
+
+import com.example.browser.PrimedState;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Starts the annotated test class or method in the state a {@link PrimedState.Setup} leaves
+ * behind: cookies and storage are in place before the test's first navigation, and the setup
+ * itself runs once per suite, or less while its cached state is fresh (see {@link PrimedState}).
+ * A method annotation replaces the class one.
+ *
+ * <pre>
+ * &#64;PrimedSession(AmazonPriming.class)                    // past the "Continue shopping" interstitial
+ * &#64;PrimedSession(value = LoggedIn.class, maxAgeHours = 1) // short-lived login
+ * </pre>
+ *
+ * Needs a session from {@link BrowserPoolExtension}; the annotation registers its own extension.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@ExtendWith(PrimedSessionExtension.class)
+public @interface PrimedSession {
+
+    /** The journey whose end state the test starts from. */
+    Class<? extends PrimedState.Setup> value();
+
+    /** How long a captured state is reused before the setup runs again. */
+    long maxAgeHours() default 12;
+}
@@ -0,0 +1,54 @@
+package com.example.junit;
+
+import com.example.browser.PrimedState;
+import com.example.net.RecordReplay;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Puts the {@link PrimedSession} state of the running test into its session before the test
+ * method runs, and stops restoring it afterwards. Registered by the annotation itself.
+ *
+ * Under {@code -Dreplay.mode=record} no stored state counts as fresh: the setup runs in every
+ * test, so its traffic lands in each test's archive and a replay without the cached state still
+ * finds it. That needs {@link ReplayExtension} registered first, i.e. declared above
+ * {@code @PrimedSession}.
+ */
+public class PrimedSessionExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(PrimedSessionExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) throws Exception {
+        Optional<PrimedSession> annotation = AnnotationSupport.findAnnotation(context.getTestMethod(), PrimedSession.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getTestClass(), PrimedSession.class));
+        if (annotation.isEmpty()) {
+            return;
+        }
+        WebDriver driver = BrowserPoolExtension.driver(context);
+        if (driver == null) {
+            throw new IllegalStateException("@PrimedSession needs a session from BrowserPoolExtension");
+        }
+        Duration maxAge = RecordReplay.Mode.fromSystemProperty() == RecordReplay.Mode.RECORD
+                ? Duration.ZERO : Duration.ofHours(annotation.get().maxAgeHours());
+        String identifier = PrimedState.prime(driver, annotation.get().value(), maxAge, StepLogExtension.log(context));
+        if (identifier != null) {
+            context.getStore(NAMESPACE).put(String.class, identifier);
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        String identifier = context.getStore(NAMESPACE).remove(String.class, String.class);
+        if (identifier != null) {
+            PrimedState.stopRestoring(BrowserPoolExtension.driver(context), identifier);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.junit;
+
+import com.example.net.RecordReplay;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Records or replays each test's HTTP traffic (see {@link RecordReplay}) in a per-test archive
+ * named {@code <TestClass>/<testMethod>}. Does nothing unless {@code -Dreplay.mode} is set:
+ *
+ * <pre>
+ * mvn test -Dreplay.mode=record    # capture live traffic
+ * mvn test -Dreplay.mode=replay    # run offline from the archives
+ * </pre>
+ *
+ * Runs around the test method itself, so the session leased by {@link BrowserPoolExtension}
+ * is already available.
+ */
+public class ReplayExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(ReplayExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        RecordReplay.Mode mode = RecordReplay.Mode.fromSystemProperty();
+        if (mode == RecordReplay.Mode.OFF) {
+            return;
+        }
+        WebDriver driver = BrowserPoolExtension.driver(context);
+        if (driver == null) {
+            throw new IllegalStateException("ReplayExtension needs a session from BrowserPoolExtension");
+        }
+        String name = context.getRequiredTestClass().getSimpleName() + "/" + context.getRequiredTestMethod().getName();
+        context.getStore(NAMESPACE).put(RecordReplay.class, RecordReplay.start(driver, mode, name));
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        RecordReplay session = context.getStore(NAMESPACE).remove(RecordReplay.class, RecordReplay.class);
+        if (session != null) {
+            session.finish(StepLogExtension.log(context));
+        }
+    }
+}
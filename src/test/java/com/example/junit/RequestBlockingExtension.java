@@ -0,0 +1,51 @@
+package com.example.junit;
+
+import com.example.net.RequestBlocker;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.openqa.selenium.WebDriver;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Applies the {@link BlockRequests} rules of the running test to its session for the duration
+ * of the test method. Registered by the annotation itself.
+ */
+public class RequestBlockingExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(RequestBlockingExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        Optional<BlockRequests> annotation = AnnotationSupport.findAnnotation(context.getTestMethod(), BlockRequests.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getTestClass(), BlockRequests.class));
+        RequestBlocker.Mode mode = RequestBlocker.Mode.fromSystemProperty();
+        if (annotation.isEmpty() || mode == RequestBlocker.Mode.OFF) {
+            return;
+        }
+        WebDriver driver = BrowserPoolExtension.driver(context);
+        if (driver == null) {
+            throw new IllegalStateException("@BlockRequests needs a session from BrowserPoolExtension");
+        }
+        BlockRequests rules = annotation.get();
+        RequestBlocker blocker = RequestBlocker.start(driver, mode, new RequestBlocker.Rules(
+                Set.of(rules.resourceTypes()), Set.of(rules.thirdParty()), List.of(rules.urlPatterns())),
+                BrowserPoolExtension.testName(context));
+        if (blocker != null) {
+            context.getStore(NAMESPACE).put(RequestBlocker.class, blocker);
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        RequestBlocker blocker = context.getStore(NAMESPACE).remove(RequestBlocker.class, RequestBlocker.class);
+        if (blocker != null) {
+            blocker.finish();
+        }
+    }
+}
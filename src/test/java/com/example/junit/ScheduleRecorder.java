@@ -0,0 +1,182 @@
+package com.example.junit;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every test class and method for the next run's schedule ({@link TestDurations}), and
+ * reports how well this run was packed onto its workers. At exit it prints a summary and writes
+ * {@code -Dtest.schedule.file} (default {@code target/test-schedule.json}): wall time, time spent
+ * in tests per worker thread, the share of worker time left idle, and the lower bound perfect
+ * packing could reach, which is the larger of the total test time spread over all workers and the
+ * longest single test (the critical path). A wall time close to that bound means the schedule is
+ * as good as it gets; adding workers only helps while the bound is the total. A sharded run adds
+ * this JVM's share of the {@link TestShard} plan.
+ *
+ * A test's time includes its {@code BeforeEach} and {@code AfterEach}; class setup and discovery
+ * count as idle. Registered for every test class through extension autodetection.
+ */
+public class ScheduleRecorder implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(ScheduleRecorder.class);
+
+    /** One test method invocation on a worker thread, in {@link System#nanoTime} terms. */
+    record Interval(String thread, long start, long end) {
+
+        long nanos() {
+            return end - start;
+        }
+    }
+
+    /** What a run's intervals add up to, in milliseconds. */
+    record Summary(int workers, long wallMs, long busyMs, long criticalPathMs, Map<String, Long> busyByThreadMs) {
+
+        static Summary of(Collection<Interval> tests, int workers) {
+            long first = tests.stream().mapToLong(Interval::start).min().orElse(0);
+            long last = tests.stream().mapToLong(Interval::end).max().orElse(0);
+            Map<String, Long> byThread = new TreeMap<>();
+            tests.forEach(test -> byThread.merge(test.thread(), test.nanos(), Long::sum));
+            byThread.replaceAll((thread, nanos) -> nanos / 1_000_000);
+            long busy = tests.stream().mapToLong(Interval::nanos).sum();
+            long longest = tests.stream().mapToLong(Interval::nanos).max().orElse(0);
+            return new Summary(Math.max(workers, byThread.size()), (last - first) / 1_000_000, busy / 1_000_000,
+                    longest / 1_000_000, byThread);
+        }
+
+        long lowerBoundMs() {
+            return Math.max(criticalPathMs, (busyMs + workers - 1) / workers);
+        }
+
+        double idlePercent() {
+            return wallMs == 0 ? 0 : Math.max(0, 100.0 * (1 - (double) busyMs / ((double) workers * wallMs)));
+        }
+    }
+
+    private static final Queue<Interval> TESTS = new ConcurrentLinkedQueue<>();
+    private static final Map<String, LongAdder> CLASSES = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> METHODS = new ConcurrentHashMap<>();
+    private static final AtomicInteger WORKERS = new AtomicInteger(1);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ScheduleRecorder::finish, "test-schedule"));
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        WORKERS.accumulateAndGet(workers(context), Math::max);
+        context.getStore(NAMESPACE).put("classStart", System.nanoTime());
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        Long start = context.getStore(NAMESPACE).remove("classStart", Long.class);
+        if (start != null) {
+            CLASSES.computeIfAbsent(context.getRequiredTestClass().getName(), k -> new LongAdder())
+                    .add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put("methodStart", System.nanoTime());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Long start = context.getStore(NAMESPACE).remove("methodStart", Long.class);
+        if (start == null) {
+            return;
+        }
+        Interval test = new Interval(Thread.currentThread().getName(), start, System.nanoTime());
+        TESTS.add(test);
+        METHODS.computeIfAbsent(TestDurations.key(context.getRequiredTestClass(), context.getRequiredTestMethod()),
+                k -> new LongAdder()).add(test.nanos());
+    }
+
+    /** Workers the Jupiter engine runs tests on, from its parallel execution settings. */
+    private static int workers(ExtensionContext context) {
+        boolean parallel = context.getConfigurationParameter("junit.jupiter.execution.parallel.enabled")
+                .map(Boolean::parseBoolean).orElse(false);
+        if (!parallel) {
+            return 1;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        String strategy = context.getConfigurationParameter("junit.jupiter.execution.parallel.config.strategy")
+                .orElse("dynamic");
+        if ("fixed".equalsIgnoreCase(strategy)) {
+            return context.getConfigurationParameter("junit.jupiter.execution.parallel.config.fixed.parallelism")
+                    .map(String::trim).map(Integer::parseInt).orElse(cores);
+        }
+        double factor = context.getConfigurationParameter("junit.jupiter.execution.parallel.config.dynamic.factor")
+                .map(String::trim).map(Double::parseDouble).orElse(1.0);
+        return Math.max(1, (int) (factor * cores));
+    }
+
+    private static void finish() {
+        if (TESTS.isEmpty()) {
+            return;
+        }
+        TestDurations durations = TestDurations.shared();
+        List<Map<String, Object>> classes = new ArrayList<>();
+        CLASSES.forEach((className, nanos) -> {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("class", className);
+            json.put("ms", nanos.sum() / 1_000_000);
+            json.put("estimateMs", durations.estimate(className));
+            classes.add(json);
+        });
+        classes.sort((a, b) -> Long.compare((Long) b.get("ms"), (Long) a.get("ms")));
+        CLASSES.forEach((className, nanos) -> durations.record(className, nanos.sum()));
+        METHODS.forEach((method, nanos) -> durations.record(method, nanos.sum()));
+        durations.save();
+
+        Summary summary = Summary.of(List.copyOf(TESTS), WORKERS.get());
+        System.out.printf("Test schedule: %d workers, wall %.1f s, in tests %.1f s, idle %.1f %%; "
+                        + "lower bound %.1f s (longest test %.1f s)%n", summary.workers(), summary.wallMs() / 1000.0,
+                summary.busyMs() / 1000.0, summary.idlePercent(), summary.lowerBoundMs() / 1000.0,
+                summary.criticalPathMs() / 1000.0);
+        Optional<Map<String, Object>> shard = TestShard.summary();
+        shard.ifPresent(plan -> System.out.printf("  shard %s ran %d of %d test classes, about %.1f s by history%n",
+                plan.get("shard"), plan.get("classes"), plan.get("ofClasses"), (Long) plan.get("estimateMs") / 1000.0));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("workers", summary.workers());
+        report.put("wallMs", summary.wallMs());
+        report.put("busyMs", summary.busyMs());
+        report.put("idlePercent", Math.round(summary.idlePercent() * 10) / 10.0);
+        report.put("lowerBoundMs", summary.lowerBoundMs());
+        report.put("criticalPathMs", summary.criticalPathMs());
+        report.put("busyByThreadMs", summary.busyByThreadMs());
+        shard.ifPresent(plan -> report.put("shard", plan));
+        report.put("classes", classes);
+        Path file = Paths.get(System.getProperty("test.schedule.file", "target/test-schedule.json"));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, new Json().toJson(report));
+        } catch (IOException e) {
+            System.err.println("Could not write test schedule to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.junit;
+
+import com.example.log.StepLog;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * Gives a test that takes a {@link StepLog} parameter (in the test method or its
+ * {@code @BeforeEach}) its own log, and finishes it with the test's outcome afterwards. The log
+ * marks its steps on the session from {@link BrowserPoolExtension}, if the test has one.
+ * Registered for every test class through extension autodetection.
+ */
+public class StepLogExtension implements ParameterResolver, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(StepLogExtension.class);
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == StepLog.class && extensionContext.getTestMethod().isPresent();
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return log(extensionContext);
+    }
+
+    /** The running test's log, for other extensions to note what they do on its behalf. */
+    static StepLog log(ExtensionContext context) {
+        return context.getStore(NAMESPACE).getOrComputeIfAbsent(StepLog.class,
+                key -> new StepLog(BrowserPoolExtension.testName(context), BrowserPoolExtension.driver(context)),
+                StepLog.class);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        StepLog log = context.getStore(NAMESPACE).remove(StepLog.class, StepLog.class);
+        if (log != null) {
+            log.finish(context.getExecutionException().orElse(null));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.junit;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How long each test class and test method took in earlier runs, kept in a small state file so
+ * the suite can be scheduled longest-first ({@link LongestFirstClassOrderer},
+ * {@link LongestFirstMethodOrderer}) and split evenly over JVMs ({@link TestShard}). A class is
+ * keyed by its name and timed from its first {@code BeforeAll} to its last {@code AfterAll}; a
+ * method is keyed {@code com.example.AmazonTest#testAmazonSite} and timed over all its
+ * invocations, each with its {@code BeforeEach} and {@code AfterEach}.
+ *
+ * The estimate is the median of the last {@value #MAX_SAMPLES} runs. The file is
+ * {@code -Dtest.durations.file}, which the POM puts in {@code target/} unless overridden (default
+ * {@code ~/.cache/selenium-demo/test-durations.json}, next to the wait history so CI can keep
+ * both); it is written by {@link ScheduleRecorder} at exit.
+ */
+final class TestDurations {
+
+    static final int MAX_SAMPLES = 10;
+
+    private static final Json JSON = new Json();
+
+    private final Path file;
+    private final Map<String, Deque<Long>> samples = new ConcurrentHashMap<>();
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    private static final class Shared {
+        static final TestDurations INSTANCE = new TestDurations(file());
+    }
+
+    TestDurations(Path file) {
+        this.file = file;
+        load();
+    }
+
+    static TestDurations shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static Path file() {
+        String configured = System.getProperty("test.durations.file");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "selenium-demo", "test-durations.json");
+    }
+
+    /** Key of {@code method} run as part of {@code testClass}, which may inherit it. */
+    static String key(Class<?> testClass, Method method) {
+        return testClass.getName() + "#" + method.getName();
+    }
+
+    /** Median of the recorded runs of {@code key} in milliseconds, or -1 if it has none. */
+    long estimate(String key) {
+        Deque<Long> recorded = samples.get(key);
+        if (recorded == null) {
+            return -1;
+        }
+        List<Long> sorted;
+        synchronized (recorded) {
+            sorted = new ArrayList<>(recorded);
+        }
+        if (sorted.isEmpty()) {
+            return -1;
+        }
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * Estimates for {@code keys}, in their order. A key without history gets the longest estimate
+     * among them (1 ms if none has any), so new tests start early and are learned in one run.
+     */
+    Map<String, Long> estimates(Collection<String> keys) {
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        long longest = 1;
+        for (String key : keys) {
+            long estimate = estimate(key);
+            estimates.put(key, estimate);
+            longest = Math.max(longest, estimate);
+        }
+        long unknown = longest;
+        estimates.replaceAll((key, estimate) -> estimate < 0 ? unknown : estimate);
+        return estimates;
+    }
+
+    /** Records one run of {@code key}. */
+    void record(String key, long nanos) {
+        Deque<Long> recorded = samples.computeIfAbsent(key, k -> new ArrayDeque<>());
+        add(recorded, nanos / 1_000_000);
+        touched.add(key);
+    }
+
+    private static void add(Deque<Long> recorded, long millis) {
+        synchronized (recorded) {
+            recorded.addLast(millis);
+            while (recorded.size() > MAX_SAMPLES) {
+                recorded.removeFirst();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            Map<String, Object> root = JSON.toType(Files.readString(file), Json.MAP_TYPE);
+            root.forEach((key, raw) -> {
+                Deque<Long> recorded = new ArrayDeque<>();
+                for (Object sample : (List<Object>) raw) {
+                    add(recorded, ((Number) sample).longValue());
+                }
+                samples.put(key, recorded);
+            });
+        } catch (IOException | RuntimeException e) {
+            // A damaged history only costs one run in discovery order
+            System.err.println("Ignoring unreadable test durations " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the tests this JVM ran over the file's current content, so shards sharing the file
+     * lose at most each other's updates to the same test.
+     */
+    void save() {
+        if (touched.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            TestDurations current = new TestDurations(file);
+            Map<String, Object> root = new TreeMap<>();
+            current.samples.forEach((key, recorded) -> root.put(key, List.copyOf(recorded)));
+            touched.forEach(key -> {
+                Deque<Long> recorded = samples.get(key);
+                synchronized (recorded) {
+                    root.put(key, List.copyOf(recorded));
+                }
+            });
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "test-durations", ".json");
+            Files.writeString(temp, JSON.toJson(root));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write test durations to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.junit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDurationsTest {
+
+    @TempDir
+    Path dir;
+
+    private static long ms(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+
+    @Test
+    @DisplayName("Estimates are the median of recent runs, and tests without history count as the longest")
+    public void testEstimates() {
+        TestDurations durations = new TestDurations(dir.resolve("durations.json"));
+        for (long millis : new long[] {9000, 1000, 1200, 1100, 1300}) {
+            durations.record("com.example.GoogleTest", ms(millis));
+        }
+        durations.record("com.example.AmazonTest", ms(40_000));
+
+        assertEquals(1200, durations.estimate("com.example.GoogleTest"));
+        assertEquals(-1, durations.estimate("com.example.NewTest"));
+        assertEquals(Map.of("com.example.GoogleTest", 1200L, "com.example.NewTest", 40_000L, "com.example.AmazonTest", 40_000L),
+                durations.estimates(List.of("com.example.GoogleTest", "com.example.NewTest", "com.example.AmazonTest")));
+        assertEquals(Map.of("com.example.NewTest", 1L), durations.estimates(List.of("com.example.NewTest")));
+
+        for (int i = 0; i < TestDurations.MAX_SAMPLES; i++) {
+            durations.record("com.example.GoogleTest", ms(500));
+        }
+        durations.save();
+        TestDurations reloaded = new TestDurations(dir.resolve("durations.json"));
+        assertEquals(500, reloaded.estimate("com.example.GoogleTest"), "Only the last runs are kept");
+        assertEquals(40_000, reloaded.estimate("com.example.AmazonTest"));
+    }
+
+    @Test
+    @DisplayName("Classes are packed longest-first onto the least loaded shard")
+    public void testPack() {
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        estimates.put("E", 4L);
+        estimates.put("A", 8L);
+        estimates.put("C", 6L);
+        estimates.put("B", 7L);
+        estimates.put("D", 5L);
+
+        assertEquals(List.of(List.of("A", "D", "E"), List.of("B", "C")), TestShard.pack(estimates, 2));
+        assertEquals(List.of(List.of("A"), List.of("B"), List.of("C"), List.of("D"), List.of("E"), List.of()),
+                TestShard.pack(estimates, 6));
+        assertThrows(IllegalArgumentException.class, () -> new TestShard.Spec(5, 4));
+    }
+
+    @Test
+    @DisplayName("Worker idleness and the lower bound follow from the tests' intervals")
+    public void testSummary() {
+        List<ScheduleRecorder.Interval> tests = List.of(
+                new ScheduleRecorder.Interval("worker-1", 0, ms(6000)),
+                new ScheduleRecorder.Interval("worker-2", 0, ms(1000)),
+                new ScheduleRecorder.Interval("worker-2", ms(1000), ms(3000)),
+                new ScheduleRecorder.Interval("worker-1", ms(6000), ms(8000)));
+
+        ScheduleRecorder.Summary summary = ScheduleRecorder.Summary.of(tests, 2);
+
+        assertEquals(8000, summary.wallMs());
+        assertEquals(11_000, summary.busyMs());
+        assertEquals(Map.of("worker-1", 8000L, "worker-2", 3000L), summary.busyByThreadMs());
+        assertEquals(31.25, summary.idlePercent(), 1e-9);
+        assertEquals(6000, summary.criticalPathMs());
+        assertEquals(6000, summary.lowerBoundMs(), "One 6 s test bounds the run, not the 5.5 s per worker");
+        assertEquals(3, ScheduleRecorder.Summary.of(tests, 3).workers());
+    }
+}
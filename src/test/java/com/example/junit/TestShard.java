@@ -0,0 +1,144 @@
+package com.example.junit;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Runs one share of the test classes in this JVM, so that n JVMs (CI jobs, or Maven runs side by
+ * side) split the suite by recorded duration rather than by class count:
+ *
+ * <pre>
+ * mvn test -Pshard -Dshard=2/4
+ * </pre>
+ *
+ * Classes are packed longest-first onto the least loaded shard, using the {@link TestDurations}
+ * estimates; every shard computes the same plan from the same classes and history, so the shards
+ * of one run must share the history file (restore the same CI cache into each job). Classes of
+ * other shards are reported as skipped, and the plan goes into the {@link ScheduleRecorder} report.
+ *
+ * The plan is made by {@link LongestFirstClassOrderer} from all the classes the JVM discovered. A
+ * surefire {@code forkCount} above 1 hands each fork a few classes at a time, so run one fork per
+ * shard. Registered for every test class through extension autodetection.
+ */
+public class TestShard implements ExecutionCondition {
+
+    /** Shard {@code index} (1-based) of {@code count}. */
+    record Spec(int index, int count) {
+
+        Spec {
+            if (count < 1 || index < 1 || index > count) {
+                throw new IllegalArgumentException("Shard " + index + "/" + count + " does not exist");
+            }
+        }
+
+        /** {@code -Dtest.shard=2/4}, or null when the run is not sharded. */
+        static Spec fromSystemProperty() {
+            String value = System.getProperty("test.shard", "").trim();
+            if (value.isEmpty()) {
+                return null;
+            }
+            String[] parts = value.split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("test.shard must look like 2/4, not " + value);
+            }
+            return new Spec(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+
+        @Override
+        public String toString() {
+            return index + "/" + count;
+        }
+    }
+
+    /** Shard (1-based) of every top-level class, and how much of the run falls to this one. */
+    private record Plan(Map<String, Integer> shards, int classes, long millis) {
+
+        long assigned() {
+            return shards.values().stream().filter(shard -> shard == SPEC.index()).count();
+        }
+    }
+
+    private static final Spec SPEC = Spec.fromSystemProperty();
+
+    private static volatile Plan plan;
+
+    /**
+     * Packs {@code estimates} into {@code bins}, longest first onto the least loaded bin (the
+     * lowest on a tie), so every bin gets close to the total divided by {@code bins}.
+     */
+    static List<List<String>> pack(Map<String, Long> estimates, int bins) {
+        List<Map.Entry<String, Long>> longestFirst = new ArrayList<>(estimates.entrySet());
+        longestFirst.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        List<List<String>> packed = new ArrayList<>();
+        long[] loads = new long[bins];
+        for (int i = 0; i < bins; i++) {
+            packed.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, Long> entry : longestFirst) {
+            int least = 0;
+            for (int i = 1; i < bins; i++) {
+                if (loads[i] < loads[least]) {
+                    least = i;
+                }
+            }
+            packed.get(least).add(entry.getKey());
+            loads[least] += entry.getValue();
+        }
+        return packed;
+    }
+
+    /**
+     * Assigns every class of the run to a shard; does nothing unless {@code -Dtest.shard} is set.
+     * Surefire first discovers each class on its own, so only the largest set of classes counts.
+     */
+    static synchronized void plan(Map<String, Long> classEstimates) {
+        if (SPEC == null || (plan != null && plan.classes() > classEstimates.size())) {
+            return;
+        }
+        List<List<String>> packed = pack(classEstimates, SPEC.count());
+        Map<String, Integer> assigned = new HashMap<>();
+        for (int i = 0; i < packed.size(); i++) {
+            for (String className : packed.get(i)) {
+                assigned.put(className, i + 1);
+            }
+        }
+        plan = new Plan(assigned, classEstimates.size(),
+                packed.get(SPEC.index() - 1).stream().mapToLong(classEstimates::get).sum());
+    }
+
+    /** This JVM's share of the plan in report form, or empty when the run is not sharded. */
+    static Optional<Map<String, Object>> summary() {
+        Plan current = plan;
+        if (SPEC == null || current == null) {
+            return Optional.empty();
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("shard", SPEC.toString());
+        summary.put("classes", current.assigned());
+        summary.put("ofClasses", current.classes());
+        summary.put("estimateMs", current.millis());
+        return Optional.of(summary);
+    }
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        Plan current = plan;
+        if (SPEC == null || current == null || context.getTestMethod().isPresent() || context.getTestClass().isEmpty()) {
+            return ConditionEvaluationResult.enabled("Not sharded");
+        }
+        Integer shard = current.shards().get(context.getRequiredTestClass().getName());
+        if (shard == null || shard == SPEC.index()) {
+            return ConditionEvaluationResult.enabled("In shard " + SPEC);
+        }
+        return ConditionEvaluationResult.disabled("In shard " + shard + "/" + SPEC.count());
+    }
+}
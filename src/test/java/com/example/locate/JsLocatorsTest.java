@@ -0,0 +1,56 @@
+package com.example.locate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsLocatorsTest {
+
+    @Test
+    @DisplayName("Id, name and class locators reach the page as CSS selectors; the others keep their strategy")
+    public void testToJson() {
+        assertEquals(Map.of("using", "css selector", "value", "#nav-search"), JsLocators.toJson(By.id("nav-search")));
+        assertEquals(Map.of("using", "css selector", "value", "*[name='field-keywords']"),
+                JsLocators.toJson(By.name("field-keywords")));
+        assertEquals(Map.of("using", "css selector", "value", "*[name='it\\'s']"), JsLocators.toJson(By.name("it's")));
+        assertEquals(Map.of("using", "css selector", "value", ".a-price-whole"),
+                JsLocators.toJson(By.className("a-price-whole")));
+
+        assertEquals(Map.of("using", "css selector", "value", "div > a"), JsLocators.toJson(By.cssSelector("div > a")));
+        assertEquals(Map.of("using", "xpath", "value", "//a[@id='x']"), JsLocators.toJson(By.xpath("//a[@id='x']")));
+        assertEquals(Map.of("using", "tag name", "value", "a"), JsLocators.toJson(By.tagName("a")));
+        assertEquals(Map.of("using", "link text", "value", "Learn more"), JsLocators.toJson(By.linkText("Learn more")));
+    }
+
+    @Test
+    @DisplayName("Ids and classes with CSS-special characters are escaped as CSS.escape does")
+    public void testCssEscape() {
+        assertEquals("#a\\.b\\:c", JsLocators.toJson(By.id("a.b:c")).get("value"));
+        assertEquals("#\\31 23", JsLocators.toJson(By.id("123")).get("value"));
+        assertEquals("-\\31 x", JsLocators.cssEscape("-1x"));
+        assertEquals("\\-", JsLocators.cssEscape("-"));
+        assertEquals("--x_y", JsLocators.cssEscape("--x_y"));
+        assertEquals("a\\[0\\]\\ \\#b", JsLocators.cssEscape("a[0] #b"));
+        assertEquals("tab\\9 x", JsLocators.cssEscape("tab\tx"));
+        assertEquals("\uFFFDé", JsLocators.cssEscape("\0é"));
+    }
+
+    @Test
+    @DisplayName("Locators that cannot travel to the page are rejected")
+    public void testNotRemotable() {
+        By custom = new By() {
+            @Override
+            public List<WebElement> findElements(SearchContext context) {
+                return List.of();
+            }
+        };
+        assertThrows(IllegalArgumentException.class, () -> JsLocators.toJson(custom));
+    }
+}
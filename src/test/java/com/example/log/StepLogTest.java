@@ -0,0 +1,103 @@
+package com.example.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.json.Json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StepLogTest {
+
+    @TempDir
+    Path dir;
+
+    private static StepLog amazonLog() {
+        StepLog log = new StepLog("AmazonTest#testAmazonSite");
+        log.step("Navigating to Amazon.in Homepage");
+        log.info("Amazon homepage loaded");
+        log.step("Applying 'Congratulations' Occasion Filter");
+        log.warn("Congratulations filter not found, continuing...");
+        return log;
+    }
+
+    @Test
+    @DisplayName("A test's log is one block with numbered steps, and one JSON line per entry plus its outcome")
+    public void testRender() {
+        StepLog log = amazonLog();
+
+        String block = StepLogWriter.render(log, null, 2_500_000_000L);
+        List<String> lines = block.lines().toList();
+        assertEquals("---- AmazonTest#testAmazonSite: passed in 2.5 s ----", lines.get(0));
+        assertTrue(lines.get(1).endsWith("s  STEP 1  Navigating to Amazon.in Homepage"), lines.get(1));
+        assertTrue(lines.get(2).endsWith("s          Amazon homepage loaded"), lines.get(2));
+        assertTrue(lines.get(3).endsWith("s  STEP 2  Applying 'Congratulations' Occasion Filter"), lines.get(3));
+        assertTrue(lines.get(4).endsWith("s  WARN    Congratulations filter not found, continuing..."), lines.get(4));
+
+        List<String> json = StepLogWriter.jsonLines(log, new AssertionError("Price should not be empty"), 2_500_000_000L);
+        assertEquals(5, json.size());
+        assertTrue(json.stream().noneMatch(line -> line.contains("\n")), "One object per line");
+        Map<String, Object> warn = new Json().toType(json.get(3), Json.MAP_TYPE);
+        assertEquals("WARN", warn.get("level"));
+        assertEquals(2L, warn.get("step"));
+        Map<String, Object> end = new Json().toType(json.get(4), Json.MAP_TYPE);
+        assertEquals("failed", end.get("outcome"));
+        assertEquals(2500L, end.get("durationMs"));
+    }
+
+    @Test
+    @DisplayName("Output past the caps is counted, not kept, and nothing is kept after the log is finished")
+    public void testCaps() throws Exception {
+        StepLog log = new StepLog("ChattyTest#testLoops");
+        for (int i = 0; i < StepLog.MAX_ENTRIES + 5; i++) {
+            log.info("line " + i);
+        }
+        assertEquals(StepLog.MAX_ENTRIES, log.size());
+        assertEquals(5, log.dropped());
+
+        Path file = dir.resolve("step-log.jsonl");
+        StepLogWriter writer = new StepLogWriter(StepLogWriter.Console.OFF, file, System.out);
+        StepLog huge = new StepLog("ChattyTest#testDump", null, writer);
+        huge.info("x".repeat(StepLog.MAX_CHARS));
+        huge.info("one more");
+        assertEquals(1, huge.size());
+        assertEquals(1, huge.dropped());
+        assertTrue(StepLogWriter.render(huge, null, 0).endsWith("(1 more entries over the log's cap)\n"));
+
+        huge.finish(null);
+        huge.warn("after the test");
+        assertEquals(1, huge.size());
+        writer.close();
+        assertEquals(2, Files.readAllLines(file).size(), "One entry and the outcome");
+    }
+
+    @Test
+    @DisplayName("The writer prints failed tests' logs and appends every log to the JSON Lines file")
+    public void testWriter() throws Exception {
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        Path file = dir.resolve("step-log.jsonl");
+        Files.writeString(file, "{\"test\": \"OtherShardTest#testEarlier\", \"outcome\": \"passed\"}\n");
+        StepLogWriter writer = new StepLogWriter(StepLogWriter.Console.FAILED, file,
+                new PrintStream(console, true, StandardCharsets.UTF_8));
+
+        writer.submit(amazonLog(), null, 1_000_000);
+        writer.submit(amazonLog(), new AssertionError("boom"), 1_000_000);
+        writer.close();
+
+        String printed = console.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.startsWith("---- AmazonTest#testAmazonSite: failed in 0.0 s: java.lang.AssertionError: boom ----"),
+                printed);
+        assertEquals(1, printed.lines().filter(line -> line.startsWith("----")).count(), "Passed tests stay quiet");
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(11, lines.size());
+        assertTrue(lines.get(0).contains("OtherShardTest"), "Lines already in the file are kept");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.metrics;
+
+import com.example.browser.FakeDriver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandMetricsTest {
+
+    @Test
+    @DisplayName("Commands are timed per type and attributed to the test holding the session")
+    @SuppressWarnings("unchecked")
+    public void testAttribution() {
+        FakeDriver fake = FakeDriver.create();
+        WebDriver driver = CommandMetrics.instrument(fake.driver());
+        CommandMetrics metrics = new CommandMetrics();
+        CommandMetrics.use(driver, metrics);
+
+        CommandMetrics.attribute(driver, "CommandMetricsTest#first");
+        driver.getTitle();
+        driver.getTitle();
+        ((JavascriptExecutor) driver).executeScript("return 1");
+        CommandMetrics.attribute(driver, null);
+        driver.getWindowHandle();
+
+        assertEquals(2L, metrics.histogram("WebDriver.getTitle").count());
+        Map<String, Object> tests = (Map<String, Object>) metrics.snapshot().get("tests");
+        Map<String, Object> first = (Map<String, Object>) tests.get("CommandMetricsTest#first");
+        assertEquals(2L, ((Map<String, Object>) first.get("WebDriver.getTitle")).get("count"));
+        assertEquals(1L, ((Map<String, Object>) first.get("JavascriptExecutor.executeScript")).get("count"));
+        assertFalse(first.containsKey("WebDriver.getWindowHandle"));
+        assertTrue(((Map<String, Object>) tests.get(CommandMetrics.NO_TEST)).containsKey("WebDriver.getWindowHandle"));
+    }
+
+    @Test
+    @DisplayName("The instrumented driver still unwraps to the real session")
+    public void testUnwrap() {
+        WebDriver original = FakeDriver.create().driver();
+        WebDriver driver = CommandMetrics.instrument(original);
+        CommandMetrics.use(driver, new CommandMetrics());
+
+        assertSame(original, ((WrapsDriver) driver).getWrappedDriver());
+    }
+}
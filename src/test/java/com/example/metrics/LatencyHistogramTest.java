@@ -0,0 +1,44 @@
+package com.example.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Percentiles stay within the bucket precision of the exact values")
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500_000, histogram.percentileMicros(0.50), 500_000 * 0.04);
+        assertEquals(950_000, histogram.percentileMicros(0.95), 950_000 * 0.04);
+        assertEquals(990_000, histogram.percentileMicros(0.99), 990_000 * 0.04);
+        assertEquals(1_000_000, histogram.maxMicros());
+        assertEquals(500_500_000, histogram.totalMicros());
+    }
+
+    @Test
+    @DisplayName("Every bucket's upper bound maps back to the same bucket")
+    public void testBuckets() {
+        for (long micros : new long[]{0, 1, 31, 32, 63, 64, 65, 1_000, 123_456, 60_000_000L}) {
+            int index = LatencyHistogram.index(micros);
+            assertTrue(LatencyHistogram.upperBound(index) >= micros, "bound below value for " + micros);
+            assertEquals(index, LatencyHistogram.index(LatencyHistogram.upperBound(index)), "bucket of " + micros);
+        }
+    }
+
+    @Test
+    @DisplayName("An empty histogram reports zeros")
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.percentileMicros(0.99));
+        assertEquals(0L, histogram.summary().get("count"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.metrics;
+
+import com.example.browser.FakeDriver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class MemoryGovernorTest {
+
+    @Test
+    @DisplayName("Performance metrics become a sample, and limits name what a sample crosses")
+    public void testLimits() {
+        Map<String, Object> metrics = Map.of("metrics", List.of(
+                Map.of("name", "Timestamp", "value", 12.5),
+                Map.of("name", "JSHeapUsedSize", "value", 700L * 1024 * 1024),
+                Map.of("name", "Nodes", "value", 52_000L),
+                Map.of("name", "Documents", "value", 140L),
+                Map.of("name", "JSEventListeners", "value", 9_000L)));
+
+        MemoryGovernor.Sample sample = MemoryGovernor.Sample.of("get https://example.com/", metrics, -1);
+
+        assertEquals(700L * 1024 * 1024, sample.heapBytes());
+        assertEquals(52_000, sample.nodes());
+        assertEquals(-1, sample.rssBytes(), "Unknown RSS stays unknown");
+        MemoryGovernor.Limits limits = new MemoryGovernor.Limits(512L * 1024 * 1024, 100_000, 100, 0, 1024);
+        assertEquals(List.of("heap 700 MB > 512 MB", "documents 140 > 100"), limits.exceeded(sample));
+    }
+
+    @Test
+    @DisplayName("Sessions without DevTools are never retired")
+    public void testWithoutDevTools() {
+        WebDriver driver = CommandMetrics.instrument(FakeDriver.create().driver());
+        CommandMetrics.use(driver, new CommandMetrics());
+        MemoryGovernor.listener(driver);
+
+        assertFalse(MemoryGovernor.overLimit(driver));
+    }
+
+    @Test
+    @DisplayName("Resident set is summed over a process and its children")
+    public void testRss() {
+        assumeTrue(Files.exists(Paths.get("/proc/self/status")), "Needs /proc");
+
+        assertTrue(MemoryGovernor.rss(ProcessHandle.current()) > 1024 * 1024);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.metrics;
+
+import com.example.browser.FakeDriver;
+import com.example.wait.MeasuredWait;
+import com.example.wait.WaitHistories;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaitStatsTest {
+
+    @TempDir
+    Path dir;
+
+    private final WaitStats stats = new WaitStats();
+
+    @Test
+    @DisplayName("A satisfied wait wastes only its last poll gap; a timed-out one wastes everything")
+    public void testWaste() {
+        WebDriver driver = CommandMetrics.instrument(FakeDriver.create().driver());
+        WaitHistories.isolate(driver, dir.resolve("wait-history.json"));
+        WaitStats.use(driver, stats);
+        CommandMetrics.use(driver, new CommandMetrics());
+        CommandMetrics.attribute(driver, "WaitStatsTest#waste");
+        AtomicInteger checks = new AtomicInteger();
+
+        new MeasuredWait(driver, Duration.ofSeconds(5), Duration.ofMillis(50)).until(d -> checks.incrementAndGet() >= 3);
+        assertThrows(TimeoutException.class,
+                () -> new MeasuredWait(driver, Duration.ofMillis(200), Duration.ofMillis(50)).until(d -> false));
+
+        Map<String, Object> test = test("WaitStatsTest#waste");
+        assertEquals(2L, test.get("waits"));
+        assertEquals(1L, test.get("timedOut"));
+        double wasted = (Double) test.get("wastedSeconds");
+        assertTrue(wasted >= 0.2 + 0.04 && wasted < (Double) test.get("blockedSeconds"), "wasted " + wasted);
+    }
+
+    @Test
+    @DisplayName("Lookups inside an explicit wait on a session with an implicit wait are flagged as stacked")
+    public void testStacked() {
+        WebDriver driver = CommandMetrics.instrument(FakeDriver.create().driver());
+        WaitHistories.isolate(driver, dir.resolve("wait-history.json"));
+        WaitStats.use(driver, stats);
+        CommandMetrics.use(driver, new CommandMetrics());
+        CommandMetrics.attribute(driver, "WaitStatsTest#stacked");
+        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+
+        new MeasuredWait(driver, Duration.ofSeconds(5)).until(d -> d.findElement(By.id("q")));
+
+        assertEquals(1L, test("WaitStatsTest#stacked").get("stackedLookups"));
+    }
+
+    @Test
+    @DisplayName("Timeouts are suggested from the p99 time-to-true once enough waits were seen")
+    public void testSuggestion() {
+        LatencyHistogram timeToTrue = new LatencyHistogram();
+        for (int i = 0; i < WaitStats.MIN_SAMPLES - 1; i++) {
+            timeToTrue.record(1_000_000_000L);
+        }
+        assertTrue(WaitStats.suggestTimeout(timeToTrue).isEmpty());
+
+        timeToTrue.record(1_000_000_000L);
+        assertEquals(Duration.ofMillis(1500), WaitStats.suggestTimeout(timeToTrue).orElseThrow());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> test(String name) {
+        return ((List<Map<String, Object>>) stats.snapshot().get("tests")).stream()
+                .filter(t -> t.get("test").equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.net;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private static InterceptedResponse page(String body) {
+        return new InterceptedResponse(200,
+                List.of(new InterceptedResponse.Header("Content-Type", "text/html")),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(InterceptedResponse response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Saved archive loads back with status, headers and body")
+    public void testRoundTrip() {
+        HttpArchive recorded = HttpArchive.empty(dir);
+        recorded.add("GET", "https://example.com/", page("<h1>Example Domain</h1>"));
+        recorded.save();
+
+        HttpArchive replayed = HttpArchive.load(dir);
+        InterceptedResponse response = replayed.lookup("GET", "https://example.com/").orElseThrow();
+
+        assertEquals(200, response.status());
+        assertEquals("Content-Type", response.headers().get(0).name());
+        assertEquals("<h1>Example Domain</h1>", body(response));
+    }
+
+    @Test
+    @DisplayName("Repeated requests replay in recorded order")
+    public void testRecordedOrder() {
+        HttpArchive archive = HttpArchive.empty(dir);
+        archive.add("GET", "https://example.com/api", page("first"));
+        archive.add("GET", "https://example.com/api", page("second"));
+
+        assertEquals("first", body(archive.lookup("GET", "https://example.com/api").orElseThrow()));
+        assertEquals("second", body(archive.lookup("GET", "https://example.com/api").orElseThrow()));
+        assertEquals("second", body(archive.lookup("GET", "https://example.com/api").orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Unknown query string falls back to the same path; unknown path misses")
+    public void testQueryFallback() {
+        HttpArchive archive = HttpArchive.empty(dir);
+        archive.add("GET", "https://www.google.com/gen_204?t=1", page("ping"));
+
+        assertEquals("ping", body(archive.lookup("GET", "https://www.google.com/gen_204?t=2").orElseThrow()));
+        assertTrue(archive.lookup("POST", "https://www.google.com/gen_204?t=2").isEmpty());
+        assertTrue(archive.lookup("GET", "https://www.google.com/other").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Archive that was never recorded is empty")
+    public void testMissingArchive() {
+        HttpArchive archive = HttpArchive.load(dir.resolve("never-recorded"));
+
+        assertEquals(0, archive.size());
+        assertTrue(archive.lookup("GET", "https://example.com/").isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.net;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestBlockerTest {
+
+    private static final String PAGE = "https://www.amazon.co.uk/s?k=gift";
+
+    private static InterceptedRequest request(String url, String type) {
+        return new InterceptedRequest("1", "GET", url, Map.of(), null, type, PAGE);
+    }
+
+    @Test
+    @DisplayName("Requests are blocked by resource type, URL pattern or third-party origin")
+    public void testReasons() {
+        RequestBlocker blocker = new RequestBlocker(RequestBlocker.Mode.ON, new RequestBlocker.Rules(
+                Set.of("Image"), Set.of("Script"), List.of("*/uedata?*")));
+
+        assertEquals("type:Image", blocker.reason(request("https://m.media-amazon.com/a.jpg", "Image")));
+        assertEquals("pattern:*/uedata?*", blocker.reason(request("https://www.amazon.co.uk/uedata?x=1", "XHR")));
+        assertEquals("third-party:Script", blocker.reason(request("https://www.googletagmanager.com/gtm.js", "Script")));
+        assertNull(blocker.reason(request("https://images.amazon.co.uk/app.js", "Script")));
+        assertNull(blocker.reason(request("https://www.googletagmanager.com/gtm.css", "Stylesheet")));
+        assertNull(blocker.reason(request(PAGE, "Document")));
+    }
+
+    @Test
+    @DisplayName("Only the resource types and patterns a blocker needs are paused")
+    public void testFilters() {
+        RequestBlocker images = new RequestBlocker(RequestBlocker.Mode.ON, new RequestBlocker.Rules(
+                Set.of("Image"), Set.of(), List.of("*ads*")));
+        RequestBlocker anyThirdParty = new RequestBlocker(RequestBlocker.Mode.ON, new RequestBlocker.Rules(
+                Set.of(), Set.of("*"), List.of()));
+
+        assertEquals(List.of(RequestHandler.Filter.resourceType("Image"), RequestHandler.Filter.url("*ads*")),
+                images.filters());
+        assertEquals(List.of(RequestHandler.Filter.ALL), anyThirdParty.filters());
+    }
+
+    @Test
+    @DisplayName("Globs and sites follow CDP pattern and registrable-domain rules")
+    public void testGlobAndSite() {
+        assertTrue(RequestBlocker.glob("*.example.com/a?c*").matcher("https://cdn.example.com/abc.js").matches());
+        assertFalse(RequestBlocker.glob("*.example.com/a?c").matcher("https://cdn.example.com/ac").matches());
+        assertTrue(RequestBlocker.glob("*\\*literal").matcher("x*literal").matches());
+
+        assertEquals("amazon.co.uk", RequestBlocker.site("https://www.amazon.co.uk/"));
+        assertEquals("google.com", RequestBlocker.site("https://www.google.com/search"));
+        assertEquals("localhost", RequestBlocker.site("http://localhost:8080/"));
+    }
+}
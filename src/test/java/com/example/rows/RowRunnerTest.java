@@ -0,0 +1,84 @@
+package com.example.rows;
+
+import com.example.browser.BrowserPool;
+import com.example.browser.FakeDriver;
+import com.example.browser.SessionLimiter;
+import com.example.rows.DataRows.Row;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("CSV and JSON files become rows keyed by column")
+    public void testReadRows() throws IOException {
+        Path csv = Files.writeString(dir.resolve("searches.csv"),
+                "\uFEFFterm,expected\nJava,Java\n\n\"Java, the island\",\"say \"\"hi\"\"\"\nPython\n");
+        try (Stream<Row> rows = DataRows.read(csv)) {
+            List<Row> list = rows.toList();
+            assertEquals(3, list.size());
+            assertEquals(Map.of("term", "Java", "expected", "Java"), list.get(0).values());
+            assertEquals("Java, the island", list.get(1).get("term"));
+            assertEquals("say \"hi\"", list.get(1).get("expected"));
+            assertEquals("", list.get(2).get("expected"));
+            assertEquals(3, list.get(2).index());
+            assertThrows(IllegalArgumentException.class, () -> list.get(0).get("missing"));
+        }
+
+        Path json = Files.writeString(dir.resolve("searches.json"), "[{\"term\": \"Java\", \"page\": 1}, {\"term\": \"Go\"}]");
+        List<Row> rows = DataRows.read(json).toList();
+        assertEquals("1", rows.get(0).get("page"));
+        assertEquals("Go", rows.get(1).get("term"));
+    }
+
+    @Test
+    @DisplayName("Rows fan out across sessions without exceeding the cap, each with its own result")
+    public void testFanOut() {
+        SessionLimiter limiter = new SessionLimiter(3, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger peakSessions = new AtomicInteger();
+        try (BrowserPool pool = BrowserPool.create("rows", () -> FakeDriver.create().driver(), 3, 100, limiter)) {
+            RowRunner runner = new RowRunner(pool, "RowRunnerTest#fanOut", Duration.ofSeconds(1), 3);
+            String[] terms = new String[40];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = "term-" + (i + 1);
+            }
+
+            RowRunner.Summary summary = runner.run(DataRows.of("term", terms), (row, driver, wait) -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                peakSessions.accumulateAndGet(limiter.liveSessions(), Math::max);
+                try {
+                    Thread.sleep(10);
+                    assertNotEquals("term-7", row.get("term"), "Row 7 fails on purpose");
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+
+            assertEquals(40, summary.results().size());
+            assertEquals(List.of(7), summary.failed().stream().map(result -> result.row().index()).toList());
+            assertInstanceOf(AssertionError.class, summary.failed().get(0).failure());
+            assertEquals(1, summary.results().get(0).row().index(), "Results should be in input order");
+            assertTrue(peak.get() <= 3, "At most 3 rows in flight, saw " + peak.get());
+            assertTrue(peakSessions.get() <= 3, "At most 3 live sessions, saw " + peakSessions.get());
+            assertTrue(pool.launchedCount() <= 3, "Sessions should be reused across rows");
+            assertTrue(summary.rowsPerSecond() > 0);
+        }
+    }
+}
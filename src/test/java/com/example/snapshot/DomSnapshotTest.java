@@ -0,0 +1,153 @@
+package com.example.snapshot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DomSnapshotTest {
+
+    private int next;
+
+    /** Capture-script node; {@code attributes} alternate name and value, children are nodes or text. */
+    private Map<String, Object> el(String tag, List<String> attributes, String text, Object... children) {
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("i", next++);
+        node.put("t", tag);
+        List<List<String>> pairs = new ArrayList<>();
+        for (int i = 0; i < attributes.size(); i += 2) {
+            pairs.add(List.of(attributes.get(i), attributes.get(i + 1)));
+        }
+        node.put("a", pairs);
+        node.put("x", text);
+        node.put("k", Arrays.asList(children));
+        return node;
+    }
+
+    /**
+     * {@code <html><head><title>Example Domain</title></head><body><div id="main">
+     * <h1 class="title big">Example Domain</h1><p>First</p><p>Second <a href="https://iana.org/x">Learn more</a></p>
+     * </div><img src="a.png"></body></html>}
+     */
+    private DomSnapshot example() {
+        return example(index -> {
+            throw new AssertionError("Element " + index + " fetched from the browser");
+        });
+    }
+
+    private DomSnapshot example(IntFunction<WebElement> resolver) {
+        next = 0;
+        Map<String, Object> html = el("html", List.of(), "Example Domain First Second Learn more",
+                el("head", List.of(), "", el("title", List.of(), "", "Example Domain")),
+                el("body", List.of(), "Example Domain First Second Learn more",
+                        el("div", List.of("id", "main"), "Example Domain First Second Learn more",
+                                el("h1", List.of("class", "title big"), "Example Domain", "Example Domain"),
+                                el("p", List.of(), "First", "First"),
+                                el("p", List.of(), "Second Learn more", "Second ",
+                                        el("a", List.of("href", "https://iana.org/x"), "Learn more", "Learn more"))),
+                        el("img", List.of("src", "a.png"), "")));
+        return DomSnapshot.of(html, resolver, List.of("color"));
+    }
+
+    private static List<String> tags(DomSnapshot snapshot, By by, int scope) {
+        return snapshot.findAll(by, scope).orElseThrow().stream().map(snapshot::tagName).toList();
+    }
+
+    @Test
+    @DisplayName("CSS selectors match like the browser, in document order")
+    public void testCss() {
+        DomSnapshot snapshot = example();
+
+        assertEquals(List.of("p", "p"), tags(snapshot, By.cssSelector("div > p"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("div"), tags(snapshot, By.id("main"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("h1"), tags(snapshot, By.className("big"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("a"), tags(snapshot, By.cssSelector("a[href^='https://iana']"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("h1", "p"), tags(snapshot, By.cssSelector("p:last-child, h1"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("p"), tags(snapshot, By.cssSelector("h1 + p"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("h1"), tags(snapshot, By.cssSelector("div > :not(p)"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("p"), tags(snapshot, By.cssSelector("#main p:nth-child(2)"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("title"), tags(snapshot, By.tagName("title"), DomSnapshot.DOCUMENT));
+    }
+
+    @Test
+    @DisplayName("XPath runs with the JDK engine, including text functions")
+    public void testXPath() {
+        DomSnapshot snapshot = example();
+
+        assertEquals(List.of("h1"), tags(snapshot, By.xpath("//h1[normalize-space()='Example Domain']"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("a"), tags(snapshot, By.xpath("//a[normalize-space()='Learn more']"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of("p"), tags(snapshot, By.xpath("//div/p[1]"), DomSnapshot.DOCUMENT));
+        assertEquals(List.of(), tags(snapshot, By.xpath("//table"), DomSnapshot.DOCUMENT));
+    }
+
+    @Test
+    @DisplayName("Scoped lookups only return descendants; relative XPath starts at the scope")
+    public void testScope() {
+        DomSnapshot snapshot = example();
+        int secondParagraph = snapshot.findAll(By.cssSelector("p"), DomSnapshot.DOCUMENT).orElseThrow().get(1);
+
+        assertEquals(List.of("a"), tags(snapshot, By.cssSelector("div a"), secondParagraph));
+        assertEquals(List.of(), tags(snapshot, By.cssSelector("h1"), secondParagraph));
+        assertEquals(List.of("a"), tags(snapshot, By.xpath(".//a"), secondParagraph));
+        assertEquals(List.of("a"), tags(snapshot, By.linkText("Learn more"), secondParagraph));
+        assertEquals(List.of("a"), tags(snapshot, By.partialLinkText("Learn"), DomSnapshot.DOCUMENT));
+    }
+
+    @Test
+    @DisplayName("Selectors the snapshot cannot evaluate are handed back to the browser")
+    public void testUnsupported() {
+        DomSnapshot snapshot = example();
+
+        assertEquals(Optional.empty(), snapshot.findAll(By.cssSelector("input:checked"), DomSnapshot.DOCUMENT));
+        assertEquals(Optional.empty(), snapshot.findAll(By.cssSelector("p:nth-child(2n+1)"), DomSnapshot.DOCUMENT));
+        assertEquals(Optional.empty(), snapshot.findAll(By.cssSelector("#\\31 23"), DomSnapshot.DOCUMENT));
+        assertEquals(Optional.empty(), snapshot.findAll(By.xpath("count(//p)"), DomSnapshot.DOCUMENT));
+    }
+
+    @Test
+    @DisplayName("Reads come from the snapshot: text, attributes, outerHTML and captured styles")
+    public void testReads() {
+        DomSnapshot snapshot = example();
+        int h1 = snapshot.findAll(By.tagName("h1"), DomSnapshot.DOCUMENT).orElseThrow().get(0);
+        int img = snapshot.findAll(By.tagName("img"), DomSnapshot.DOCUMENT).orElseThrow().get(0);
+
+        assertEquals("Example Domain", snapshot.text(h1));
+        assertEquals("title big", snapshot.attribute(h1, "class"));
+        assertNull(snapshot.attribute(h1, "id"));
+        assertEquals("<h1 class=\"title big\">Example Domain</h1>", snapshot.outerHtml(h1));
+        assertEquals("<img src=\"a.png\">", snapshot.outerHtml(img));
+        assertTrue(snapshot.hasStyle("color"));
+        assertFalse(snapshot.hasStyle("font-size"));
+    }
+
+    @Test
+    @DisplayName("An element is fetched from the browser only when it is used, and only once")
+    public void testLiveOnDemand() {
+        AtomicInteger fetches = new AtomicInteger();
+        DomSnapshot snapshot = example(index -> {
+            fetches.incrementAndGet();
+            RemoteWebElement element = new RemoteWebElement();
+            element.setId("element-" + index);
+            return element;
+        });
+        int p = snapshot.findAll(By.tagName("p"), DomSnapshot.DOCUMENT).orElseThrow().get(1);
+        assertEquals("Second Learn more", snapshot.text(p));
+        assertEquals(0, fetches.get());
+
+        assertEquals("element-" + p, ((RemoteWebElement) snapshot.live(p)).getId());
+        assertSame(snapshot.live(p), snapshot.live(p));
+        assertEquals(1, fetches.get());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.tabs;
+
+import com.example.wait.WaitHistories;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TabGroupTest {
+
+    @TempDir
+    Path dir;
+
+    /** A session whose tabs become ready {@code delays} ms after a load starts. */
+    private static final class Tabs {
+        final Map<String, String> urls = new LinkedHashMap<>();
+        final Map<String, Long> readyAt = new LinkedHashMap<>();
+        final Map<String, Long> delays;
+        int maxOpen = 1;
+        String current = "tab-0";
+
+        Tabs(Map<String, Long> delays) {
+            this.delays = delays;
+            urls.put(current, "about:blank");
+            readyAt.put(current, 0L);
+        }
+
+        WebDriver driver() {
+            return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{WebDriver.class, JavascriptExecutor.class, WebDriver.TargetLocator.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getWindowHandle" -> current;
+                        case "getWindowHandles" -> new LinkedHashSet<>(urls.keySet());
+                        case "getCurrentUrl" -> urls.get(current);
+                        case "switchTo" -> proxy;
+                        case "window" -> {
+                            current = (String) args[0];
+                            yield proxy;
+                        }
+                        case "newWindow" -> {
+                            current = "tab-" + urls.size();
+                            urls.put(current, "about:blank");
+                            readyAt.put(current, 0L);
+                            maxOpen = Math.max(maxOpen, urls.size());
+                            yield proxy;
+                        }
+                        case "close" -> {
+                            urls.remove(current);
+                            yield null;
+                        }
+                        case "executeScript" -> script((String) args[0], (Object[]) args[1]);
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "Tabs";
+                        default -> null;
+                    });
+        }
+
+        private Object script(String script, Object[] args) {
+            if (script.contains("location.href = arguments[0]")) {
+                String url = (String) args[0];
+                urls.put(current, url);
+                readyAt.put(current, System.nanoTime() + Duration.ofMillis(delays.get(url)).toNanos());
+                return null;
+            }
+            return !"about:blank".equals(urls.get(current)) && System.nanoTime() >= readyAt.get(current);
+        }
+    }
+
+    @Test
+    @DisplayName("Pages load side by side and are checked as each becomes ready, in their own tab")
+    public void testChecksInReadyOrder() {
+        Map<String, Long> delays = new LinkedHashMap<>();
+        delays.put("https://slow.test/", 400L);
+        delays.put("https://fast.test/", 10L);
+        delays.put("https://next.test/", 10L);
+        delays.put("https://broken.test/", 10L);
+        Tabs session = new Tabs(delays);
+        WebDriver driver = WaitHistories.isolate(session.driver(), dir.resolve("wait-history.json"));
+        List<String> checked = new ArrayList<>();
+
+        List<TabGroup.Page> pages;
+        try (TabGroup tabs = new TabGroup(driver, 2, Duration.ofSeconds(5))) {
+            pages = tabs.check(List.copyOf(delays.keySet()), (url, tab) -> {
+                assertEquals(url, tab.getCurrentUrl(), "Check should run in the page's own tab");
+                checked.add(url);
+                assertNotEquals("https://broken.test/", url, "Fails on purpose");
+            });
+        }
+
+        assertEquals(List.of("https://fast.test/", "https://next.test/", "https://broken.test/", "https://slow.test/"), checked,
+                "The slow page should not hold up the others");
+        assertEquals(List.copyOf(delays.keySet()), pages.stream().map(TabGroup.Page::url).toList());
+        assertEquals(List.of(true, true, true, false), pages.stream().map(TabGroup.Page::passed).toList());
+        assertEquals(2, session.maxOpen, "No more tabs than asked for");
+        assertEquals(List.of("tab-0"), List.copyOf(session.urls.keySet()), "Extra tabs should be closed");
+        assertEquals("tab-0", session.current);
+    }
+
+    @Test
+    @DisplayName("A page that never becomes ready fails alone")
+    public void testTimeout() {
+        Map<String, Long> delays = Map.of("https://never.test/", 60_000L, "https://fast.test/", 10L);
+        WebDriver driver = WaitHistories.isolate(new Tabs(delays).driver(), dir.resolve("wait-history.json"));
+
+        try (TabGroup tabs = new TabGroup(driver, 2, Duration.ofMillis(300))) {
+            List<TabGroup.Page> pages = tabs.check(List.of("https://never.test/", "https://fast.test/"), (url, tab) -> { });
+
+            assertFalse(pages.get(0).passed());
+            assertTrue(pages.get(1).passed());
+        }
+    }
+}
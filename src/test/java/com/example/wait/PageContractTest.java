@@ -0,0 +1,48 @@
+package com.example.wait;
+
+import com.example.browser.Cdp;
+import com.example.browser.FakeDriver;
+import com.example.metrics.CommandMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageContractTest {
+
+    private static final PageContract HOME = new PageContract("SHOP_HOME", "https://shop.test/", false, "#search");
+    private static final PageContract PRODUCT = new PageContract("SHOP_PRODUCT", "https://shop.test/*dp/*", false, "h1");
+    private static final PageContract ANY = new PageContract("SHOP_ANY", "https://shop.test/*", true, "body");
+
+    @Test
+    @DisplayName("Navigation targets map to the first registered contract of their page")
+    public void testForUrl() {
+        PageContract.register(HOME, PRODUCT, ANY);
+
+        assertEquals(Optional.of(HOME), PageContract.forUrl("https://shop.test"));
+        assertEquals(Optional.of(HOME), PageContract.forUrl("https://shop.test/"));
+        assertEquals(Optional.of(PRODUCT), PageContract.forUrl("https://shop.test/gift-card/dp/B0B5V3N7L5"));
+        assertEquals(Optional.of(ANY), PageContract.forUrl("https://shop.test/s?k=gift+card"));
+        assertEquals(Optional.empty(), PageContract.forUrl("https://other.test/"));
+        assertEquals(Optional.empty(), PageContract.forUrl("about:blank"));
+        assertEquals("SHOP_PRODUCT", PageContract.forUrl("https://shop.test/dp/1").orElseThrow().toString());
+    }
+
+    @Test
+    @DisplayName("An enforced, instrumented driver still scripts and attributes like the session it wraps")
+    public void testEnforceKeepsSession() {
+        WebDriver session = FakeDriver.create().driver();
+        WebDriver driver = CommandMetrics.instrument(session, PageContracts.listener(session));
+        CommandMetrics.use(driver, new CommandMetrics());
+
+        CommandMetrics.attribute(driver, "PageContractTest#enforce");
+
+        assertInstanceOf(JavascriptExecutor.class, driver);
+        assertSame(session, Cdp.unwrap(driver));
+        assertEquals("PageContractTest#enforce", CommandMetrics.testOf(session));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.wait;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PushWaitTest {
+
+    @TempDir
+    Path dir;
+
+    /** A session whose every async script resolves with {@code asyncResult}, with a wait history of its own. */
+    private WebDriver page(Object asyncResult, AtomicInteger asyncCalls) {
+        WebDriver page = (WebDriver) Proxy.newProxyInstance(PushWaitTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "executeAsyncScript" -> {
+                        asyncCalls.incrementAndGet();
+                        yield asyncResult;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+        return WaitHistories.isolate(page, dir.resolve("wait-history.json"));
+    }
+
+    @Test
+    @DisplayName("A push condition resolves with one script call and no polling")
+    public void testResolvesInPage() {
+        AtomicInteger calls = new AtomicInteger();
+        PushWait wait = new PushWait(page(Map.of("value", true), calls), Duration.ofSeconds(10));
+
+        assertTrue(wait.until(PushConditions.titleContains("Example")));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("An unmet push condition times out with the condition in the message")
+    public void testTimeout() {
+        AtomicInteger calls = new AtomicInteger();
+        PushWait wait = new PushWait(page(null, calls), Duration.ofMillis(300));
+
+        TimeoutException e = assertThrows(TimeoutException.class,
+                () -> wait.until(PushConditions.presenceOfElementLocated(By.id("missing"))));
+        assertTrue(e.getMessage().contains("presence of element located by: By.id: missing"), e.getMessage());
+        assertTrue(calls.get() <= 4, "retried " + calls.get() + " times");
+    }
+
+    @Test
+    @DisplayName("Other conditions are polled as before")
+    public void testFallsBackToPolling() {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger checks = new AtomicInteger();
+        PushWait wait = new PushWait(page(null, calls), Duration.ofSeconds(5), Duration.ofMillis(10));
+
+        Integer result = wait.until(driver -> checks.incrementAndGet() == 3 ? 3 : null);
+        assertEquals(3, result);
+        assertEquals(0, calls.get());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.wait;
+
+import com.example.metrics.WaitStats;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Path;
+
+/**
+ * Keeps the waits of unit tests out of the shared wait history and wait report, so fake sessions
+ * neither leave entries in the developer's history nor get deadlines learned from earlier runs,
+ * and their waits do not show up in {@code target/wait-analysis.json}.
+ */
+public final class WaitHistories {
+
+    private WaitHistories() {
+    }
+
+    /**
+     * Gives {@code driver} a wait history of its own in {@code file}, with the default settings,
+     * and wait stats of its own; returns {@code driver}.
+     */
+    public static WebDriver isolate(WebDriver driver, Path file) {
+        WaitHistory.use(driver, new WaitHistory(file, true, 3));
+        WaitStats.use(driver, new WaitStats());
+        return driver;
+    }
+}
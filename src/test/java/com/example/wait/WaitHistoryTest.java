@@ -0,0 +1,87 @@
+package com.example.wait;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaitHistoryTest {
+
+    private static final String KEY = "GoogleTest#testSearch | GoogleTest.testSearch:42 | title to contain \"Selenium\"";
+
+    @TempDir
+    Path dir;
+
+    private static void resolveIn(WaitHistory history, long... millis) {
+        for (long ms : millis) {
+            history.record(KEY, Duration.ofMillis(ms).toNanos());
+        }
+    }
+
+    @Test
+    @DisplayName("Deadline and poll interval follow the history once there are enough samples")
+    public void testAdaptsToHistory() {
+        WaitHistory history = new WaitHistory(dir.resolve("history.json"), true, 3);
+        Duration configured = Duration.ofSeconds(25);
+
+        resolveIn(history, 900, 1000, 1100, 1200);
+        assertEquals(configured, history.deadline(KEY, configured));
+        assertEquals(Duration.ofMillis(500), history.pollInterval(KEY, Duration.ofMillis(500)));
+
+        resolveIn(history, 1500);
+        assertEquals(Duration.ofMillis(4500), history.deadline(KEY, configured));
+        assertEquals(Duration.ofMillis(275), history.pollInterval(KEY, Duration.ofMillis(500)));
+        assertEquals(Duration.ofSeconds(3), history.deadline(KEY, Duration.ofSeconds(3)));
+
+        WaitHistory fast = new WaitHistory(dir.resolve("fast.json"), true, 3);
+        for (int i = 0; i < 10; i++) {
+            fast.record(KEY, Duration.ofMillis(20).toNanos());
+        }
+        assertEquals(WaitHistory.FLOOR, fast.deadline(KEY, configured));
+        assertEquals(WaitHistory.MIN_POLL, fast.pollInterval(KEY, Duration.ofMillis(500)));
+    }
+
+    @Test
+    @DisplayName("A timed out wait gets its configured timeout until it resolves again")
+    public void testTimeoutRestoresConfigured() {
+        WaitHistory history = new WaitHistory(dir.resolve("history.json"), true, 3);
+        Duration configured = Duration.ofSeconds(25);
+        resolveIn(history, 100, 100, 100, 100, 100);
+
+        history.record(KEY, -1);
+        assertEquals(configured, history.deadline(KEY, configured));
+
+        resolveIn(history, 8000);
+        assertEquals(Duration.ofSeconds(24), history.deadline(KEY, configured));
+    }
+
+    @Test
+    @DisplayName("History survives a restart and is only applied when adaptive waits are on")
+    public void testPersists() throws Exception {
+        Path file = dir.resolve("cache").resolve("wait-history.json");
+        WaitHistory first = new WaitHistory(file, true, 3);
+        resolveIn(first, 600, 700, 800, 900, 1000);
+        first.save();
+
+        assertTrue(Files.exists(file));
+        assertEquals(Duration.ofSeconds(3), new WaitHistory(file, true, 3).deadline(KEY, Duration.ofSeconds(25)));
+        assertEquals(Duration.ofSeconds(25), new WaitHistory(file, false, 3).deadline(KEY, Duration.ofSeconds(25)));
+
+        Files.writeString(file, "{not json");
+        assertEquals(Duration.ofSeconds(25), new WaitHistory(file, true, 3).deadline(KEY, Duration.ofSeconds(25)));
+    }
+
+    @Test
+    @DisplayName("Conditions are described without per-run lambda names and identity hashes")
+    public void testDescribe() {
+        Runnable lambda = () -> { };
+        assertEquals("lambda", WaitHistory.describe(lambda));
+        assertEquals("com.example.locate.LocatorGroup$1", WaitHistory.describe("com.example.locate.LocatorGroup$1@1b2c3d"));
+        assertEquals("title to contain \"Selenium\"", WaitHistory.describe("title to contain \"Selenium\""));
+    }
+}